@@ -4,7 +4,15 @@ import java.net.Proxy;
 
 import javax.net.ssl.SSLSocketFactory;
 
+import com.gocardless.http.Bulkheads;
+import com.gocardless.http.CircuitBreakers;
+import com.gocardless.http.ClientMetrics;
+import com.gocardless.http.ConcurrencyLimiter;
+import com.gocardless.http.HedgingPolicy;
 import com.gocardless.http.HttpClient;
+import com.gocardless.http.LoggingInterceptor;
+import com.gocardless.http.PageSizeTuner;
+import com.gocardless.http.RequestTimingListener;
 import com.gocardless.services.*;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -39,6 +47,15 @@ public class GoCardlessClient {
         private String baseUrl;
         private Proxy proxy;
         private SSLSocketFactory sslSocketFactory;
+        private Integer requestCompressionThreshold;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private CircuitBreakers circuitBreakers;
+        private Bulkheads bulkheads;
+        private HedgingPolicy hedgingPolicy;
+        private PageSizeTuner pageSizeTuner;
+        private LoggingInterceptor loggingInterceptor = LoggingInterceptor.newBuilder().build();
+        private RequestTimingListener timingListener;
+        private boolean stacklessErrors;
 
         /**
          * Constructor.  Users of this library will not need to access this constructor directly -
@@ -92,6 +109,113 @@ public class GoCardlessClient {
             return this;
         }
 
+        /**
+         * Configures the client to gzip-compress request bodies which are at least the given
+         * number of bytes long.  Responses are always requested gzip-compressed, whether or not
+         * this is set.
+         *
+         * @param minimumBytes the smallest request body which will be compressed
+         */
+        public Builder withRequestCompression(int minimumBytes) {
+            this.requestCompressionThreshold = minimumBytes;
+            return this;
+        }
+
+        /**
+         * Configures the client to adapt the number of requests it has in flight at once to
+         * how the API is responding, using the given limiter.  Requests beyond the limit are
+         * queued or rejected, as configured on the limiter.
+         *
+         * @param concurrencyLimiter the limiter to use
+         */
+        public Builder withConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Configures the client to guard each endpoint with a circuit breaker, so that
+         * requests to an endpoint which is failing or slow fail fast with a
+         * CircuitBreakerOpenException instead of being sent.
+         *
+         * @param circuitBreakers the breakers to use
+         */
+        public Builder withCircuitBreakers(CircuitBreakers circuitBreakers) {
+            this.circuitBreakers = circuitBreakers;
+            return this;
+        }
+
+        /**
+         * Configures the client to isolate the API's services from each other, so that one
+         * service making lots of requests, such as a bulk export of payments, can't starve
+         * the others of capacity.
+         *
+         * @param bulkheads the bulkheads to use
+         */
+        public Builder withBulkheads(Bulkheads bulkheads) {
+            this.bulkheads = bulkheads;
+            return this;
+        }
+
+        /**
+         * Configures the client to hedge GET requests: if one is taking longer than most
+         * requests to the same endpoint, a duplicate is sent and whichever responds first is
+         * used.  Other requests are never hedged.
+         *
+         * @param hedgingPolicy the policy deciding when to hedge
+         */
+        public Builder withHedging(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Configures the client to choose the size of each page fetched when iterating through
+         * a list, adjusting it as it goes to get through the list as quickly as it can without
+         * pages growing too large.  Lists whose limit has been set are left alone.
+         *
+         * @param pageSizeTuner the tuner choosing page sizes
+         */
+        public Builder withPageSizeTuning(PageSizeTuner pageSizeTuner) {
+            this.pageSizeTuner = pageSizeTuner;
+            return this;
+        }
+
+        /**
+         * Configures how the client logs the requests it makes.  By default, every request
+         * is logged at INFO level.
+         *
+         * @param loggingInterceptor the interceptor to log requests with, or null to turn off
+         *                           request logging
+         */
+        public Builder withRequestLogging(LoggingInterceptor loggingInterceptor) {
+            this.loggingInterceptor = loggingInterceptor;
+            return this;
+        }
+
+        /**
+         * Configures the client to report a breakdown of the time taken by each attempt at a
+         * request, from queueing for permits to parsing the response, to the given listener.
+         *
+         * @param timingListener the listener to report to
+         */
+        public Builder withTimingListener(RequestTimingListener timingListener) {
+            this.timingListener = timingListener;
+            return this;
+        }
+
+        /**
+         * Configures the client to throw exceptions for error responses from the API without
+         * filling in their stack traces, which is most of the cost of throwing them. Useful
+         * for bulk jobs which expect lots of errors and handle them straight away.
+         *
+         * @param stacklessErrors whether to skip filling in stack traces
+         */
+        public Builder withStacklessErrors(boolean stacklessErrors) {
+            this.stacklessErrors = stacklessErrors;
+            return this;
+        }
+
         /**
          * Builds a configured instance of the GoCardlessClient
          */
@@ -100,6 +224,29 @@ public class GoCardlessClient {
             rawClient.setProxy(proxy);
             rawClient.setSslSocketFactory(sslSocketFactory);
             HttpClient client = new HttpClient(accessToken, baseUrl, rawClient);
+            client.setLoggingInterceptor(loggingInterceptor);
+            if (requestCompressionThreshold != null) {
+                client.enableRequestCompression(requestCompressionThreshold);
+            }
+            if (concurrencyLimiter != null) {
+                client.setConcurrencyLimiter(concurrencyLimiter);
+            }
+            if (circuitBreakers != null) {
+                client.setCircuitBreakers(circuitBreakers);
+            }
+            if (bulkheads != null) {
+                client.setBulkheads(bulkheads);
+            }
+            if (hedgingPolicy != null) {
+                client.setHedgingPolicy(hedgingPolicy);
+            }
+            if (pageSizeTuner != null) {
+                client.setPageSizeTuner(pageSizeTuner);
+            }
+            if (timingListener != null) {
+                client.setTimingListener(timingListener);
+            }
+            client.setStacklessErrors(stacklessErrors);
             return new GoCardlessClient(client);
         }
     }
@@ -278,6 +425,13 @@ public class GoCardlessClient {
         return new Builder(accessToken);
     }
 
+    /**
+     * Returns metrics describing the behaviour of this client's HTTP layer.
+     */
+    public ClientMetrics metrics() {
+        return httpClient.getMetrics();
+    }
+
     @VisibleForTesting
     HttpClient getHttpClient() {
         return httpClient;
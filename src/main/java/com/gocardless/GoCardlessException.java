@@ -4,6 +4,8 @@ package com.gocardless;
  * Base class for client library exceptions.
  */
 public abstract class GoCardlessException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     protected GoCardlessException() {
         super();
     }
@@ -15,4 +17,13 @@ public abstract class GoCardlessException extends RuntimeException {
     protected GoCardlessException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Creates an exception which only records a stack trace if `writableStackTrace` is true.
+     * Filling in stack traces is most of the cost of throwing an exception, and isn't worth
+     * paying for errors which are expected and handled straight away.
+     */
+    protected GoCardlessException(String message, boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+    }
 }
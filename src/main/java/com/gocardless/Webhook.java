@@ -1,14 +1,11 @@
 package com.gocardless;
 
-import java.security.MessageDigest;
 import java.util.List;
 
 import com.gocardless.errors.InvalidSignatureException;
 import com.gocardless.http.WebhookParser;
 import com.gocardless.resources.Event;
 
-import org.apache.commons.codec.digest.HmacUtils;
-
 /**
  * Class containing a collection of functions for validating and parsing GoCardless webhooks
  */
@@ -53,7 +50,7 @@ public class Webhook {
      */
     public static boolean isValidSignature(String requestBody, String signatureHeader,
             String webhookEndpointSecret) {
-        String computedSignature = HmacUtils.hmacSha256Hex(webhookEndpointSecret, requestBody);
-        return MessageDigest.isEqual(signatureHeader.getBytes(), computedSignature.getBytes());
+        return WebhookParser.isValidSignature(requestBody, signatureHeader,
+                webhookEndpointSecret);
     }
 }
@@ -39,6 +39,14 @@ public class ApiError {
         return reason;
     }
 
+    /**
+     * Returns the reason for this error as an {@link ErrorReason}, which is
+     * {@link ErrorReason#UNKNOWN} if this version of the library doesn't know about it.
+     */
+    public ErrorReason getErrorReason() {
+        return ErrorReason.fromKey(reason);
+    }
+
     /**
      * Returns the field that this error applies to.
      */
@@ -5,6 +5,9 @@ import java.util.List;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 
+/**
+ * The body of an error response from the API.
+ */
 public class ApiErrorResponse {
     private static final Joiner JOINER = Joiner.on(", ");
     private final String message;
@@ -24,33 +27,65 @@ public class ApiErrorResponse {
         this.errors = errors;
     }
 
-    String getMessage() {
+    /**
+     * Returns a human-readable description of the error.
+     */
+    public String getMessage() {
         return message;
     }
 
-    ErrorType getType() {
+    /**
+     * Returns the type of the error.
+     */
+    public ErrorType getType() {
         return type;
     }
 
-    String getDocumentationUrl() {
+    /**
+     * Returns the URL to the documentation describing the error.
+     */
+    public String getDocumentationUrl() {
         return documentationUrl;
     }
 
-    String getRequestId() {
+    /**
+     * Returns the ID of the request.
+     */
+    public String getRequestId() {
         return requestId;
     }
 
-    int getCode() {
+    /**
+     * Returns the HTTP status code.
+     */
+    public int getCode() {
         return code;
     }
 
-    List<ApiError> getErrors() {
+    /**
+     * Returns a list of errors.
+     */
+    public List<ApiError> getErrors() {
         if (errors == null) {
             return ImmutableList.of();
         }
         return ImmutableList.copyOf(errors);
     }
 
+    /**
+     * Returns the first error with the given reason, or null if there isn't one.
+     */
+    public ApiError findError(ErrorReason reason) {
+        if (errors != null) {
+            for (ApiError error : errors) {
+                if (error.getErrorReason() == reason) {
+                    return error;
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         if (errors == null || errors.isEmpty()) {
@@ -0,0 +1,82 @@
+package com.gocardless.errors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reasons the API gives for individual errors, so that callers can switch on them instead of
+ * comparing strings.
+ *
+ * The API adds new reasons from time to time, so any reason this version of the library
+ * doesn't know about is mapped to {@link #UNKNOWN}. The original key is always available from
+ * {@link ApiError#getReason()}.
+ */
+public enum ErrorReason {
+    ACCESS_TOKEN_NOT_ACTIVE("access_token_not_active"),
+    ACCESS_TOKEN_NOT_FOUND("access_token_not_found"),
+    ACCESS_TOKEN_REVOKED("access_token_revoked"),
+    BANK_ACCOUNT_DISABLED("bank_account_disabled"),
+    BANK_ACCOUNT_EXISTS("bank_account_exists"),
+    CANCELLATION_FAILED("cancellation_failed"),
+    CUSTOMER_BANK_ACCOUNT_TOKEN_USED("customer_bank_account_token_used"),
+    DISABLE_FAILED("disable_failed"),
+    IDEMPOTENT_CREATION_CONFLICT("idempotent_creation_conflict"),
+    INSUFFICIENT_PERMISSIONS("insufficient_permissions"),
+    INTERNAL_SERVER_ERROR("internal_server_error"),
+    INVALID_AUTHORIZATION_HEADER("invalid_authorization_header"),
+    INVALID_CONTENT_TYPE("invalid_content_type"),
+    INVALID_DOCUMENT_STRUCTURE("invalid_document_structure"),
+    INVALID_FILTERS("invalid_filters"),
+    INVALID_TYPE("invalid_type"),
+    MANDATE_IS_INACTIVE("mandate_is_inactive"),
+    MANDATE_REPLACED("mandate_replaced"),
+    METHOD_NOT_ALLOWED("method_not_allowed"),
+    MISSING_AUTHORIZATION_HEADER("missing_authorization_header"),
+    MISSING_VERSION_HEADER("missing_version_header"),
+    NOT_ACCEPTABLE("not_acceptable"),
+    PATH_NOT_FOUND("path_not_found"),
+    RATE_LIMIT_EXCEEDED("rate_limit_exceeded"),
+    REDIRECT_FLOW_ALREADY_COMPLETED("redirect_flow_already_completed"),
+    REDIRECT_FLOW_INCOMPLETE("redirect_flow_incomplete"),
+    REQUEST_ENTITY_TOO_LARGE("request_entity_too_large"),
+    RESOURCE_NOT_FOUND("resource_not_found"),
+    RETRY_FAILED("retry_failed"),
+    UNAUTHORIZED("unauthorized"),
+    UNSUPPORTED_MEDIA_TYPE("unsupported_media_type"),
+    VERSION_NOT_FOUND("version_not_found"),
+    /**
+     * A reason this version of the library doesn't know about.
+     */
+    UNKNOWN(null);
+
+    private static final Map<String, ErrorReason> BY_KEY = new HashMap<>();
+
+    static {
+        for (ErrorReason reason : values()) {
+            if (reason.key != null) {
+                BY_KEY.put(reason.key, reason);
+            }
+        }
+    }
+
+    private final String key;
+
+    ErrorReason(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the key the API uses for this reason, or null for {@link #UNKNOWN}.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the reason with the given key, or {@link #UNKNOWN} if there isn't one.
+     */
+    public static ErrorReason fromKey(String key) {
+        ErrorReason reason = key == null ? null : BY_KEY.get(key);
+        return reason == null ? UNKNOWN : reason;
+    }
+}
@@ -9,10 +9,15 @@ import com.gocardless.GoCardlessException;
  * the API.
  */
 public class GoCardlessApiException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
     private final ApiErrorResponse error;
 
     GoCardlessApiException(ApiErrorResponse error) {
-        super(error.toString());
+        this(error, false);
+    }
+
+    GoCardlessApiException(ApiErrorResponse error, boolean stackless) {
+        super(error.toString(), !stackless);
         this.error = error;
     }
 
@@ -59,6 +64,13 @@ public class GoCardlessApiException extends GoCardlessException {
         return error.getErrors();
     }
 
+    /**
+     * Returns the error response this exception was created from.
+     */
+    public ApiErrorResponse getErrorResponse() {
+        return error;
+    }
+
     @Override
     public String toString() {
         return error.toString();
@@ -11,15 +11,25 @@ public class GoCardlessErrorMapper {
      * @param error the error response to map
      */
     public static GoCardlessApiException toException(ApiErrorResponse error) {
+        return toException(error, false);
+    }
+
+    /**
+     * Maps an error response to an exception, optionally without a stack trace.
+     *
+     * @param error the error response to map
+     * @param stackless whether to skip filling in the exception's stack trace
+     */
+    public static GoCardlessApiException toException(ApiErrorResponse error, boolean stackless) {
         switch (error.getType()) {
             case GOCARDLESS:
-                return new GoCardlessInternalException(error);
+                return new GoCardlessInternalException(error, stackless);
             case INVALID_API_USAGE:
-                return new InvalidApiUsageException(error);
+                return new InvalidApiUsageException(error, stackless);
             case INVALID_STATE:
-                return new InvalidStateException(error);
+                return new InvalidStateException(error, stackless);
             case VALIDATION_FAILED:
-                return new ValidationFailedException(error);
+                return new ValidationFailedException(error, stackless);
         }
         throw new IllegalStateException("Unknown error type: " + error.getType());
     }
@@ -4,7 +4,13 @@ package com.gocardless.errors;
  * Exception thrown when an internal error occurred while processing your request.
  */
 public class GoCardlessInternalException extends GoCardlessApiException {
+    private static final long serialVersionUID = 1L;
+
     GoCardlessInternalException(ApiErrorResponse error) {
         super(error);
     }
+
+    GoCardlessInternalException(ApiErrorResponse error, boolean stackless) {
+        super(error, stackless);
+    }
 }
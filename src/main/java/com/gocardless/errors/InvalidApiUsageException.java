@@ -4,7 +4,13 @@ package com.gocardless.errors;
  * Exception thrown when there is an error with the request you made.
  */
 public class InvalidApiUsageException extends GoCardlessApiException {
+    private static final long serialVersionUID = 1L;
+
     InvalidApiUsageException(ApiErrorResponse error) {
         super(error);
     }
+
+    InvalidApiUsageException(ApiErrorResponse error, boolean stackless) {
+        super(error, stackless);
+    }
 }
@@ -5,7 +5,13 @@ package com.gocardless.errors;
  * the state of the resource you are requesting it on.
  */
 public class InvalidStateException extends GoCardlessApiException {
+    private static final long serialVersionUID = 1L;
+
     InvalidStateException(ApiErrorResponse error) {
         super(error);
     }
+
+    InvalidStateException(ApiErrorResponse error, boolean stackless) {
+        super(error, stackless);
+    }
 }
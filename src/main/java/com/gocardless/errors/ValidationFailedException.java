@@ -4,7 +4,13 @@ package com.gocardless.errors;
  * Exception thrown when the parameters submitted with your request were invalid.
  */
 public class ValidationFailedException extends GoCardlessApiException {
+    private static final long serialVersionUID = 1L;
+
     ValidationFailedException(ApiErrorResponse error) {
         super(error);
     }
+
+    ValidationFailedException(ApiErrorResponse error, boolean stackless) {
+        super(error, stackless);
+    }
 }
@@ -1,6 +1,7 @@
 package com.gocardless.http;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
@@ -18,10 +19,26 @@ abstract class ApiRequest<T> {
     // this serialization.
     private transient final HttpClient httpClient;
     private transient final Map<String, String> customHeaders;
+    private transient CallHandle callHandle;
+    private transient long timeoutNanos;
+    private transient RequestPriority priority;
+    private transient RequestPriority defaultPriority = RequestPriority.INTERACTIVE;
 
     ApiRequest(HttpClient httpClient) {
         this.httpClient = httpClient;
         this.customHeaders = Maps.newHashMap();
+        this.callHandle = new CallHandle();
+    }
+
+    /**
+     * Cancels this request, aborting any HTTP call that is in flight.
+     *
+     * This may be called from any thread.  The thread executing the request will receive a
+     * {@link RequestCancelledException}, and any later attempt to execute it will fail in the
+     * same way.
+     */
+    public void cancel() {
+        callHandle.cancel();
     }
 
     HttpUrl getUrl(UrlFormatter urlFormatter) {
@@ -51,6 +68,59 @@ abstract class ApiRequest<T> {
         this.customHeaders.put(headerName, headerValue);
     }
 
+    // As with `addHeader`, subclasses expose this through a `withTimeout` method.
+    protected final void setTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    // As with `addHeader`, subclasses expose this through a `withPriority` method.
+    protected final void setPriority(RequestPriority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("priority must not be null");
+        }
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the deadline for an execution of this request starting now, or null if no
+     * timeout has been set.
+     */
+    Deadline newDeadline() {
+        if (timeoutNanos == 0) {
+            return null;
+        }
+        return Deadline.after(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the priority to send this request with: the one the caller set, if any, or
+     * otherwise the default.
+     */
+    RequestPriority getPriority() {
+        return priority == null ? defaultPriority : priority;
+    }
+
+    /**
+     * Sets the priority to send this request with if the caller hasn't set one, returning
+     * the previous default so that it can be restored.
+     */
+    RequestPriority setDefaultPriority(RequestPriority defaultPriority) {
+        RequestPriority previous = this.defaultPriority;
+        this.defaultPriority = defaultPriority;
+        return previous;
+    }
+
+    CallHandle getCallHandle() {
+        return callHandle;
+    }
+
+    void shareCallHandle(ApiRequest<?> other) {
+        this.callHandle = other.callHandle;
+    }
+
     protected final Map<String, String> getCustomHeaders() {
         return ImmutableMap.copyOf(this.customHeaders);
     }
@@ -3,23 +3,35 @@ package com.gocardless.http;
 import java.util.List;
 import java.util.Map;
 
-import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Multimap;
 
+import com.squareup.okhttp.Headers;
+
 /**
  * Base class for API responses.
  *
+ * Headers are kept as they were received, and only copied into a multimap if
+ * {@link #getHeaders()} is called. The rate limit and request ID headers can be read without
+ * doing so.
+ *
  * @param <T> the type of the resource within this response.
  */
 public class ApiResponse<T> {
     private final T resource;
     private final int statusCode;
-    private final Multimap<String, String> headers;
+    private final Headers headers;
+    private final RequestTimings timings;
+    private volatile Multimap<String, String> headerMap;
 
     public ApiResponse(T resource, int statusCode, Map<String, List<String>> headers) {
+        this(resource, statusCode, ResponseHeaders.fromMap(headers), null);
+    }
+
+    ApiResponse(T resource, int statusCode, Headers headers, RequestTimings timings) {
         this.resource = resource;
         this.statusCode = statusCode;
-        this.headers = buildHeaderMap(headers);
+        this.headers = headers;
+        this.timings = timings;
     }
 
     public T getResource() {
@@ -31,14 +43,58 @@ public class ApiResponse<T> {
     }
 
     public Multimap<String, String> getHeaders() {
-        return headers;
+        Multimap<String, String> map = headerMap;
+        if (map == null) {
+            map = ResponseHeaders.toMultimap(headers);
+            headerMap = map;
+        }
+        return map;
     }
 
-    private static Multimap<String, String> buildHeaderMap(Map<String, List<String>> headers) {
-        ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
-        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-            builder.putAll(entry.getKey(), entry.getValue());
-        }
-        return builder.build();
+    /**
+     * Returns the last value of the given header, or null if it wasn't sent.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns the number of requests allowed in the current rate limit window, from the
+     * `RateLimit-Limit` header, or -1 if it wasn't sent.
+     */
+    public int getRateLimitLimit() {
+        return ResponseHeaders.parseInt(headers.get(ResponseHeaders.RATE_LIMIT_LIMIT));
+    }
+
+    /**
+     * Returns the number of requests left in the current rate limit window, from the
+     * `RateLimit-Remaining` header, or -1 if it wasn't sent.
+     */
+    public int getRateLimitRemaining() {
+        return ResponseHeaders.parseInt(headers.get(ResponseHeaders.RATE_LIMIT_REMAINING));
+    }
+
+    /**
+     * Returns the time the current rate limit window ends, in milliseconds since the epoch,
+     * from the `RateLimit-Reset` header, or -1 if it wasn't sent.
+     */
+    public long getRateLimitReset() {
+        return ResponseHeaders.parseHttpDate(headers.get(ResponseHeaders.RATE_LIMIT_RESET));
+    }
+
+    /**
+     * Returns the ID the API assigned to this request, from the `Request-Id` header, or null
+     * if it wasn't sent.  Include this when contacting support about a request.
+     */
+    public String getRequestId() {
+        return headers.get(ResponseHeaders.REQUEST_ID);
+    }
+
+    /**
+     * Returns a breakdown of the time taken to execute the request and parse its response,
+     * or null if this response wasn't returned by a client.
+     */
+    public RequestTimings getTimings() {
+        return timings;
     }
 }
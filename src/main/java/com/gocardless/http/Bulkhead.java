@@ -0,0 +1,91 @@
+package com.gocardless.http;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the number of requests a single service, such as `payments`, can have in flight,
+ * so that it can't use up capacity shared with other services.
+ *
+ * Instances are created by {@link Bulkheads}, and are safe to share between threads.
+ */
+public final class Bulkhead {
+    private final String service;
+    private final int limit;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    Bulkhead(String service, int limit, long maxWaitNanos) {
+        this.service = service;
+        this.limit = limit;
+        this.maxWaitNanos = maxWaitNanos;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Returns the name of the service this bulkhead applies to.
+     */
+    public String getService() {
+        return service;
+    }
+
+    /**
+     * Returns the maximum number of requests the service can have in flight.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of requests the service currently has in flight.
+     */
+    public int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Returns the total number of requests rejected because the service had too many in
+     * flight for too long.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Waits for a permit to send a request, until the maximum wait or the deadline (if any)
+     * passes.
+     */
+    void acquire(Deadline deadline) {
+        long waitNanos = maxWaitNanos;
+        if (deadline != null) {
+            waitNanos = Math.min(waitNanos, deadline.remaining(NANOSECONDS));
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitNanos, NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestCancelledException("Interrupted while waiting to send request");
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException(
+                    String.format("Too many %s requests in flight", service));
+        }
+    }
+
+    /**
+     * Takes a permit if one is free and no request is waiting for one, without waiting.
+     * Returns whether it took one. Not taking one doesn't count as a rejection.
+     */
+    boolean tryAcquire() {
+        return !permits.hasQueuedThreads() && permits.tryAcquire();
+    }
+
+    void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,15 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+
+/**
+ * Exception thrown when a request is rejected because the {@link Bulkhead} for its service
+ * has no free permits, without being sent to the API.
+ */
+public class BulkheadFullException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
+
+    BulkheadFullException(String message) {
+        super(message);
+    }
+}
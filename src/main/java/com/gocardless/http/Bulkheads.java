@@ -0,0 +1,136 @@
+package com.gocardless.http;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A set of {@link Bulkhead}s, isolating the services of the API from each other.
+ *
+ * Services are named after the first segment of their endpoints' paths, so requests made
+ * through `GoCardlessClient#redirectFlows()` belong to `redirect_flows`, and those made
+ * through `GoCardlessClient#payments()` to `payments`. Each service can be given its own
+ * limit on the number of requests in flight, and a default limit can be set for the rest.
+ * Services without a limit are not isolated.
+ *
+ * Each service with a limit also gets its own pool of connections, so a service making lots
+ * of requests can't hold on to connections other services need.
+ *
+ * Requests waiting for a service's permit are granted them in the order they arrived,
+ * regardless of their {@link RequestPriority}, so a service's batch requests can hold up its
+ * interactive ones. Priority only takes effect in a {@link ConcurrencyLimiter}.
+ */
+public final class Bulkheads {
+    private final Map<String, Integer> limits;
+    private final Integer defaultLimit;
+    private final long maxWaitNanos;
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private Bulkheads(Builder builder) {
+        this.limits = ImmutableMap.copyOf(builder.limits);
+        this.defaultLimit = builder.defaultLimit;
+        this.maxWaitNanos = builder.maxWaitNanos;
+    }
+
+    /**
+     * Returns a builder for configuring a set of bulkheads.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the bulkheads used so far, keyed by service.
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        return ImmutableMap.copyOf(bulkheads);
+    }
+
+    /**
+     * Returns the bulkhead for the given service, creating it if necessary, or null if the
+     * service isn't limited.
+     */
+    public Bulkhead forService(String service) {
+        Bulkhead bulkhead = bulkheads.get(service);
+        if (bulkhead == null) {
+            Integer limit = limits.containsKey(service) ? limits.get(service) : defaultLimit;
+            if (limit == null) {
+                return null;
+            }
+            bulkhead = new Bulkhead(service, limit, maxWaitNanos);
+            Bulkhead existing = bulkheads.putIfAbsent(service, bulkhead);
+            if (existing != null) {
+                bulkhead = existing;
+            }
+        }
+        return bulkhead;
+    }
+
+    /**
+     * Returns the service an endpoint belongs to, given its path template.
+     */
+    static String serviceOf(String pathTemplate) {
+        int start = pathTemplate.startsWith("/") ? 1 : 0;
+        int end = pathTemplate.indexOf('/', start);
+        return end < 0 ? pathTemplate.substring(start) : pathTemplate.substring(start, end);
+    }
+
+    /**
+     * Builder for {@link Bulkheads}.
+     */
+    public static final class Builder {
+        private final Map<String, Integer> limits = new HashMap<>();
+        private Integer defaultLimit;
+        private long maxWaitNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private Builder() {}
+
+        /**
+         * Limits the number of requests the given service can have in flight.
+         *
+         * @param service the service, such as `payments` or `redirect_flows`
+         * @param limit the maximum number of requests in flight
+         */
+        public Builder withLimit(String service, int limit) {
+            this.limits.put(service, limit);
+            return this;
+        }
+
+        /**
+         * Limits the number of requests each service without its own limit can have in
+         * flight. By default, such services are not limited.
+         */
+        public Builder withDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+            return this;
+        }
+
+        /**
+         * Sets the longest a request will wait for a permit. Defaults to 1 second.
+         */
+        public Builder withMaxWait(long maxWait, TimeUnit unit) {
+            this.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * Builds the set of bulkheads.
+         */
+        public Bulkheads build() {
+            for (Map.Entry<String, Integer> limit : limits.entrySet()) {
+                if (limit.getValue() < 1) {
+                    throw new IllegalArgumentException(
+                            "Limit for " + limit.getKey() + " must be at least 1");
+                }
+            }
+            if (defaultLimit != null && defaultLimit < 1) {
+                throw new IllegalArgumentException("defaultLimit must be at least 1");
+            }
+            return new Bulkheads(this);
+        }
+    }
+}
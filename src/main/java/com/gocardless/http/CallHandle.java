@@ -0,0 +1,52 @@
+package com.gocardless.http;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.squareup.okhttp.Call;
+
+/**
+ * Tracks the in-flight OkHttp {@link Call}s for a request, so that they can be cancelled
+ * from another thread. There is usually only one, but a hedged request may have two.
+ *
+ * Cancellation is permanent: once cancelled, any further attempt to execute a request
+ * using this handle fails immediately.
+ */
+final class CallHandle {
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final Set<Call> calls =
+            Collections.newSetFromMap(new ConcurrentHashMap<Call, Boolean>());
+
+    void cancel() {
+        cancelled.countDown();
+        for (Call call : calls) {
+            call.cancel();
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    void attach(Call call) {
+        calls.add(call);
+        // Covers a cancellation which raced with the call being attached.
+        if (isCancelled()) {
+            call.cancel();
+        }
+    }
+
+    void detach(Call call) {
+        calls.remove(call);
+    }
+
+    /**
+     * Sleeps for the given time, returning early if the handle is cancelled.
+     */
+    void sleep(long millis) throws InterruptedException {
+        cancelled.await(millis, TimeUnit.MILLISECONDS);
+    }
+}
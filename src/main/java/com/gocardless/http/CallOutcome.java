@@ -0,0 +1,21 @@
+package com.gocardless.http;
+
+/**
+ * How an HTTP exchange went, as far as the client's load management is concerned.
+ */
+enum CallOutcome {
+    /**
+     * The API responded normally, even if it was with a 4xx error, so the latency is a useful
+     * signal.
+     */
+    SUCCESS,
+    /**
+     * The request failed in a way that suggests the API is overloaded or unhealthy, such as a
+     * 5xx or 429 response, a network error or a timeout.
+     */
+    DROPPED,
+    /**
+     * The request was cancelled by the caller, so tells us nothing.
+     */
+    IGNORED
+}
@@ -0,0 +1,181 @@
+package com.gocardless.http;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Iterates through every item of a list, as {@link ListRequest#iteratingExecutor()} does, while
+ * keeping track of how far it has got so that iteration can be resumed from a checkpoint.
+ *
+ * If a page can't be fetched, the exception is thrown from {@link #hasNext()} or
+ * {@link #next()} without losing the iterator's place: calling either again tries the page
+ * again, and {@link #checkpoint()} still returns the item after the last one returned.
+ *
+ * Pages are fetched with the filters the list request had when the iterator was created, or
+ * that the checkpoint it was resumed from had, without changing the list request.
+ *
+ * Iterators are not safe for use by multiple threads.
+ */
+public final class CheckpointingIterator<T> implements Iterator<T> {
+    private final ListRequest<?, T> request;
+    private final PageRequest<T> pageRequest;
+    private final HttpClient client;
+    private final ImmutableMap<String, String> filters;
+    private Deadline deadline;
+    private String pageCursor;
+    private List<T> items;
+    private int position;
+    private String nextCursor;
+
+    CheckpointingIterator(ListRequest<?, T> request, HttpClient client,
+            ImmutableMap<String, String> filters, String after, int position) {
+        this.request = request;
+        this.pageRequest = new PageRequest<>(request, filters);
+        this.client = client;
+        this.filters = filters;
+        this.pageCursor = after;
+        this.position = position;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (items == null || position == items.size()) {
+            if (items == null) {
+                loadPage(pageCursor, position);
+            } else if (nextCursor != null) {
+                loadPage(nextCursor, 0);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return items.get(position++);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Items can't be removed from a list");
+    }
+
+    /**
+     * Returns a checkpoint from which iteration would carry on with the item after the last one
+     * returned by {@link #next()}.
+     */
+    public IterationCheckpoint checkpoint() {
+        if (items != null && position == items.size() && nextCursor != null) {
+            return new IterationCheckpoint(request.getPathTemplate(), filters, nextCursor, 0);
+        }
+        return new IterationCheckpoint(request.getPathTemplate(), filters, pageCursor, position);
+    }
+
+    /**
+     * Fetches the page at the given cursor, skipping over the given number of its items.
+     * Nothing changes if the page can't be fetched.
+     */
+    private void loadPage(String cursor, int skip) {
+        if (deadline == null) {
+            // A single deadline covers fetching every page, until one can't be fetched.
+            deadline = request.newDeadline();
+        }
+        pageRequest.after = cursor;
+        Object event = JfrEvents.beginPageFetch();
+        ListResponse<T> page;
+        try {
+            page = client.executePageWithRetries(pageRequest, deadline);
+        } catch (RuntimeException e) {
+            deadline = null;
+            throw e;
+        }
+        JfrEvents.commitPageFetch(event, request.getPathTemplate(), page.getItems().size(),
+                page.getAfter() == null);
+        pageCursor = cursor;
+        items = page.getItems();
+        position = Math.min(skip, items.size());
+        nextCursor = page.getAfter();
+    }
+
+    /**
+     * A page of the list, fetched with the iterator's filters and cursor in place of the list
+     * request's own query, but otherwise as the list request would be. It shares the list
+     * request's call handle and priority, so cancelling the list request cancels it.
+     */
+    private static final class PageRequest<T> extends ApiRequest<ListResponse<T>> {
+        private final ListRequest<?, T> request;
+        private final ImmutableMap<String, String> filters;
+        private String after;
+
+        private PageRequest(ListRequest<?, T> request, ImmutableMap<String, String> filters) {
+            super(request.getHttpClient());
+            this.request = request;
+            this.filters = filters;
+            shareCallHandle(request);
+        }
+
+        @Override
+        protected Map<String, String> getPathParams() {
+            return request.getPathParams();
+        }
+
+        @Override
+        protected Map<String, Object> getQueryParams() {
+            Map<String, Object> params = new LinkedHashMap<String, Object>(filters);
+            if (after != null) {
+                params.put("after", after);
+            }
+            return params;
+        }
+
+        @Override
+        protected Map<String, String> getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        RequestPriority getPriority() {
+            return request.getPriority();
+        }
+
+        @Override
+        RequestPriority setDefaultPriority(RequestPriority defaultPriority) {
+            return request.setDefaultPriority(defaultPriority);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return request.getPathTemplate();
+        }
+
+        @Override
+        protected String getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return request.getEnvelope();
+        }
+
+        @Override
+        protected boolean hasBody() {
+            return false;
+        }
+
+        @Override
+        protected ListResponse<T> parseResponse(String responseBody,
+                ResponseParser responseParser) {
+            return request.parseResponse(responseBody, responseParser);
+        }
+    }
+}
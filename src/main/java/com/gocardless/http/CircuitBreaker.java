@@ -0,0 +1,261 @@
+package com.gocardless.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A circuit breaker guarding a single endpoint of the API.
+ *
+ * While closed, the outcomes of the most recent requests are kept in a rolling window. Once
+ * enough requests have been seen, the breaker opens if too many of them failed or were slow,
+ * and requests to the endpoint then fail fast with a {@link CircuitBreakerOpenException}.
+ * After a while it lets a few probe requests through: if they go well it closes again, and
+ * otherwise it goes back to being open.
+ *
+ * Instances are created by {@link CircuitBreakers}, and are safe to share between threads.
+ * None of their accounting takes a lock.
+ */
+public final class CircuitBreaker {
+    /**
+     * The states a breaker can be in.
+     */
+    public enum State {
+        /**
+         * Requests are sent as normal.
+         */
+        CLOSED,
+        /**
+         * Requests fail fast without being sent.
+         */
+        OPEN,
+        /**
+         * A limited number of probe requests are sent to see whether the endpoint has
+         * recovered.
+         */
+        HALF_OPEN
+    }
+
+    private final String pathTemplate;
+    private final CircuitBreakers.Config config;
+    private final AtomicReference<Phase> phase;
+    private final AtomicLong rejected = new AtomicLong();
+
+    CircuitBreaker(String pathTemplate, CircuitBreakers.Config config) {
+        this.pathTemplate = pathTemplate;
+        this.config = config;
+        this.phase = new AtomicReference<>(Phase.closed(config.windowSize));
+    }
+
+    /**
+     * Returns the path template of the endpoint this breaker guards.
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Returns the breaker's current state.
+     */
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * Returns the percentage of requests in the rolling window which failed, or zero if the
+     * breaker isn't closed.
+     */
+    public double getFailureRate() {
+        Window window = phase.get().window;
+        return window == null ? 0.0 : window.percentage(window.failures);
+    }
+
+    /**
+     * Returns the percentage of requests in the rolling window which were slow, or zero if
+     * the breaker isn't closed.
+     */
+    public double getSlowCallRate() {
+        Window window = phase.get().window;
+        return window == null ? 0.0 : window.percentage(window.slow);
+    }
+
+    /**
+     * Returns the total number of requests which failed fast because the breaker wasn't
+     * closed.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Checks whether a request may be sent, throwing a {@link CircuitBreakerOpenException} if
+     * not.
+     *
+     * @return the phase the request was admitted in, to be passed back to {@link #record}.
+     */
+    Phase acquire() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (System.nanoTime() - current.openedAtNanos < config.openDurationNanos) {
+                        throw reject();
+                    }
+                    phase.compareAndSet(current, Phase.halfOpen(config.halfOpenProbes));
+                    break;
+                case HALF_OPEN:
+                    if (!current.takeProbe()) {
+                        throw reject();
+                    }
+                    return current;
+            }
+        }
+    }
+
+    /**
+     * Records how a request admitted by {@link #acquire} went.
+     */
+    void record(Phase admitted, CallOutcome outcome, long latencyNanos) {
+        if (phase.get() != admitted) {
+            // The breaker has changed state since the request was sent, so its outcome
+            // describes a situation we've already acted on.
+            return;
+        }
+        switch (admitted.state) {
+            case CLOSED:
+                if (outcome == CallOutcome.IGNORED) {
+                    return;
+                }
+                Window window = admitted.window;
+                window.add(outcome == CallOutcome.DROPPED,
+                        latencyNanos >= config.slowCallThresholdNanos);
+                if (window.shouldTrip(config)) {
+                    phase.compareAndSet(admitted, Phase.open(System.nanoTime()));
+                }
+                break;
+            case HALF_OPEN:
+                if (outcome == CallOutcome.IGNORED) {
+                    // Let another request probe in its place.
+                    admitted.probesRemaining.incrementAndGet();
+                    return;
+                }
+                if (outcome == CallOutcome.DROPPED
+                        || latencyNanos >= config.slowCallThresholdNanos) {
+                    phase.compareAndSet(admitted, Phase.open(System.nanoTime()));
+                } else if (admitted.probesSucceeded.incrementAndGet() >= config.halfOpenProbes) {
+                    phase.compareAndSet(admitted, Phase.closed(config.windowSize));
+                }
+                break;
+            case OPEN:
+                break;
+        }
+    }
+
+    private CircuitBreakerOpenException reject() {
+        rejected.incrementAndGet();
+        return new CircuitBreakerOpenException(
+                String.format("Circuit breaker for %s is open", pathTemplate), pathTemplate);
+    }
+
+    /**
+     * The state of the breaker between two transitions. Each transition swaps in a new
+     * phase, so the counters belonging to a phase are never reset underneath a request.
+     */
+    static final class Phase {
+        private final State state;
+        private final Window window;
+        private final long openedAtNanos;
+        private final AtomicInteger probesRemaining;
+        private final AtomicInteger probesSucceeded;
+
+        private Phase(State state, Window window, long openedAtNanos, int probes) {
+            this.state = state;
+            this.window = window;
+            this.openedAtNanos = openedAtNanos;
+            this.probesRemaining = new AtomicInteger(probes);
+            this.probesSucceeded = new AtomicInteger();
+        }
+
+        private static Phase closed(int windowSize) {
+            return new Phase(State.CLOSED, new Window(windowSize), 0, 0);
+        }
+
+        private static Phase open(long openedAtNanos) {
+            return new Phase(State.OPEN, null, openedAtNanos, 0);
+        }
+
+        private static Phase halfOpen(int probes) {
+            return new Phase(State.HALF_OPEN, null, 0, probes);
+        }
+
+        private boolean takeProbe() {
+            while (true) {
+                int remaining = probesRemaining.get();
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (probesRemaining.compareAndSet(remaining, remaining - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A ring buffer of the outcomes of the most recent requests, with running totals.
+     *
+     * Each slot holds a set of flags. Adding an outcome overwrites the oldest slot and
+     * adjusts the totals by the difference, so they may briefly lag the slots under
+     * contention, but never drift.
+     */
+    private static final class Window {
+        private static final int PRESENT = 1;
+        private static final int FAILED = 2;
+        private static final int SLOW = 4;
+        private final AtomicIntegerArray slots;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slow = new AtomicInteger();
+
+        private Window(int size) {
+            this.slots = new AtomicIntegerArray(size);
+        }
+
+        private void add(boolean failed, boolean wasSlow) {
+            int value = PRESENT | (failed ? FAILED : 0) | (wasSlow ? SLOW : 0);
+            int index = (int) (cursor.getAndIncrement() % slots.length());
+            int previous = slots.getAndSet(index, value);
+            adjust(previous, -1);
+            adjust(value, 1);
+        }
+
+        private void adjust(int flags, int delta) {
+            if ((flags & PRESENT) != 0) {
+                calls.addAndGet(delta);
+            }
+            if ((flags & FAILED) != 0) {
+                failures.addAndGet(delta);
+            }
+            if ((flags & SLOW) != 0) {
+                slow.addAndGet(delta);
+            }
+        }
+
+        private boolean shouldTrip(CircuitBreakers.Config config) {
+            if (calls.get() < config.minimumCalls) {
+                return false;
+            }
+            return percentage(failures) >= config.failureRateThreshold
+                    || percentage(slow) >= config.slowCallRateThreshold;
+        }
+
+        private double percentage(AtomicInteger count) {
+            int total = calls.get();
+            return total == 0 ? 0.0 : 100.0 * count.get() / total;
+        }
+    }
+}
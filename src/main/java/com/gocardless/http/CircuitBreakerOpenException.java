@@ -0,0 +1,26 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+
+/**
+ * Exception thrown when a request fails fast because the {@link CircuitBreaker} for its
+ * endpoint is open, without being sent to the API.
+ *
+ * Requests which fail in this way are not retried.
+ */
+public class CircuitBreakerOpenException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
+    private final String pathTemplate;
+
+    CircuitBreakerOpenException(String message, String pathTemplate) {
+        super(message);
+        this.pathTemplate = pathTemplate;
+    }
+
+    /**
+     * Returns the path template of the endpoint whose breaker is open.
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+}
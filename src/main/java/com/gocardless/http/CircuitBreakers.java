@@ -0,0 +1,175 @@
+package com.gocardless.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A set of {@link CircuitBreaker}s, one for each endpoint of the API a client uses.
+ *
+ * Endpoints are identified by their path template, such as `payments/:identity`, so a
+ * problem with one resource or action doesn't stop requests to others. Breakers are created
+ * the first time an endpoint is used, all with the same configuration.
+ */
+public final class CircuitBreakers {
+    private final Config config;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private CircuitBreakers(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns a builder for configuring a set of breakers.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the breakers created so far, keyed by path template.
+     */
+    public Map<String, CircuitBreaker> getBreakers() {
+        return ImmutableMap.copyOf(breakers);
+    }
+
+    /**
+     * Returns the breaker for the given path template, creating it if necessary.
+     */
+    public CircuitBreaker forEndpoint(String pathTemplate) {
+        CircuitBreaker breaker = breakers.get(pathTemplate);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(pathTemplate, config);
+            CircuitBreaker existing = breakers.putIfAbsent(pathTemplate, breaker);
+            if (existing != null) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * The configuration shared by each breaker in a set.
+     */
+    static final class Config {
+        final int windowSize;
+        final int minimumCalls;
+        final double failureRateThreshold;
+        final long slowCallThresholdNanos;
+        final double slowCallRateThreshold;
+        final long openDurationNanos;
+        final int halfOpenProbes;
+
+        private Config(Builder builder) {
+            this.windowSize = builder.windowSize;
+            this.minimumCalls = builder.minimumCalls;
+            this.failureRateThreshold = builder.failureRateThreshold;
+            this.slowCallThresholdNanos = builder.slowCallThresholdNanos;
+            this.slowCallRateThreshold = builder.slowCallRateThreshold;
+            this.openDurationNanos = builder.openDurationNanos;
+            this.halfOpenProbes = builder.halfOpenProbes;
+        }
+    }
+
+    /**
+     * Builder for {@link CircuitBreakers}.
+     */
+    public static final class Builder {
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 50.0;
+        private long slowCallThresholdNanos = TimeUnit.SECONDS.toNanos(10);
+        private double slowCallRateThreshold = 80.0;
+        private long openDurationNanos = TimeUnit.SECONDS.toNanos(30);
+        private int halfOpenProbes = 5;
+
+        private Builder() {}
+
+        /**
+         * Sets how many of the most recent requests to an endpoint are considered when
+         * deciding whether to open its breaker. Defaults to 100.
+         */
+        public Builder withWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets how many requests must be in the window before a breaker can open. Defaults
+         * to 20.
+         */
+        public Builder withMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets the percentage of requests in the window which must fail for a breaker to
+         * open. Requests fail if they get a 5xx or 429 response, a network error or a
+         * timeout. Defaults to 50.
+         */
+        public Builder withFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a request can take before it counts as slow. Defaults to 10 seconds.
+         */
+        public Builder withSlowCallThreshold(long slowCallThreshold, TimeUnit unit) {
+            this.slowCallThresholdNanos = unit.toNanos(slowCallThreshold);
+            return this;
+        }
+
+        /**
+         * Sets the percentage of requests in the window which must be slow for a breaker to
+         * open. Defaults to 80.
+         */
+        public Builder withSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a breaker stays open before letting probe requests through. Defaults
+         * to 30 seconds.
+         */
+        public Builder withOpenDuration(long openDuration, TimeUnit unit) {
+            this.openDurationNanos = unit.toNanos(openDuration);
+            return this;
+        }
+
+        /**
+         * Sets how many probe requests must succeed for a half-open breaker to close.
+         * Defaults to 5.
+         */
+        public Builder withHalfOpenProbes(int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        /**
+         * Builds the set of breakers.
+         */
+        public CircuitBreakers build() {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("windowSize must be at least 1");
+            }
+            if (minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException(
+                        "minimumCalls must be between 1 and windowSize");
+            }
+            if (failureRateThreshold <= 0.0 || failureRateThreshold > 100.0
+                    || slowCallRateThreshold <= 0.0 || slowCallRateThreshold > 100.0) {
+                throw new IllegalArgumentException("Rate thresholds must be between 0 and 100");
+            }
+            if (halfOpenProbes < 1) {
+                throw new IllegalArgumentException("halfOpenProbes must be at least 1");
+            }
+            return new CircuitBreakers(new Config(this));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.gocardless.http;
+
+/**
+ * Metrics describing the behaviour of a client's HTTP layer.
+ *
+ * An instance can be obtained by calling {@link com.gocardless.GoCardlessClient#metrics()}.
+ */
+public final class ClientMetrics {
+    private final CompressionMetrics compression;
+    private volatile ConcurrencyLimiter concurrencyLimiter;
+    private volatile CircuitBreakers circuitBreakers;
+    private volatile Bulkheads bulkheads;
+    private volatile HedgingPolicy hedgingPolicy;
+    private volatile PageSizeTuner pageSizeTuner;
+
+    ClientMetrics(CompressionMetrics compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Returns metrics about the compression of request and response bodies.
+     */
+    public CompressionMetrics getCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the client's concurrency limiter, which exposes its current limit and queue
+     * depth, or null if the client doesn't use one.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Returns the client's circuit breakers, which expose the state of each endpoint's
+     * breaker, or null if the client doesn't use them.
+     */
+    public CircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    void setCircuitBreakers(CircuitBreakers circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    /**
+     * Returns the client's bulkheads, which expose the number of requests each service has
+     * in flight, or null if the client doesn't use them.
+     */
+    public Bulkheads getBulkheads() {
+        return bulkheads;
+    }
+
+    void setBulkheads(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Returns the client's hedging policy, which exposes the number of hedged requests sent,
+     * or null if the client doesn't hedge requests.
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * Returns the client's page size tuner, which exposes the limit chosen for each endpoint,
+     * or null if the client doesn't tune page sizes.
+     */
+    public PageSizeTuner getPageSizeTuner() {
+        return pageSizeTuner;
+    }
+
+    void setPageSizeTuner(PageSizeTuner pageSizeTuner) {
+        this.pageSizeTuner = pageSizeTuner;
+    }
+}
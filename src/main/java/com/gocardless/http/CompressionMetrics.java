@@ -0,0 +1,80 @@
+package com.gocardless.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes sent and received by a client, both as they crossed the wire and
+ * before compression (for requests) or after decompression (for responses).
+ */
+public final class CompressionMetrics {
+    private final AtomicLong requestBytesRaw = new AtomicLong();
+    private final AtomicLong requestBytesSent = new AtomicLong();
+    private final AtomicLong compressedRequests = new AtomicLong();
+    private final AtomicLong responseBytesReceived = new AtomicLong();
+    private final AtomicLong responseBytesRaw = new AtomicLong();
+    private final AtomicLong compressedResponses = new AtomicLong();
+
+    CompressionMetrics() {}
+
+    /**
+     * Returns the total size of request bodies before any compression was applied.
+     */
+    public long getRequestBytesRaw() {
+        return requestBytesRaw.get();
+    }
+
+    /**
+     * Returns the total size of request bodies as sent over the wire.
+     */
+    public long getRequestBytesSent() {
+        return requestBytesSent.get();
+    }
+
+    /**
+     * Returns the number of requests whose bodies were sent gzip-compressed.
+     */
+    public long getCompressedRequests() {
+        return compressedRequests.get();
+    }
+
+    /**
+     * Returns the total size of response bodies as received over the wire.
+     */
+    public long getResponseBytesReceived() {
+        return responseBytesReceived.get();
+    }
+
+    /**
+     * Returns the total size of response bodies after any decompression.
+     */
+    public long getResponseBytesRaw() {
+        return responseBytesRaw.get();
+    }
+
+    /**
+     * Returns the number of responses which were received gzip-compressed.
+     */
+    public long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    void recordRequest(long rawBytes, long sentBytes, boolean compressed) {
+        requestBytesRaw.addAndGet(rawBytes);
+        requestBytesSent.addAndGet(sentBytes);
+        if (compressed) {
+            compressedRequests.incrementAndGet();
+        }
+    }
+
+    void recordCompressedResponse() {
+        compressedResponses.incrementAndGet();
+    }
+
+    AtomicLong responseBytesReceivedCounter() {
+        return responseBytesReceived;
+    }
+
+    AtomicLong responseBytesRawCounter() {
+        return responseBytesRaw;
+    }
+}
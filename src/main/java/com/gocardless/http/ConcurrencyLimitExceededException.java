@@ -0,0 +1,15 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+
+/**
+ * Exception thrown when a request is rejected by a client's {@link ConcurrencyLimiter},
+ * without being sent to the API.
+ */
+public class ConcurrencyLimitExceededException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
+
+    ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
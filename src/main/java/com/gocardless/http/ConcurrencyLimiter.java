@@ -0,0 +1,405 @@
+package com.gocardless.http;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the number of requests a client has in flight, adapting the limit to how the API
+ * is behaving.
+ *
+ * The limit grows by roughly one for every limit's worth of requests completed while
+ * latency stays close to the lowest recently observed for the same endpoint, and is cut
+ * multiplicatively when latency inflates beyond a tolerance, when the API returns a 5xx or
+ * 429 response, or when a request fails at the network level. Requests beyond the limit wait in a queue, and are
+ * rejected with a {@link ConcurrencyLimitExceededException} if the queue is full or they wait
+ * too long. Waiting {@link RequestPriority#INTERACTIVE} requests are granted permits ahead of
+ * {@link RequestPriority#BATCH} ones, and requests of the same priority in the order they
+ * arrived.
+ *
+ * A request's latency is measured from when it is sent until its response's headers arrive,
+ * so doesn't include reading and parsing the body, although its permit is held until then.
+ * Each endpoint's latency is compared with its own baseline, as a slow endpoint being slow
+ * says nothing about whether the API is congested.
+ *
+ * Instances are safe to share between threads, and expose their current state as metrics.
+ */
+public final class ConcurrencyLimiter {
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+    // Below this, differences in latency are noise rather than a sign of queueing.
+    private static final long MIN_RTT_FLOOR_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final int maxQueueSize;
+    private final long maxQueueWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Waiter> interactiveQueue = new ArrayDeque<>();
+    private final Deque<Waiter> batchQueue = new ArrayDeque<>();
+    // All of the following are guarded by `lock`.
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private long rejected;
+
+    private ConcurrencyLimiter(Builder builder) {
+        this.limit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.latencyTolerance = builder.latencyTolerance;
+        this.backoffRatio = builder.backoffRatio;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxQueueWaitNanos = builder.maxQueueWaitNanos;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns a builder for configuring a limiter.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the current limit on the number of requests in flight.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests currently waiting for a permit.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return interactiveQueue.size() + batchQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total number of requests rejected, either because the queue was full or
+     * because they waited too long. Requests interrupted while waiting aren't counted.
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a permit to send a request to the given endpoint, until the queue wait limit or
+     * the deadline (if any) passes.
+     */
+    Permit acquire(Deadline deadline, RequestPriority priority, String pathTemplate) {
+        lock.lock();
+        try {
+            boolean batch = priority == RequestPriority.BATCH;
+            boolean queueAhead = !interactiveQueue.isEmpty() || (batch && !batchQueue.isEmpty());
+            if (!queueAhead && inFlight < (int) limit) {
+                return grant(pathTemplate);
+            }
+            if (interactiveQueue.size() + batchQueue.size() >= maxQueueSize) {
+                rejected++;
+                throw new ConcurrencyLimitExceededException(
+                        "Too many requests in flight, and the queue is full");
+            }
+            Waiter waiter = new Waiter(lock.newCondition(), batch ? batchQueue : interactiveQueue,
+                    pathTemplate);
+            waiter.queue.addLast(waiter);
+            long waitNanos = maxQueueWaitNanos;
+            if (deadline != null) {
+                waitNanos = Math.min(waitNanos, deadline.remaining(NANOSECONDS));
+            }
+            try {
+                while (!waiter.granted && waitNanos > 0) {
+                    waitNanos = waiter.condition.awaitNanos(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(waiter);
+                throw new RequestCancelledException("Interrupted while waiting to send request");
+            }
+            if (!waiter.granted) {
+                abandon(waiter);
+                rejected++;
+                throw new ConcurrencyLimitExceededException(
+                        "Timed out waiting for a request to complete");
+            }
+            return waiter.permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit if one is free and no request is waiting for one, without waiting.
+     * Returns null if it can't. Not taking one doesn't count as a rejection. The permit isn't
+     * for any one endpoint, so should be released as {@link CallOutcome#IGNORED}.
+     */
+    Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (interactiveQueue.isEmpty() && batchQueue.isEmpty() && inFlight < (int) limit) {
+                return grant(null);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit, adjusting the limit based on how the request went.
+     */
+    void release(Permit permit, CallOutcome outcome) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS:
+                    long endNanos = permit.responded ? permit.respondedNanos : now;
+                    onSuccess(permit, endNanos - permit.startNanos);
+                    break;
+                case DROPPED:
+                    decrease(permit);
+                    break;
+                case IGNORED:
+                    break;
+            }
+            while (inFlight < (int) limit) {
+                Waiter waiter = interactiveQueue.pollFirst();
+                if (waiter == null) {
+                    waiter = batchQueue.pollFirst();
+                }
+                if (waiter == null) {
+                    break;
+                }
+                waiter.permit = grant(waiter.pathTemplate);
+                waiter.granted = true;
+                waiter.condition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit grant(String pathTemplate) {
+        inFlight++;
+        return new Permit(pathTemplate, System.nanoTime(), inFlight);
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.granted) {
+            // Granted just as we gave up, so hand the permit on.
+            release(waiter.permit, CallOutcome.IGNORED);
+        } else {
+            waiter.queue.remove(waiter);
+        }
+    }
+
+    private void onSuccess(Permit permit, long rttNanos) {
+        Baseline baseline = baselines.get(permit.pathTemplate);
+        if (baseline == null) {
+            baseline = new Baseline();
+            baselines.put(permit.pathTemplate, baseline);
+        }
+        if (++baseline.samplesSinceReset >= MIN_RTT_RESET_SAMPLES) {
+            // Periodically forget the minimum, so we adapt if the baseline latency changes.
+            baseline.minRttNanos = Long.MAX_VALUE;
+            baseline.samplesSinceReset = 0;
+        }
+        baseline.minRttNanos = Math.min(baseline.minRttNanos, rttNanos);
+        if (rttNanos > Math.max(baseline.minRttNanos, MIN_RTT_FLOOR_NANOS) * latencyTolerance) {
+            decrease(permit);
+        } else if (permit.inFlightAtStart * 2 >= limit) {
+            // Only grow if we were actually using a good part of the limit - otherwise the
+            // flat latency tells us nothing about whether more would be sustainable.
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private void decrease(Permit permit) {
+        // Requests which started before the last decrease were sent under the old limit, so
+        // shouldn't cause it to be cut again.
+        if (permit.startNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = System.nanoTime();
+    }
+
+    static final class Permit {
+        private final String pathTemplate;
+        private final long startNanos;
+        private final int inFlightAtStart;
+        // Only set and read by the thread holding the permit.
+        private boolean responded;
+        private long respondedNanos;
+
+        private Permit(String pathTemplate, long startNanos, int inFlightAtStart) {
+            this.pathTemplate = pathTemplate;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Records that the response's headers have arrived, which is what the request's latency
+         * is measured up to, rather than when the permit is released.
+         */
+        void responded() {
+            if (!responded) {
+                responded = true;
+                respondedNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * The lowest latency recently observed for an endpoint.
+     */
+    private static final class Baseline {
+        private long minRttNanos = Long.MAX_VALUE;
+        private int samplesSinceReset;
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private final Deque<Waiter> queue;
+        private final String pathTemplate;
+        private boolean granted;
+        private Permit permit;
+
+        private Waiter(Condition condition, Deque<Waiter> queue, String pathTemplate) {
+            this.condition = condition;
+            this.queue = queue;
+            this.pathTemplate = pathTemplate;
+        }
+    }
+
+    /**
+     * Builder for {@link ConcurrencyLimiter}.
+     */
+    public static final class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double latencyTolerance = 2.0;
+        private double backoffRatio = 0.9;
+        private int maxQueueSize = 100;
+        private long maxQueueWaitNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private Builder() {}
+
+        /**
+         * Sets the limit to start with. Defaults to 20.
+         */
+        public Builder withInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the lowest the limit can fall to. Defaults to 1.
+         */
+        public Builder withMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Sets the highest the limit can grow to. Defaults to 200.
+         */
+        public Builder withMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets how many times the lowest recently observed latency a request can take before
+         * the limit is cut. Defaults to 2.
+         */
+        public Builder withLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * Sets the factor the limit is multiplied by when it is cut. Defaults to 0.9.
+         */
+        public Builder withBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Sets how many requests can wait for a permit before further requests are rejected
+         * immediately. Set this to zero to reject excess requests without queueing them.
+         * Defaults to 100.
+         */
+        public Builder withMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the longest a request will wait for a permit. Defaults to 1 second.
+         */
+        public Builder withMaxQueueWait(long maxQueueWait, TimeUnit unit) {
+            this.maxQueueWaitNanos = unit.toNanos(maxQueueWait);
+            return this;
+        }
+
+        /**
+         * Builds the limiter.
+         */
+        public ConcurrencyLimiter build() {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit
+                    || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(
+                        "Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (latencyTolerance < 1.0) {
+                throw new IllegalArgumentException("latencyTolerance must be at least 1");
+            }
+            if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            if (maxQueueSize < 0) {
+                throw new IllegalArgumentException("maxQueueSize must not be negative");
+            }
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
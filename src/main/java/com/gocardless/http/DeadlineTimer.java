@@ -0,0 +1,58 @@
+package com.gocardless.http;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.squareup.okhttp.Call;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Cancels in-flight calls whose deadline has passed.
+ *
+ * OkHttp 2 only supports timeouts for individual socket operations, so a slow trickle of
+ * bytes could otherwise keep a call alive indefinitely.
+ */
+final class DeadlineTimer {
+    private DeadlineTimer() {
+        // blank to prevent instantiation
+    }
+
+    /**
+     * Schedules the call to be cancelled when the deadline passes. Returns null if there is no
+     * deadline.
+     */
+    static ScheduledFuture<?> schedule(final Call call, Deadline deadline) {
+        if (deadline == null) {
+            return null;
+        }
+        Runnable cancel = new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        };
+        return Holder.EXECUTOR.schedule(cancel, deadline.remaining(NANOSECONDS), NANOSECONDS);
+    }
+
+    static void cancel(ScheduledFuture<?> timeout) {
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+    }
+
+    // Only start the timer thread once a deadline is actually used.
+    private static final class Holder {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor executor =
+                    new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("gocardless-deadline-timer-%d").build());
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
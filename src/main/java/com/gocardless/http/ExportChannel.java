@@ -0,0 +1,137 @@
+package com.gocardless.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Buffers an export on its way to a channel, optionally gzipping it.
+ *
+ * Gzipped output is written as a series of gzip members, one ended by each call to
+ * {@link #sync()}, so that everything written up to a sync can be decompressed on its own.
+ * Concatenated members are read back as a single stream by `gzip`, `zcat` and
+ * {@link java.util.zip.GZIPInputStream}.
+ */
+final class ExportChannel implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER =
+            {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final byte[] deflated;
+    private boolean inMember;
+    private long bytesWritten;
+
+    ExportChannel(WritableByteChannel channel, boolean gzip) {
+        this.channel = channel;
+        if (gzip) {
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.crc = new CRC32();
+            this.deflated = new byte[BUFFER_SIZE];
+        } else {
+            this.deflater = null;
+            this.crc = null;
+            this.deflated = null;
+        }
+    }
+
+    void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    /**
+     * Writes everything written so far through to the channel, ending the current gzip member
+     * if there is one, and returns the number of bytes written to the channel in total.
+     */
+    long sync() throws IOException {
+        drain();
+        if (inMember) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) crc.getValue());
+            trailer.putInt((int) deflater.getBytesRead());
+            trailer.flip();
+            writeFully(trailer);
+            inMember = false;
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Syncs, and releases the compressor. The channel is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        if (deflater == null) {
+            writeFully(buffer);
+        } else {
+            if (!inMember) {
+                writeFully(ByteBuffer.wrap(GZIP_HEADER));
+                deflater.reset();
+                crc.reset();
+                inMember = true;
+            }
+            crc.update(buffer.array(), 0, buffer.limit());
+            deflater.setInput(buffer.array(), 0, buffer.limit());
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        }
+        buffer.clear();
+    }
+
+    private void deflate() throws IOException {
+        int count = deflater.deflate(deflated, 0, deflated.length);
+        if (count > 0) {
+            writeFully(ByteBuffer.wrap(deflated, 0, count));
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,582 @@
+package com.gocardless.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.gocardless.errors.MalformedResponseException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Streams every item of a list to a file or stream, as newline-delimited JSON or CSV.
+ *
+ * Pages are fetched one at a time with {@link ListRequest#rawPages()}, and their items are
+ * never bound to resources. For NDJSON, each item's JSON is copied straight out of the page's
+ * body onto its own line. For CSV, each item is parsed into a tree and its fields flattened
+ * into columns, with nested objects' fields named like `links.mandate`. Only one page is held
+ * in memory at once, however long the list.
+ *
+ * <pre>
+ * Exporter exporter = Exporter.newBuilder().withGzip(true).build();
+ * exporter.export(client.payments().all(), new File("payments.ndjson.gz"));
+ * </pre>
+ *
+ * When exporting to a file, the exporter records how far it has got in a checkpoint file
+ * alongside it, named like `payments.ndjson.gz.checkpoint`, after each page is written. If the
+ * export is interrupted, exporting the same list to the same file again carries on from the
+ * last checkpoint, and the checkpoint is deleted once the export completes. Checkpoints record
+ * the list, filters and format they were written for, and exporting anything else to a file
+ * with a checkpoint fails rather than splicing two lists together. Gzipped files are written
+ * as one gzip member per page, which decompress as a single stream.
+ *
+ * Exporters are immutable, so can be shared between threads.
+ */
+public final class Exporter {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private final Format format;
+    private final boolean gzip;
+    private final ImmutableList<String> columns;
+    private final Executor executor;
+    private final int concurrency;
+
+    private Exporter(Builder builder) {
+        this.format = builder.format;
+        this.gzip = builder.gzip;
+        this.columns = builder.columns;
+        this.executor = builder.executor;
+        this.concurrency = builder.concurrency;
+    }
+
+    /**
+     * Returns a builder for an exporter, which writes NDJSON without compression by default.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Exports every item of a list, starting from the request's cursor, to a file, carrying on
+     * from where a previous export to the same file was interrupted if there was one.
+     *
+     * Returns the number of items in the file.
+     *
+     * @throws com.gocardless.GoCardlessException if a page can't be fetched
+     * @throws IllegalStateException if the file has a checkpoint from exporting another list,
+     *         or the same list with other filters, or in another format
+     */
+    public long export(ListRequest<?, ?> request, File file) throws IOException {
+        File checkpointFile = new File(file.getPath() + CHECKPOINT_SUFFIX);
+        String pathTemplate = request.getPathTemplate();
+        ImmutableMap<String, String> filters = request.getFilters();
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        if (checkpoint != null && !checkpoint.isFor(pathTemplate, filters, format, gzip)) {
+            throw new IllegalStateException(checkpointFile + " is for an export of another list, "
+                    + "or with other filters or format; delete it to export from the start");
+        }
+        ItemWriter writer;
+        long offset;
+        if (checkpoint == null) {
+            writer = new ItemWriter(columns, false, 0);
+            offset = 0;
+        } else {
+            // The checkpoint only has columns once their header has been written.
+            request.setAfter(checkpoint.after);
+            boolean headerWritten = checkpoint.columns != null;
+            writer = new ItemWriter(headerWritten ? checkpoint.columns : columns, headerWritten,
+                    checkpoint.items);
+            offset = checkpoint.offset;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            // Anything after the checkpoint is from a page which wasn't finished.
+            channel.truncate(offset);
+            channel.position(offset);
+            try (ExportChannel out = new ExportChannel(channel, gzip)) {
+                String envelope = request.getEnvelope();
+                for (RawPage page : request.rawPages()) {
+                    writer.writePage(page, envelope, out);
+                    if (page.getAfter() != null) {
+                        long written = out.sync();
+                        channel.force(false);
+                        new Checkpoint(pathTemplate, filters, format, gzip, page.getAfter(),
+                                offset + written, writer.items,
+                                writer.headerWritten ? writer.columns : null)
+                                .write(checkpointFile);
+                    }
+                }
+            }
+            channel.force(false);
+        }
+        Files.deleteIfExists(checkpointFile.toPath());
+        return writer.items;
+    }
+
+    /**
+     * Exports every item of a list, starting from the request's cursor, to a stream. The
+     * stream is flushed, but not closed. Exports to streams can't be resumed.
+     *
+     * Returns the number of items written.
+     *
+     * @throws com.gocardless.GoCardlessException if a page can't be fetched
+     */
+    public long export(ListRequest<?, ?> request, OutputStream stream) throws IOException {
+        ItemWriter writer = new ItemWriter(columns, false, 0);
+        try (ExportChannel out = new ExportChannel(Channels.newChannel(stream), gzip)) {
+            String envelope = request.getEnvelope();
+            for (RawPage page : request.rawPages()) {
+                writer.writePage(page, envelope, out);
+            }
+        }
+        stream.flush();
+        return writer.items;
+    }
+
+    /**
+     * Exports a list split into ranges of `created_at`, writing each range to its own file
+     * concurrently.
+     *
+     * The ranges run between consecutive boundaries, so `n + 1` boundaries make `n` ranges.
+     * Each range includes its lower boundary and excludes its upper one. The first and last
+     * boundaries may be null, for ranges with no lower or upper bound. The range numbered `i`,
+     * counting from 0, is written to a file in the given directory named like
+     * `payments-0003.ndjson.gz` for a prefix of `payments`. Each file is resumed separately,
+     * as with {@link #export(ListRequest, File)}.
+     *
+     * Returns the number of items in all of the files.
+     *
+     * @throws com.gocardless.GoCardlessException if a page can't be fetched
+     */
+    public long exportSharded(RangeRequestFactory requestFactory, List<String> boundaries,
+            File directory, String prefix) throws IOException, InterruptedException {
+        if (boundaries.size() < 2) {
+            throw new IllegalArgumentException("At least two boundaries are needed");
+        }
+        ExecutorService ownExecutor = null;
+        Executor shardExecutor = executor;
+        if (shardExecutor == null) {
+            ownExecutor = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+                    .setDaemon(true).setNameFormat("gocardless-exporter-%d").build());
+            shardExecutor = ownExecutor;
+        }
+        try {
+            CompletionService<Long> shards = new ExecutorCompletionService<>(shardExecutor);
+            int shardCount = boundaries.size() - 1;
+            for (int i = 0; i < shardCount; i++) {
+                ListRequest<?, ?> request =
+                        requestFactory.newRequest(boundaries.get(i), boundaries.get(i + 1));
+                File file = new File(directory, String.format("%s-%04d%s", prefix, i,
+                        getFileExtension()));
+                shards.submit(new ExportShard(request, file));
+            }
+            long items = 0;
+            for (int i = 0; i < shardCount; i++) {
+                try {
+                    items += shards.take().get();
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfPossible(e.getCause(), IOException.class);
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return items;
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Returns the extension of the files this exporter writes, such as `.csv.gz`.
+     */
+    public String getFileExtension() {
+        return format.extension + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * The formats an export can be written in.
+     */
+    public enum Format {
+        /**
+         * Newline-delimited JSON, with each item's JSON on its own line.
+         */
+        NDJSON(".ndjson"),
+
+        /**
+         * Comma-separated values as described in RFC 4180, with a header line naming the
+         * columns.
+         */
+        CSV(".csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Creates the requests for each range of a sharded export.
+     */
+    public interface RangeRequestFactory {
+        /**
+         * Returns a request for the items created at or after the first timestamp and before
+         * the second. Either timestamp may be null if the range has no bound on that side.
+         */
+        ListRequest<?, ?> newRequest(String createdAtGte, String createdAtLt);
+    }
+
+    private final class ExportShard implements Callable<Long> {
+        private final ListRequest<?, ?> request;
+        private final File file;
+
+        private ExportShard(ListRequest<?, ?> request, File file) {
+            this.request = request;
+            this.file = file;
+        }
+
+        @Override
+        public Long call() throws IOException {
+            return export(request, file);
+        }
+    }
+
+    /**
+     * Writes the items of each page of one export in turn.
+     */
+    private final class ItemWriter {
+        private List<String> columns;
+        private boolean headerWritten;
+        private long items;
+
+        private ItemWriter(List<String> columns, boolean headerWritten, long items) {
+            this.columns = columns;
+            this.headerWritten = headerWritten;
+            this.items = items;
+        }
+
+        private void writePage(RawPage page, String envelope, ExportChannel out)
+                throws IOException {
+            byte[] json = page.getBody().toByteArray();
+            RawItems rawItems = new RawItems(json, envelope);
+            while (rawItems.next()) {
+                if (format == Format.NDJSON) {
+                    writeJson(json, rawItems.start(), rawItems.end(), out);
+                } else {
+                    writeCsv(parse(json, rawItems.start(), rawItems.end()), out);
+                }
+                items++;
+            }
+        }
+
+        private void writeCsv(Map<String, String> fields, ExportChannel out)
+                throws IOException {
+            if (columns == null) {
+                columns = ImmutableList.copyOf(fields.keySet());
+            }
+            StringBuilder line = new StringBuilder();
+            if (!headerWritten) {
+                appendCsvLine(line, columns);
+                headerWritten = true;
+            }
+            List<String> values = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                values.add(fields.get(column));
+            }
+            appendCsvLine(line, values);
+            out.write(line.toString().getBytes(UTF_8));
+        }
+    }
+
+    /**
+     * Writes an item's JSON on a line of its own, leaving out any whitespace between its
+     * tokens if it spans more than one line.
+     */
+    private static void writeJson(byte[] json, int start, int end, ExportChannel out)
+            throws IOException {
+        boolean multiline = false;
+        for (int i = start; i < end && !multiline; i++) {
+            multiline = json[i] == '\n' || json[i] == '\r';
+        }
+        if (!multiline) {
+            out.write(json, start, end - start);
+        } else {
+            boolean inString = false;
+            for (int i = start; i < end; i++) {
+                byte b = json[i];
+                if (inString) {
+                    if (b == '\\') {
+                        out.write(b);
+                        b = json[++i];
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (RawItems.isWhitespace(b)) {
+                    continue;
+                }
+                out.write(b);
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Parses an item into its fields, flattening nested objects.
+     */
+    private static Map<String, String> parse(byte[] json, int start, int end) {
+        InputStream item = new ByteArrayInputStream(json, start, end - start);
+        try {
+            JsonElement element = new JsonParser().parse(new InputStreamReader(item, UTF_8));
+            Map<String, String> fields = new LinkedHashMap<>();
+            flatten(null, element.getAsJsonObject(), fields);
+            return fields;
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new MalformedResponseException(new String(json, UTF_8));
+        }
+    }
+
+    private static void flatten(String prefix, JsonObject object, Map<String, String> fields) {
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            String name = prefix == null ? entry.getKey() : prefix + "." + entry.getKey();
+            JsonElement value = entry.getValue();
+            if (value.isJsonObject()) {
+                flatten(name, value.getAsJsonObject(), fields);
+            } else if (value.isJsonPrimitive()) {
+                fields.put(name, value.getAsString());
+            } else if (value.isJsonArray()) {
+                fields.put(name, value.toString());
+            }
+        }
+    }
+
+    private static void appendCsvLine(StringBuilder line, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                line.append(value);
+            } else {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        line.append("\r\n");
+    }
+
+    /**
+     * How far an export to a file has got: the cursor of the next page, the length of the file
+     * up to the end of the last page written, and the number of items and columns written.
+     */
+    private static final class Checkpoint {
+        private static final String FILTER_PREFIX = "filter.";
+        private final String pathTemplate;
+        private final Map<String, String> filters;
+        private final Format format;
+        private final boolean gzip;
+        private final String after;
+        private final long offset;
+        private final long items;
+        private final List<String> columns;
+
+        private Checkpoint(String pathTemplate, Map<String, String> filters, Format format,
+                boolean gzip, String after, long offset, long items, List<String> columns) {
+            this.pathTemplate = pathTemplate;
+            this.filters = filters;
+            this.format = format;
+            this.gzip = gzip;
+            this.after = after;
+            this.offset = offset;
+            this.items = items;
+            this.columns = columns;
+        }
+
+        private static Checkpoint read(File file) throws IOException {
+            if (!file.exists()) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(new InputStreamReader(in, UTF_8));
+            }
+            Map<String, String> filters = new LinkedHashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(FILTER_PREFIX)) {
+                    filters.put(name.substring(FILTER_PREFIX.length()),
+                            properties.getProperty(name));
+                }
+            }
+            List<String> columns = null;
+            if (properties.getProperty("columns") != null) {
+                int count = Integer.parseInt(properties.getProperty("columns"));
+                String[] names = new String[count];
+                for (int i = 0; i < count; i++) {
+                    names[i] = properties.getProperty("column." + i);
+                }
+                columns = ImmutableList.copyOf(names);
+            }
+            String format = properties.getProperty("format");
+            return new Checkpoint(properties.getProperty("path"), filters,
+                    format == null ? null : Format.valueOf(format),
+                    Boolean.parseBoolean(properties.getProperty("gzip")),
+                    properties.getProperty("after"),
+                    Long.parseLong(properties.getProperty("offset")),
+                    Long.parseLong(properties.getProperty("items")), columns);
+        }
+
+        /**
+         * Returns true if this checkpoint was written by an export of the given list, with the
+         * given filters, to the given format.
+         */
+        private boolean isFor(String pathTemplate, Map<String, String> filters, Format format,
+                boolean gzip) {
+            return pathTemplate.equals(this.pathTemplate) && filters.equals(this.filters)
+                    && format == this.format && gzip == this.gzip;
+        }
+
+        /**
+         * Writes this checkpoint over the given file, replacing it all at once so that an
+         * interrupted write leaves the previous checkpoint in place.
+         */
+        private void write(File file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("path", pathTemplate);
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                properties.setProperty(FILTER_PREFIX + filter.getKey(), filter.getValue());
+            }
+            properties.setProperty("format", format.name());
+            properties.setProperty("gzip", Boolean.toString(gzip));
+            properties.setProperty("after", after);
+            properties.setProperty("offset", Long.toString(offset));
+            properties.setProperty("items", Long.toString(items));
+            if (columns != null) {
+                properties.setProperty("columns", Integer.toString(columns.size()));
+                for (int i = 0; i < columns.size(); i++) {
+                    properties.setProperty("column." + i, columns.get(i));
+                }
+            }
+            File temporary = new File(file.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temporary)) {
+                Writer writer = new OutputStreamWriter(out, UTF_8);
+                properties.store(writer, null);
+                writer.flush();
+                out.getFD().sync();
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Builder for {@link Exporter}.
+     */
+    public static final class Builder {
+        private Format format = Format.NDJSON;
+        private boolean gzip;
+        private ImmutableList<String> columns;
+        private Executor executor;
+        private int concurrency = 4;
+
+        private Builder() {}
+
+        /**
+         * Sets the format to write. Defaults to {@link Format#NDJSON}.
+         */
+        public Builder withFormat(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets whether to gzip the output. Defaults to false.
+         */
+        public Builder withGzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * Sets the columns to write to CSV, named like `amount` or `links.mandate`. If this
+         * isn't set, the columns are the fields of the first item exported, so fields which
+         * only some items have, such as metadata, may be left out.
+         */
+        public Builder withColumns(String... columns) {
+            this.columns = ImmutableList.copyOf(Arrays.asList(columns));
+            return this;
+        }
+
+        /**
+         * Sets the executor to write the files of sharded exports on. If this isn't set, each
+         * call to {@link Exporter#exportSharded} starts its own pool of threads.
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads in the pool started for each sharded export if no
+         * executor is set. Defaults to 4.
+         */
+        public Builder withConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Builds the exporter.
+         */
+        public Exporter build() {
+            if (format == null) {
+                throw new IllegalArgumentException("format must not be null");
+            }
+            if (columns != null && format != Format.CSV) {
+                throw new IllegalArgumentException("columns can only be set for CSV exports");
+            }
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("concurrency must be at least 1");
+            }
+            return new Exporter(this);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+
+/**
+ * Asks the API for gzip-compressed responses and decompresses them as they are read,
+ * and optionally compresses large request bodies.
+ *
+ * OkHttp would otherwise add `Accept-Encoding: gzip` itself, but it then hides the
+ * compressed size of the response from us. Handling it here means we can record how
+ * many bytes actually crossed the wire.
+ */
+final class GzipInterceptor implements Interceptor {
+    static final int REQUEST_COMPRESSION_DISABLED = -1;
+    private static final String GZIP = "gzip";
+    private final CompressionMetrics metrics;
+    private volatile int requestCompressionThreshold = REQUEST_COMPRESSION_DISABLED;
+
+    GzipInterceptor(CompressionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Compresses request bodies of at least the given number of bytes.  Pass
+     * {@link #REQUEST_COMPRESSION_DISABLED} to turn request compression off.
+     */
+    void setRequestCompressionThreshold(int minimumBytes) {
+        this.requestCompressionThreshold = minimumBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Request.Builder builder = request.newBuilder();
+        boolean acceptGzip = request.header("Accept-Encoding") == null;
+        if (acceptGzip) {
+            builder.header("Accept-Encoding", GZIP);
+        }
+        if (request.body() != null && request.header("Content-Encoding") == null) {
+            compressBody(request, builder);
+        }
+        Response response = chain.proceed(builder.build());
+        // An empty body, like those of 204 and 304 responses, isn't a gzip stream even if the
+        // response says it is.
+        if (acceptGzip && GZIP.equalsIgnoreCase(response.header("Content-Encoding"))
+                && response.body().contentLength() != 0) {
+            return decompress(response);
+        }
+        return count(response);
+    }
+
+    private void compressBody(Request request, Request.Builder builder) throws IOException {
+        int threshold = requestCompressionThreshold;
+        RequestBody body = request.body();
+        if (threshold == REQUEST_COMPRESSION_DISABLED) {
+            // Still counted, but as it is written, rather than buffering it to find its size.
+            builder.method(request.method(), new CountingRequestBody(body, metrics));
+            return;
+        }
+        Buffer raw = new Buffer();
+        body.writeTo(raw);
+        long rawSize = raw.size();
+        if (rawSize < threshold) {
+            metrics.recordRequest(rawSize, rawSize, false);
+            builder.method(request.method(),
+                    RequestBody.create(body.contentType(), raw.readByteString()));
+            return;
+        }
+        Buffer compressed = new Buffer();
+        BufferedSink gzip = Okio.buffer(new GzipSink(compressed));
+        gzip.writeAll(raw);
+        gzip.close();
+        metrics.recordRequest(rawSize, compressed.size(), true);
+        builder.header("Content-Encoding", GZIP);
+        builder.method(request.method(),
+                RequestBody.create(body.contentType(), compressed.readByteString()));
+    }
+
+    private Response decompress(Response response) throws IOException {
+        metrics.recordCompressedResponse();
+        ResponseBody body = response.body();
+        Source wire =
+                new CountingSource(body.source(), metrics.responseBytesReceivedCounter(), null);
+        Source raw =
+                new CountingSource(new GzipSource(wire), metrics.responseBytesRawCounter(), null);
+        Headers headers =
+                response.headers().newBuilder().removeAll("Content-Encoding")
+                        .removeAll("Content-Length").build();
+        return response.newBuilder().headers(headers)
+                .body(ResponseBody.create(body.contentType(), -1, Okio.buffer(raw))).build();
+    }
+
+    private Response count(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        // Uncompressed, so every byte received is also a raw byte.
+        Source source =
+                new CountingSource(body.source(), metrics.responseBytesReceivedCounter(),
+                        metrics.responseBytesRawCounter());
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), body.contentLength(),
+                        Okio.buffer(source))).build();
+    }
+
+    private static final class CountingSource extends ForwardingSource {
+        private final AtomicLong counter;
+        private final AtomicLong secondCounter;
+
+        CountingSource(Source delegate, AtomicLong counter, AtomicLong secondCounter) {
+            super(delegate);
+            this.counter = counter;
+            this.secondCounter = secondCounter;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                counter.addAndGet(read);
+                if (secondCounter != null) {
+                    secondCounter.addAndGet(read);
+                }
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Sends a request body as it is, recording its size once it has been written.
+     */
+    private static final class CountingRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private final CompressionMetrics metrics;
+
+        CountingRequestBody(RequestBody delegate, CompressionMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            CountingSink counting = new CountingSink(sink);
+            BufferedSink buffered = Okio.buffer(counting);
+            delegate.writeTo(buffered);
+            buffered.emit();
+            metrics.recordRequest(counting.bytes, counting.bytes, false);
+        }
+    }
+
+    private static final class CountingSink extends ForwardingSink {
+        private long bytes;
+
+        CountingSink(Sink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            bytes += byteCount;
+        }
+    }
+}
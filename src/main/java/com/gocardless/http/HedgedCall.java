@@ -0,0 +1,203 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Sends a GET request, and if it hasn't had a response within the hedging delay, sends it
+ * again and takes whichever response arrives first.
+ *
+ * Both calls are sent asynchronously through OkHttp's dispatcher. While the original is in
+ * flight it holds on to its connection, so the hedge is sent on a different one. Once one of
+ * them has responded, the other is cancelled, and its response closed if it arrives anyway.
+ *
+ * The hedge counts towards the service's bulkhead and the concurrency limiter like any other
+ * request, but only uses spare capacity: it is only sent if it can take a permit from each
+ * without waiting, and holds them until the request is finished. It doesn't feed the
+ * limiter's latency samples, as the original's permit already covers the request.
+ */
+final class HedgedCall {
+    private final OkHttpClient client;
+    private final Request request;
+    private final CallHandle callHandle;
+    private final Deadline deadline;
+    private final HedgingPolicy policy;
+    private final Bulkhead bulkhead;
+    private final ConcurrencyLimiter limiter;
+    private final BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+    private Call hedge;
+    private Call winner;
+    private ScheduledFuture<?> hedgeTimeout;
+    private boolean bulkheadAcquired;
+    private ConcurrencyLimiter.Permit permit;
+    private volatile boolean finished;
+
+    HedgedCall(OkHttpClient client, Request request, CallHandle callHandle, Deadline deadline,
+            HedgingPolicy policy, Bulkhead bulkhead, ConcurrencyLimiter limiter) {
+        this.client = client;
+        this.request = request;
+        this.callHandle = callHandle;
+        this.deadline = deadline;
+        this.policy = policy;
+        this.bulkhead = bulkhead;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Sends the original call, which the caller has already attached to the call handle, and
+     * hedges it if necessary.
+     */
+    Response execute(Call original, long hedgeDelayNanos) throws IOException {
+        try {
+            send(original);
+            Result result = results.poll(hedgeDelayNanos, NANOSECONDS);
+            if (result == null && !callHandle.isCancelled() && acquirePermits()) {
+                if (policy.tryHedge()) {
+                    hedge = client.newCall(request);
+                    callHandle.attach(hedge);
+                    hedgeTimeout = DeadlineTimer.schedule(hedge, deadline);
+                    send(hedge);
+                } else {
+                    releasePermits();
+                }
+            }
+            if (result == null) {
+                result = results.take();
+            }
+            if (result.failure != null && calls.size() > 1) {
+                // One call failing doesn't matter if the other succeeds.
+                result = results.take();
+            }
+            if (result.failure != null) {
+                throw result.failure;
+            }
+            winner = result.call;
+            if (winner == hedge) {
+                policy.recordHedgeWon();
+            }
+            return result.response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } finally {
+            cancelLosers();
+        }
+    }
+
+    /**
+     * Stops enforcing the hedge's deadline, stops tracking it and returns its permits, once
+     * the winning response has been read.
+     */
+    void release() {
+        if (hedge != null) {
+            DeadlineTimer.cancel(hedgeTimeout);
+            callHandle.detach(hedge);
+        }
+        releasePermits();
+    }
+
+    /**
+     * Takes permits for the hedge from the bulkhead and limiter, if there are any, returning
+     * whether it got them all.
+     */
+    private boolean acquirePermits() {
+        if (bulkhead != null) {
+            if (!bulkhead.tryAcquire()) {
+                return false;
+            }
+            bulkheadAcquired = true;
+        }
+        if (limiter != null) {
+            permit = limiter.tryAcquire();
+            if (permit == null) {
+                releasePermits();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void releasePermits() {
+        if (permit != null) {
+            limiter.release(permit, CallOutcome.IGNORED);
+            permit = null;
+        }
+        if (bulkheadAcquired) {
+            bulkhead.release();
+            bulkheadAcquired = false;
+        }
+    }
+
+    private void send(final Call call) {
+        calls.add(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Response response) {
+                complete(new Result(call, response, null));
+            }
+
+            @Override
+            public void onFailure(Request request, IOException e) {
+                complete(new Result(call, null, e));
+            }
+        });
+    }
+
+    private void complete(Result result) {
+        results.add(result);
+        if (finished) {
+            // We've already returned, so nobody else will read this.
+            closeUnclaimed();
+        }
+    }
+
+    private void cancelLosers() {
+        finished = true;
+        for (Call call : calls) {
+            // Cancelling the winner would break the stream its response body is read from.
+            if (call != winner) {
+                call.cancel();
+            }
+        }
+        closeUnclaimed();
+    }
+
+    private void closeUnclaimed() {
+        Result result;
+        while ((result = results.poll()) != null) {
+            if (result.response != null) {
+                try {
+                    result.response.body().close();
+                } catch (IOException e) {
+                    // We never wanted this response anyway.
+                }
+            }
+        }
+    }
+
+    private static final class Result {
+        private final Call call;
+        private final Response response;
+        private final IOException failure;
+
+        private Result(Call call, Response response, IOException failure) {
+            this.call = call;
+            this.response = response;
+            this.failure = failure;
+        }
+    }
+}
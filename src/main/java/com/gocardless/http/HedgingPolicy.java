@@ -0,0 +1,249 @@
+package com.gocardless.http;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides when a GET request should be hedged: that is, when a duplicate should be sent
+ * because the original is taking longer than most requests to the same endpoint do.
+ *
+ * Each endpoint's recent latencies are kept in a rolling window, and a request is hedged once
+ * it has taken longer than the configured percentile of them. The number of hedges is capped
+ * by a budget, which is topped up by a fraction of a hedge for every request, so that hedging
+ * can't multiply the load on an API which is slow across the board.
+ *
+ * Only GET requests are ever hedged, as they are the only requests which are safe to send
+ * twice. Instances are safe to share between threads, and expose their activity as metrics.
+ */
+public final class HedgingPolicy {
+    private static final int WINDOW_SIZE = 1000;
+    // Recomputing the percentile means sorting the window, so only do it this often.
+    private static final int RECOMPUTE_INTERVAL = 100;
+    private static final long MILLI_TOKENS_PER_HEDGE = 1000;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minimumSamples;
+    private final long milliTokensPerRequest;
+    private final long maxMilliTokens;
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong milliTokens;
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesDenied = new AtomicLong();
+
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelayNanos = builder.minDelayNanos;
+        this.minimumSamples = builder.minimumSamples;
+        this.milliTokensPerRequest = Math.round(builder.budget * MILLI_TOKENS_PER_HEDGE);
+        this.maxMilliTokens = builder.maxBurst * MILLI_TOKENS_PER_HEDGE;
+        this.milliTokens = new AtomicLong(maxMilliTokens);
+    }
+
+    /**
+     * Returns a builder for configuring a hedging policy.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the total number of hedged requests sent.
+     */
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    /**
+     * Returns the number of hedged requests which got a response before the original.
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Returns the number of requests which would have been hedged, but weren't because the
+     * budget had run out.
+     */
+    public long getHedgesDenied() {
+        return hedgesDenied.get();
+    }
+
+    /**
+     * Returns how long a request to the given endpoint should be given before it is hedged, or
+     * -1 if it shouldn't be hedged because too little is known about the endpoint's latency.
+     * Each call tops up the hedging budget.
+     */
+    long hedgeDelayNanos(String pathTemplate) {
+        long current;
+        do {
+            current = milliTokens.get();
+        } while (current < maxMilliTokens && !milliTokens.compareAndSet(current,
+                Math.min(maxMilliTokens, current + milliTokensPerRequest)));
+        LatencyWindow window = windows.get(pathTemplate);
+        long samples = window == null ? 0 : window.count();
+        if (samples < minimumSamples) {
+            return -1;
+        }
+        if (window == null) {
+            // Only reached when no samples are needed, so hedge as early as we're allowed to.
+            return minDelayNanos;
+        }
+        return Math.max(minDelayNanos, window.percentile());
+    }
+
+    /**
+     * Takes a hedge from the budget, returning false if there are none left.
+     */
+    boolean tryHedge() {
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current < MILLI_TOKENS_PER_HEDGE) {
+                hedgesDenied.incrementAndGet();
+                return false;
+            }
+        } while (!milliTokens.compareAndSet(current, current - MILLI_TOKENS_PER_HEDGE));
+        hedgesSent.incrementAndGet();
+        return true;
+    }
+
+    void recordHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    void recordLatency(String pathTemplate, long latencyNanos) {
+        LatencyWindow window = windows.get(pathTemplate);
+        if (window == null) {
+            window = new LatencyWindow(percentile);
+            LatencyWindow existing = windows.putIfAbsent(pathTemplate, window);
+            if (existing != null) {
+                window = existing;
+            }
+        }
+        window.add(latencyNanos);
+    }
+
+    /**
+     * A ring buffer of an endpoint's most recent latencies, with a cached percentile.
+     */
+    private static final class LatencyWindow {
+        private final double percentile;
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+        private final AtomicLong cursor = new AtomicLong();
+        private volatile long cachedPercentile;
+
+        private LatencyWindow(double percentile) {
+            this.percentile = percentile;
+        }
+
+        private long count() {
+            return Math.min(cursor.get(), WINDOW_SIZE);
+        }
+
+        private void add(long latencyNanos) {
+            long position = cursor.getAndIncrement();
+            samples.set((int) (position % WINDOW_SIZE), latencyNanos);
+            if (position < RECOMPUTE_INTERVAL || position % RECOMPUTE_INTERVAL == 0) {
+                cachedPercentile = compute();
+            }
+        }
+
+        private long percentile() {
+            return cachedPercentile;
+        }
+
+        private long compute() {
+            int count = (int) count();
+            long[] sorted = new long[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+    /**
+     * Builder for {@link HedgingPolicy}.
+     */
+    public static final class Builder {
+        private double percentile = 95.0;
+        private long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private int minimumSamples = 100;
+        private double budget = 0.05;
+        private int maxBurst = 10;
+
+        private Builder() {}
+
+        /**
+         * Sets the percentile of an endpoint's recent latencies after which a request to it is
+         * hedged. Defaults to 95.
+         */
+        public Builder withPercentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the shortest time a request is given before it is hedged, however fast its
+         * endpoint has been. Defaults to 10 milliseconds.
+         */
+        public Builder withMinDelay(long minDelay, TimeUnit unit) {
+            this.minDelayNanos = unit.toNanos(minDelay);
+            return this;
+        }
+
+        /**
+         * Sets how many latencies must have been recorded for an endpoint before requests to
+         * it are hedged. If this is zero, requests to endpoints with no history are hedged
+         * after the minimum delay. Defaults to 100.
+         */
+        public Builder withMinimumSamples(int minimumSamples) {
+            this.minimumSamples = minimumSamples;
+            return this;
+        }
+
+        /**
+         * Sets the number of hedges allowed per request, on average. Defaults to 0.05, which
+         * allows at most 5% more requests to be sent than would be without hedging.
+         */
+        public Builder withBudget(double budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets how many hedges can be saved up and sent in quick succession. Defaults to 10.
+         */
+        public Builder withMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         */
+        public HedgingPolicy build() {
+            if (percentile <= 0.0 || percentile > 100.0) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            if (minimumSamples < 0 || minimumSamples > WINDOW_SIZE) {
+                throw new IllegalArgumentException(
+                        "minimumSamples must be between 0 and " + WINDOW_SIZE);
+            }
+            if (budget < 0.0 || budget > 1.0) {
+                throw new IllegalArgumentException("budget must be between 0 and 1");
+            }
+            if (maxBurst < 1) {
+                throw new IllegalArgumentException("maxBurst must be at least 1");
+            }
+            return new HedgingPolicy(this);
+        }
+    }
+}
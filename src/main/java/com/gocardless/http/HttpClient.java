@@ -1,21 +1,35 @@
 package com.gocardless.http;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 
 import com.github.rholder.retry.*;
 
 import com.gocardless.GoCardlessException;
+import com.gocardless.errors.ApiErrorResponse;
+import com.gocardless.errors.ErrorType;
+import com.gocardless.errors.GoCardlessErrorMapper;
 import com.gocardless.errors.GoCardlessInternalException;
 
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 
 import com.squareup.okhttp.*;
 
+import okio.ByteString;
+
+import static com.google.common.base.Charsets.UTF_8;
+
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
@@ -28,6 +42,7 @@ public class HttpClient {
      * The maximum number of times that a request can be retried.
      */
     public static final int MAX_RETRIES = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
     /**
      * See http://tools.ietf.org/html/rfc7230#section-3.2.6.
      */
@@ -40,8 +55,8 @@ public class HttpClient {
             cleanUserAgentToken(System.getProperty("java.version")),
             cleanUserAgentToken(System.getProperty("os.name")),
             cleanUserAgentToken(System.getProperty("os.version")));
+    private static final long ISOLATED_KEEP_ALIVE_MILLIS = 5 * 60 * 1000;
     private static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
-    private static final MediaType MEDIA_TYPE = MediaType.parse("application/json");
     private static final Map<String, String> HEADERS;
     static {
         ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
@@ -55,6 +70,18 @@ public class HttpClient {
     private final ResponseParser responseParser;
     private final RequestWriter requestWriter;
     private final String credentials;
+    private final GzipInterceptor gzipInterceptor;
+    private final ClientMetrics metrics;
+    private volatile ConcurrencyLimiter concurrencyLimiter;
+    private volatile CircuitBreakers circuitBreakers;
+    private volatile Bulkheads bulkheads;
+    private volatile HedgingPolicy hedgingPolicy;
+    private volatile PageSizeTuner pageSizeTuner;
+    private volatile RequestTimingListener timingListener;
+    private volatile boolean stacklessErrors;
+    private final ConcurrentMap<String, OkHttpClient> isolatedClients = new ConcurrentHashMap<>();
+    private final ConcurrentMap<OkHttpClient, OkHttpClient> hedgingClients =
+            new ConcurrentHashMap<>();
 
     /**
      * Constructor.  Users of this library should not need to access this class directly - you should instantiate
@@ -63,11 +90,15 @@ public class HttpClient {
      * @param accessToken the access token.
      * @param baseUrl base URI to make requests against.
      * @param rawClient the OkHttpClient instance to use to make requests (which will be configured
-     *                  to log requests with LoggingInterceptor).
+     *                  to request gzip-compressed responses).
      */
     public HttpClient(String accessToken, String baseUrl, OkHttpClient rawClient) {
         this.rawClient = rawClient;
-        rawClient.interceptors().add(new LoggingInterceptor());
+        CompressionMetrics compressionMetrics = new CompressionMetrics();
+        this.gzipInterceptor = new GzipInterceptor(compressionMetrics);
+        this.metrics = new ClientMetrics(compressionMetrics);
+        rawClient.interceptors().add(gzipInterceptor);
+        rawClient.networkInterceptors().add(new TimingInterceptor());
         this.urlFormatter = new UrlFormatter(baseUrl);
         Gson gson = GsonFactory.build();
         this.responseParser = new ResponseParser(gson);
@@ -75,46 +106,396 @@ public class HttpClient {
         this.credentials = String.format("Bearer %s", accessToken);
     }
 
+    /**
+     * Enables gzip compression of request bodies which are at least the given number of
+     * bytes long.  Users of this library should not need to call this directly - use
+     * GoCardlessClient.Builder#withRequestCompression instead.
+     *
+     * @param minimumBytes the smallest request body which will be compressed.
+     */
+    public void enableRequestCompression(int minimumBytes) {
+        if (minimumBytes < 0) {
+            throw new IllegalArgumentException("minimumBytes must not be negative");
+        }
+        gzipInterceptor.setRequestCompressionThreshold(minimumBytes);
+    }
+
+    /**
+     * Logs requests using the given interceptor, replacing any set before.  Users of this
+     * library should not need to call this directly - use
+     * GoCardlessClient.Builder#withRequestLogging instead.
+     *
+     * @param loggingInterceptor the interceptor to use, or null to stop logging requests.
+     */
+    public void setLoggingInterceptor(LoggingInterceptor loggingInterceptor) {
+        List<Interceptor> interceptors = rawClient.interceptors();
+        for (Iterator<Interceptor> it = interceptors.iterator(); it.hasNext();) {
+            if (it.next() instanceof LoggingInterceptor) {
+                it.remove();
+            }
+        }
+        if (loggingInterceptor != null) {
+            // Log ahead of decompression, so the timing covers the whole exchange.
+            interceptors.add(0, loggingInterceptor);
+        }
+    }
+
+    /**
+     * Limits the number of requests this client has in flight at once.  Users of this library
+     * should not need to call this directly - use GoCardlessClient.Builder#withConcurrencyLimiter
+     * instead.
+     *
+     * @param concurrencyLimiter the limiter to use, or null to remove any limit.
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        metrics.setConcurrencyLimiter(concurrencyLimiter);
+    }
+
+    /**
+     * Guards each endpoint with a circuit breaker, so that requests to an endpoint which is
+     * failing or slow fail fast.  Users of this library should not need to call this directly -
+     * use GoCardlessClient.Builder#withCircuitBreakers instead.
+     *
+     * @param circuitBreakers the breakers to use, or null to send all requests.
+     */
+    public void setCircuitBreakers(CircuitBreakers circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+        metrics.setCircuitBreakers(circuitBreakers);
+    }
+
+    /**
+     * Isolates the API's services from each other, limiting the number of requests each has
+     * in flight and giving each its own connection pool.  Users of this library should not
+     * need to call this directly - use GoCardlessClient.Builder#withBulkheads instead.
+     *
+     * @param bulkheads the bulkheads to use, or null to share everything between services.
+     */
+    public void setBulkheads(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+        metrics.setBulkheads(bulkheads);
+    }
+
+    /**
+     * Hedges GET requests which are taking longer than usual, according to the given policy.
+     * Users of this library should not need to call this directly - use
+     * GoCardlessClient.Builder#withHedging instead.
+     *
+     * @param hedgingPolicy the policy to use, or null to stop hedging.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+        metrics.setHedgingPolicy(hedgingPolicy);
+    }
+
+    /**
+     * Chooses the size of each page fetched when iterating through a list, unless the caller
+     * has set a limit.  Users of this library should not need to call this directly - use
+     * GoCardlessClient.Builder#withPageSizeTuning instead.
+     *
+     * @param pageSizeTuner the tuner to use, or null to use the API's default page size.
+     */
+    public void setPageSizeTuner(PageSizeTuner pageSizeTuner) {
+        this.pageSizeTuner = pageSizeTuner;
+        metrics.setPageSizeTuner(pageSizeTuner);
+    }
+
+    PageSizeTuner getPageSizeTuner() {
+        return pageSizeTuner;
+    }
+
+    /**
+     * Reports a breakdown of the time taken by each attempt at a request to the given
+     * listener.  Users of this library should not need to call this directly - use
+     * GoCardlessClient.Builder#withTimingListener instead.
+     *
+     * @param timingListener the listener to report to, or null to stop reporting.
+     */
+    public void setTimingListener(RequestTimingListener timingListener) {
+        this.timingListener = timingListener;
+    }
+
+    /**
+     * Sets whether exceptions for error responses from the API are created without stack
+     * traces.  Users of this library should not need to call this directly - use
+     * GoCardlessClient.Builder#withStacklessErrors instead.
+     *
+     * @param stacklessErrors whether to skip filling in stack traces.
+     */
+    public void setStacklessErrors(boolean stacklessErrors) {
+        this.stacklessErrors = stacklessErrors;
+    }
+
+    /**
+     * Returns metrics describing the behaviour of this client.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
     <T> T execute(ApiRequest<T> apiRequest) {
-        Request request = buildRequest(apiRequest);
-        Response response = execute(request);
-        return parseResponseBody(apiRequest, response);
+        return execute(apiRequest, apiRequest.newDeadline());
+    }
+
+    <T> T execute(ApiRequest<T> apiRequest, Deadline deadline) {
+        Exchange exchange = new Exchange(apiRequest, deadline);
+        try {
+            Response response = exchange.execute();
+            return exchange.parse(apiRequest, exchange.readBody(response));
+        } finally {
+            exchange.finish();
+        }
     }
 
     <T> ApiResponse<T> executeWrapped(ApiRequest<T> apiRequest) {
-        Request request = buildRequest(apiRequest);
-        Response response = execute(request);
-        T resource = parseResponseBody(apiRequest, response);
-        return new ApiResponse<>(resource, response.code(), response.headers().toMultimap());
+        Exchange exchange = new Exchange(apiRequest, apiRequest.newDeadline());
+        try {
+            Response response = exchange.execute();
+            T resource = exchange.parse(apiRequest, exchange.readBody(response));
+            return new ApiResponse<>(resource, response.code(), response.headers(),
+                    exchange.timings.snapshot());
+        } finally {
+            exchange.finish();
+        }
     }
 
-    <T> T executeWithRetries(final ApiRequest<T> apiRequest) {
-        Retryer<T> retrier =
-                RetryerBuilder.<T>newBuilder()
-                        .retryIfExceptionOfType(GoCardlessNetworkException.class)
-                        .retryIfExceptionOfType(GoCardlessInternalException.class)
-                        .withWaitStrategy(WaitStrategies.fixedWait(500, MILLISECONDS))
-                        .withStopStrategy(StopStrategies.stopAfterAttempt(MAX_RETRIES)).build();
-        Callable<T> executeOnce = new Callable<T>() {
+    <T> T executeWithRetries(ApiRequest<T> apiRequest) {
+        return executeWithRetries(apiRequest, apiRequest.newDeadline());
+    }
+
+    /**
+     * Executes a request, returning error responses from the API as a failed result instead
+     * of throwing them.
+     */
+    <T> Result<T> tryExecute(ApiRequest<T> apiRequest, Deadline deadline) {
+        Exchange exchange = new Exchange(apiRequest, deadline);
+        try {
+            Response response = exchange.send();
+            if (!response.isSuccessful()) {
+                return Result.failure(exchange.readError(response), response.code(),
+                        response.headers());
+            }
+            T resource = exchange.parse(apiRequest, exchange.readBody(response));
+            return Result.success(resource, response.code(), response.headers());
+        } finally {
+            exchange.finish();
+        }
+    }
+
+    /**
+     * Executes a request once, as {@link #tryExecute} does, with a deadline of its own. Unlike
+     * {@link #tryExecuteWithRetries}, nothing is retried.
+     */
+    <T> Result<T> executeForResult(ApiRequest<T> apiRequest) {
+        return tryExecute(apiRequest, apiRequest.newDeadline());
+    }
+
+    /**
+     * Executes a request as {@link #tryExecute} does, retrying as
+     * {@link #executeWithRetries} does. Internal errors are retried, and returned as a failed
+     * result if they persist.
+     */
+    <T> Result<T> tryExecuteWithRetries(final ApiRequest<T> apiRequest,
+            final Deadline deadline) {
+        return withRetries(apiRequest, deadline, new Callable<Result<T>>() {
+            @Override
+            public Result<T> call() throws Exception {
+                return tryExecute(apiRequest, deadline);
+            }
+        }, new Predicate<Result<T>>() {
+            @Override
+            public boolean apply(Result<T> result) {
+                return result.getErrorType() == ErrorType.GOCARDLESS;
+            }
+        });
+    }
+
+    RawResponse executeRaw(ApiRequest<?> apiRequest) {
+        Exchange exchange = new Exchange(apiRequest, apiRequest.newDeadline());
+        try {
+            Response response = exchange.execute();
+            ByteString body = exchange.readBytes(response);
+            return new RawResponse(response.code(), response.headers(), body);
+        } finally {
+            exchange.finish();
+        }
+    }
+
+    RawPage executeRawPage(ListRequest<?, ?> request, Deadline deadline) {
+        Exchange exchange = new Exchange(request, deadline);
+        try {
+            Response response = exchange.execute();
+            ByteString body = exchange.readBytes(response);
+            ListResponse.Meta meta = responseParser.parsePageMeta(body);
+            return new RawPage(response.code(), response.headers(), body, meta);
+        } finally {
+            exchange.finish();
+        }
+    }
+
+    /**
+     * Fetches the raw page a list request points at while iterating through the list, as
+     * {@link #executePageWithRetries} does.
+     */
+    RawPage executeRawPageWithRetries(final ListRequest<?, ?> request, final Deadline deadline) {
+        RequestPriority previous = request.setDefaultPriority(RequestPriority.BATCH);
+        try {
+            return withRetries(request, deadline, new Callable<RawPage>() {
+                @Override
+                public RawPage call() throws Exception {
+                    return executeRawPage(request, deadline);
+                }
+            }, Predicates.<RawPage>alwaysFalse());
+        } finally {
+            request.setDefaultPriority(previous);
+        }
+    }
+
+    /**
+     * Fetches the page a list request points at while iterating through the list, retrying as
+     * {@link #executeWithRetries} does. Nobody is waiting on any single page, so unless the
+     * caller has set the request's priority, the page is fetched with batch priority. The
+     * request's own priority is left as it was.
+     */
+    <T> ListResponse<T> executePageWithRetries(ApiRequest<ListResponse<T>> request,
+            Deadline deadline) {
+        RequestPriority previous = request.setDefaultPriority(RequestPriority.BATCH);
+        try {
+            return executeWithRetries(request, deadline);
+        } finally {
+            request.setDefaultPriority(previous);
+        }
+    }
+
+    /**
+     * Executes a request, retrying on network failures and internal errors, until it succeeds,
+     * it has been tried {@link #MAX_RETRIES} times, or there is no time left before the deadline
+     * to wait and try again.
+     */
+    <T> T executeWithRetries(final ApiRequest<T> apiRequest, final Deadline deadline) {
+        return withRetries(apiRequest, deadline, new Callable<T>() {
             @Override
             public T call() throws Exception {
-                return execute(apiRequest);
+                return execute(apiRequest, deadline);
+            }
+        }, Predicates.<T>alwaysFalse());
+    }
+
+    private <R> R withRetries(ApiRequest<?> apiRequest, Deadline deadline,
+            Callable<R> executeOnce, Predicate<R> retryIfResult) {
+        final CallHandle callHandle = apiRequest.getCallHandle();
+        final String method = apiRequest.getMethod();
+        final String pathTemplate = apiRequest.getPathTemplate();
+        BlockStrategy sleepUnlessCancelled = new BlockStrategy() {
+            @Override
+            public void block(long sleepTime) throws InterruptedException {
+                callHandle.sleep(sleepTime);
             }
         };
+        Retryer<R> retrier =
+                RetryerBuilder.<R>newBuilder()
+                        .retryIfExceptionOfType(GoCardlessNetworkException.class)
+                        .retryIfExceptionOfType(GoCardlessInternalException.class)
+                        .retryIfResult(retryIfResult)
+                        .withWaitStrategy(
+                                WaitStrategies.fixedWait(RETRY_DELAY_MILLIS, MILLISECONDS))
+                        .withStopStrategy(stopStrategy(deadline))
+                        .withBlockStrategy(sleepUnlessCancelled)
+                        .withRetryListener(new RetryListener() {
+                            @Override
+                            public <V> void onRetry(Attempt<V> attempt) {
+                                if (attempt.hasException()) {
+                                    JfrEvents.retry(method, pathTemplate,
+                                            (int) attempt.getAttemptNumber(),
+                                            attempt.getExceptionCause());
+                                }
+                            }
+                        }).build();
         try {
             return retrier.call(executeOnce);
-        } catch (ExecutionException | RetryException e) {
-            Throwable cause = e.getCause();
-            throw Throwables.propagate(cause);
+        } catch (RetryException e) {
+            Attempt<?> lastAttempt = e.getLastFailedAttempt();
+            if (lastAttempt.hasResult()) {
+                // We ran out of attempts on a result we'd have liked to retry, which is
+                // still the best we've got.
+                @SuppressWarnings("unchecked")
+                R result = (R) lastAttempt.getResult();
+                return result;
+            }
+            throw Throwables.propagate(e.getCause());
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
         }
     }
 
-    private <T> Request buildRequest(ApiRequest<T> apiRequest) {
+    private static StopStrategy stopStrategy(final Deadline deadline) {
+        final StopStrategy maxAttempts = StopStrategies.stopAfterAttempt(MAX_RETRIES);
+        if (deadline == null) {
+            return maxAttempts;
+        }
+        return new StopStrategy() {
+            // StopStrategy declares its parameter as a raw Attempt, so an Attempt<?> here
+            // wouldn't override it.
+            @Override
+            @SuppressWarnings("rawtypes")
+            public boolean shouldStop(Attempt failedAttempt) {
+                return maxAttempts.shouldStop(failedAttempt)
+                        || deadline.remaining(MILLISECONDS) <= RETRY_DELAY_MILLIS;
+            }
+        };
+    }
+
+    /**
+     * Returns the OkHttp client to send a service's requests with. Services with a bulkhead
+     * get a copy of the client with its own connection pool, keeping as many idle connections
+     * as the service can have requests in flight.
+     */
+    private OkHttpClient clientFor(Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            return rawClient;
+        }
+        OkHttpClient client = isolatedClients.get(bulkhead.getService());
+        if (client == null) {
+            client = rawClient.clone();
+            client.setConnectionPool(
+                    new ConnectionPool(bulkhead.getLimit(), ISOLATED_KEEP_ALIVE_MILLIS));
+            OkHttpClient existing = isolatedClients.putIfAbsent(bulkhead.getService(), client);
+            if (existing != null) {
+                client = existing;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns a copy of the given OkHttp client to send hedged requests with. Hedged requests
+     * are sent asynchronously, and OkHttp only allows 5 asynchronous calls per host by
+     * default, which would leave them queueing behind each other, so the copy has a
+     * dispatcher of its own which doesn't limit calls per host. It shares the original's
+     * connection pool.
+     */
+    private OkHttpClient hedgingClientFor(OkHttpClient client) {
+        OkHttpClient hedgingClient = hedgingClients.get(client);
+        if (hedgingClient == null) {
+            hedgingClient = client.clone();
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(dispatcher.getMaxRequests());
+            hedgingClient.setDispatcher(dispatcher);
+            OkHttpClient existing = hedgingClients.putIfAbsent(client, hedgingClient);
+            if (existing != null) {
+                hedgingClient = existing;
+            }
+        }
+        return hedgingClient;
+    }
+
+    private <T> Request buildRequest(ApiRequest<T> apiRequest, TimingRecorder timings) {
         HttpUrl url = apiRequest.getUrl(urlFormatter);
         Request.Builder request =
-                new Request.Builder().url(url).headers(Headers.of(apiRequest.getHeaders()))
+                new Request.Builder().url(url).tag(timings)
+                        .headers(Headers.of(apiRequest.getHeaders()))
                         .header("Authorization", credentials).header("User-Agent", USER_AGENT)
-                        .method(apiRequest.getMethod(), getBody(apiRequest));
+                        .method(apiRequest.getMethod(), timings.timeBody(getBody(apiRequest)));
         for (Map.Entry<String, String> entry : HEADERS.entrySet()) {
             request = request.header(entry.getKey(), entry.getValue());
         }
@@ -129,38 +510,232 @@ public class HttpClient {
                 return EMPTY_BODY;
             }
         }
-        String json = requestWriter.write(request, request.getRequestEnvelope());
-        return RequestBody.create(MEDIA_TYPE, json);
+        return requestWriter.writeBody(request, request.getRequestEnvelope());
     }
 
-    private Response execute(Request request) {
-        Response response;
-        try {
-            response = rawClient.newCall(request).execute();
-        } catch (IOException e) {
-            throw new GoCardlessNetworkException("Failed to execute request", e);
+    /**
+     * A single attempt at sending a request and receiving its response.
+     *
+     * This holds everything which needs tidying up once the response has been read, such as
+     * the timer enforcing the request's deadline, its permits from its service's bulkhead and
+     * the concurrency limiter, and the circuit breaker it was admitted by.
+     */
+    private final class Exchange {
+        private final ApiRequest<?> apiRequest;
+        private final Deadline deadline;
+        private final CallHandle callHandle;
+        private final TimingRecorder timings;
+        private ConcurrencyLimiter limiter;
+        private ConcurrencyLimiter.Permit permit;
+        private Bulkhead bulkhead;
+        private boolean bulkheadAcquired;
+        private CircuitBreaker breaker;
+        private CircuitBreaker.Phase breakerPhase;
+        private HedgedCall hedgedCall;
+        private long startNanos;
+        private CallOutcome outcome = CallOutcome.DROPPED;
+        private Call call;
+        private ScheduledFuture<?> timeout;
+        private Object jfrEvent;
+        private long responseBytes = -1;
+
+        private Exchange(ApiRequest<?> apiRequest, Deadline deadline) {
+            this.apiRequest = apiRequest;
+            this.deadline = deadline;
+            this.callHandle = apiRequest.getCallHandle();
+            this.timings =
+                    new TimingRecorder(apiRequest.getMethod(), apiRequest.getPathTemplate());
         }
-        if (!response.isSuccessful()) {
-            throw handleErrorResponse(response);
+
+        private Response execute() {
+            Response response = send();
+            if (!response.isSuccessful()) {
+                throw handleErrorResponse(response);
+            }
+            return response;
         }
-        return response;
-    }
 
-    private <T> T parseResponseBody(ApiRequest<T> request, Response response) {
-        try {
-            String responseBody = response.body().string();
-            return request.parseResponse(responseBody, responseParser);
-        } catch (IOException e) {
-            throw new GoCardlessNetworkException("Failed to read response body", e);
+        /**
+         * Sends the request, returning its response whether or not it was successful.
+         */
+        private Response send() {
+            jfrEvent = JfrEvents.beginRequest();
+            if (callHandle.isCancelled()) {
+                throw new RequestCancelledException("Request was cancelled");
+            }
+            if (deadline != null && deadline.isExpired()) {
+                throw new RequestTimeoutException("Request timed out");
+            }
+            CircuitBreakers breakers = circuitBreakers;
+            if (breakers != null) {
+                breaker = breakers.forEndpoint(apiRequest.getPathTemplate());
+                breakerPhase = breaker.acquire();
+            }
+            Request request = buildRequest(apiRequest, timings);
+            long queueStartNanos = System.nanoTime();
+            // Wait for the service's own permit first, so a busy service queues up behind
+            // itself rather than taking up places in the shared limiter's queue.
+            Bulkheads serviceBulkheads = bulkheads;
+            if (serviceBulkheads != null) {
+                bulkhead = serviceBulkheads.forService(
+                        Bulkheads.serviceOf(apiRequest.getPathTemplate()));
+            }
+            if (bulkhead != null) {
+                bulkhead.acquire(deadline);
+                bulkheadAcquired = true;
+            }
+            limiter = concurrencyLimiter;
+            if (limiter != null) {
+                permit = limiter.acquire(deadline, apiRequest.getPriority(),
+                        apiRequest.getPathTemplate());
+            }
+            startNanos = System.nanoTime();
+            timings.queued(startNanos - queueStartNanos);
+            HedgingPolicy hedging = apiRequest.getMethod().equals("GET") ? hedgingPolicy : null;
+            long hedgeDelayNanos =
+                    hedging == null ? -1 : hedging.hedgeDelayNanos(apiRequest.getPathTemplate());
+            OkHttpClient client = clientFor(bulkhead);
+            if (hedgeDelayNanos >= 0) {
+                client = hedgingClientFor(client);
+            }
+            call = client.newCall(request);
+            callHandle.attach(call);
+            timeout = DeadlineTimer.schedule(call, deadline);
+            Response response;
+            timings.callStarted();
+            try {
+                if (hedgeDelayNanos >= 0) {
+                    hedgedCall = new HedgedCall(client, request, callHandle, deadline, hedging,
+                            bulkhead, limiter);
+                    response = hedgedCall.execute(call, hedgeDelayNanos);
+                } else {
+                    response = call.execute();
+                }
+            } catch (IOException e) {
+                throw failure("Failed to execute request", e);
+            }
+            if (permit != null) {
+                permit.responded();
+            }
+            if (hedging != null && response.isSuccessful()) {
+                hedging.recordLatency(apiRequest.getPathTemplate(),
+                        System.nanoTime() - startNanos);
+            }
+            return response;
+        }
+
+        private String readBody(Response response) {
+            ResponseBody body = response.body();
+            long readStartNanos = System.nanoTime();
+            try {
+                // Counted as read, as the length is unknown for chunked and gzipped bodies.
+                byte[] bytes = body.bytes();
+                timings.downloaded(System.nanoTime() - readStartNanos);
+                responseBytes = bytes.length;
+                outcome = CallOutcome.SUCCESS;
+                MediaType contentType = body.contentType();
+                return new String(bytes, contentType == null ? UTF_8 : contentType.charset(UTF_8));
+            } catch (IOException e) {
+                throw failure("Failed to read response body", e);
+            }
+        }
+
+        private ByteString readBytes(Response response) {
+            ResponseBody body = response.body();
+            long readStartNanos = System.nanoTime();
+            try {
+                ByteString bytes = body.source().readByteString();
+                timings.downloaded(System.nanoTime() - readStartNanos);
+                responseBytes = bytes.size();
+                outcome = CallOutcome.SUCCESS;
+                return bytes;
+            } catch (IOException e) {
+                throw failure("Failed to read response body", e);
+            } finally {
+                closeQuietly(body);
+            }
+        }
+
+        private <T> T parse(ApiRequest<T> request, String body) {
+            long parseStartNanos = System.nanoTime();
+            try {
+                return request.parseResponse(body, responseParser);
+            } finally {
+                timings.parsed(System.nanoTime() - parseStartNanos);
+            }
+        }
+
+        private GoCardlessException handleErrorResponse(Response response) {
+            return GoCardlessErrorMapper.toException(readError(response), stacklessErrors);
+        }
+
+        private ApiErrorResponse readError(Response response) {
+            int code = response.code();
+            if (code == 429 || code >= 500) {
+                outcome = CallOutcome.DROPPED;
+            } else {
+                // The API handled the request normally - it just didn't like it.
+                outcome = CallOutcome.SUCCESS;
+            }
+            try {
+                String responseBody = response.body().string();
+                return responseParser.parseErrorResponse(responseBody);
+            } catch (IOException e) {
+                throw failure("Failed to read response body", e);
+            }
+        }
+
+        /**
+         * Works out why an I/O operation failed. When we cancel a call, either because the
+         * caller asked us to or because its deadline passed, OkHttp reports it as an
+         * IOException.
+         */
+        private GoCardlessException failure(String message, IOException e) {
+            outcome = CallOutcome.DROPPED;
+            if (callHandle.isCancelled()) {
+                outcome = CallOutcome.IGNORED;
+                return new RequestCancelledException("Request was cancelled", e);
+            }
+            if (deadline != null && deadline.isExpired()) {
+                return new RequestTimeoutException("Request timed out", e);
+            }
+            return new GoCardlessNetworkException(message, e);
+        }
+
+        private void finish() {
+            DeadlineTimer.cancel(timeout);
+            if (call != null) {
+                callHandle.detach(call);
+            }
+            if (hedgedCall != null) {
+                hedgedCall.release();
+            }
+            if (permit != null) {
+                limiter.release(permit, outcome);
+            }
+            if (bulkheadAcquired) {
+                bulkhead.release();
+            }
+            if (breakerPhase != null) {
+                // A request which never got as far as being sent tells us nothing about
+                // the endpoint.
+                CallOutcome breakerOutcome = call == null ? CallOutcome.IGNORED : outcome;
+                breaker.record(breakerPhase, breakerOutcome, System.nanoTime() - startNanos);
+            }
+            RequestTimingListener listener = timingListener;
+            if (listener != null) {
+                listener.onRequestFinished(timings.snapshot());
+            }
+            JfrEvents.commitRequest(jfrEvent, apiRequest.getMethod(),
+                    apiRequest.getPathTemplate(), timings.getStatusCode(), responseBytes);
         }
     }
 
-    private GoCardlessException handleErrorResponse(Response response) {
+    private static void closeQuietly(ResponseBody body) {
         try {
-            String responseBody = response.body().string();
-            return responseParser.parseError(responseBody);
+            body.close();
         } catch (IOException e) {
-            throw new GoCardlessNetworkException("Failed to read response body", e);
+            // The body has already been read, so there's nothing left to lose.
         }
     }
 
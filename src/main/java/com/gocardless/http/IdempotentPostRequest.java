@@ -3,21 +3,12 @@ package com.gocardless.http;
 import java.util.UUID;
 
 import com.gocardless.errors.ApiError;
+import com.gocardless.errors.ErrorReason;
 import com.gocardless.errors.InvalidStateException;
 
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
-import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
 
 public abstract class IdempotentPostRequest<T> extends PostRequest<T> {
-    private static final Predicate<ApiError> CONFLICT_ERROR = new Predicate<ApiError>() {
-        @Override
-        public boolean apply(ApiError error) {
-            return error.getReason().equals("idempotent_creation_conflict");
-        }
-    };
     private transient String idempotencyKey;
 
     protected IdempotentPostRequest(HttpClient httpClient) {
@@ -33,19 +24,90 @@ public abstract class IdempotentPostRequest<T> extends PostRequest<T> {
      */
     @Override
     public T execute() {
+        Deadline deadline = newDeadline();
         try {
-            return getHttpClient().executeWithRetries(this);
+            return getHttpClient().executeWithRetries(this, deadline);
         } catch (InvalidStateException e) {
-            Optional<ApiError> conflictError = Iterables.tryFind(e.getErrors(), CONFLICT_ERROR);
-            if (conflictError.isPresent()) {
-                String id = conflictError.get().getLinks().get("conflicting_resource_id");
-                return handleConflict(getHttpClient(), id).execute();
-            } else {
-                throw Throwables.propagate(e);
+            ApiError conflictError =
+                    e.getErrorResponse().findError(ErrorReason.IDEMPOTENT_CREATION_CONFLICT);
+            if (conflictError == null) {
+                throw e;
             }
+            return getHttpClient().executeWithRetries(conflictRequest(conflictError), deadline);
         }
     }
 
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, without throwing an exception. If
+     * the resource has already been created with this request's idempotency key, the result
+     * holds the existing resource.
+     *
+     * Internal errors and network failures are retried, as they are by {@link #execute()}.
+     * To make a single attempt, use {@link #executeForResult()}.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    @Override
+    public Result<T> tryExecute() {
+        Deadline deadline = newDeadline();
+        Result<T> result = getHttpClient().tryExecuteWithRetries(this, deadline);
+        ApiError conflictError = findConflict(result);
+        if (conflictError == null) {
+            return result;
+        }
+        return getHttpClient().tryExecuteWithRetries(conflictRequest(conflictError), deadline);
+    }
+
+    /**
+     * Executes this request once, without retrying.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, along with the response's status
+     * code and rate limit headers. API errors are never thrown. If the resource has already
+     * been created with this request's idempotency key, the existing resource is fetched,
+     * also without retrying, and the result holds it.
+     *
+     * Unlike {@link #tryExecute()}, neither internal errors nor network failures are retried.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    @Override
+    public Result<T> executeForResult() {
+        Deadline deadline = newDeadline();
+        Result<T> result = getHttpClient().tryExecute(this, deadline);
+        ApiError conflictError = findConflict(result);
+        if (conflictError == null) {
+            return result;
+        }
+        return getHttpClient().tryExecute(conflictRequest(conflictError), deadline);
+    }
+
+    /**
+     * Returns the error saying that the resource has already been created with this request's
+     * idempotency key, or null if the result isn't one.
+     */
+    private static ApiError findConflict(Result<?> result) {
+        if (result.isSuccess()) {
+            return null;
+        }
+        return result.getError().findError(ErrorReason.IDEMPOTENT_CREATION_CONFLICT);
+    }
+
+    /**
+     * Returns a request for the resource which already exists with this request's
+     * idempotency key. Fetching it counts towards this request's timeout, and can be
+     * cancelled in the same way.
+     */
+    private GetRequest<T> conflictRequest(ApiError conflictError) {
+        String id = conflictError.getLinks().get("conflicting_resource_id");
+        GetRequest<T> conflictRequest = handleConflict(getHttpClient(), id);
+        conflictRequest.shareCallHandle(this);
+        return conflictRequest;
+    }
+
     protected void setIdempotencyKey(String idempotencyKey) {
         this.idempotencyKey = idempotencyKey;
     }
@@ -0,0 +1,137 @@
+package com.gocardless.http;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * How far a {@link CheckpointingIterator} has got through a list: the list's path and filters,
+ * the cursor of the page it is on, and how many of that page's items it has returned.
+ *
+ * Checkpoints are immutable. They can be saved with {@link #encode()}, which returns an opaque
+ * string, or with Java serialization, and passed to {@link ListRequest#resumeFrom} in another
+ * process to carry on iterating from the item after the last one returned.
+ */
+public final class IterationCheckpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+    private static final Gson GSON = new Gson();
+    private final String pathTemplate;
+    private final ImmutableMap<String, String> filters;
+    private final String after;
+    private final int position;
+
+    IterationCheckpoint(String pathTemplate, Map<String, String> filters, String after,
+            int position) {
+        this.pathTemplate = pathTemplate;
+        this.filters = ImmutableMap.copyOf(filters);
+        this.after = after;
+        this.position = position;
+    }
+
+    /**
+     * Decodes a checkpoint returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the string isn't an encoded checkpoint
+     */
+    public static IterationCheckpoint decode(String encoded) {
+        Encoded fields;
+        try {
+            fields = GSON.fromJson(new String(ENCODING.decode(encoded), UTF_8), Encoded.class);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            throw new IllegalArgumentException("Malformed checkpoint: " + encoded, e);
+        }
+        if (fields == null || fields.version != VERSION || fields.path == null
+                || fields.filters == null || fields.position < 0) {
+            throw new IllegalArgumentException("Malformed checkpoint: " + encoded);
+        }
+        return new IterationCheckpoint(fields.path, fields.filters, fields.after,
+                fields.position);
+    }
+
+    /**
+     * Returns this checkpoint as a URL-safe string, which can be decoded with
+     * {@link #decode(String)}.
+     */
+    public String encode() {
+        Encoded fields = new Encoded();
+        fields.version = VERSION;
+        fields.path = pathTemplate;
+        fields.filters = filters;
+        fields.after = after;
+        fields.position = position;
+        return ENCODING.encode(GSON.toJson(fields).getBytes(UTF_8));
+    }
+
+    /**
+     * Returns the path template of the list, such as `payments`.
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Returns the query parameters the list is filtered by, including the page size if one
+     * was set.
+     */
+    public ImmutableMap<String, String> getFilters() {
+        return filters;
+    }
+
+    /**
+     * Returns the cursor of the page the next item is on, or null if it is on the first page.
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the number of items on that page which have already been returned.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof IterationCheckpoint)) {
+            return false;
+        }
+        IterationCheckpoint checkpoint = (IterationCheckpoint) other;
+        return pathTemplate.equals(checkpoint.pathTemplate) && filters.equals(checkpoint.filters)
+                && (after == null ? checkpoint.after == null : after.equals(checkpoint.after))
+                && position == checkpoint.position;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pathTemplate.hashCode();
+        hash = 31 * hash + filters.hashCode();
+        hash = 31 * hash + (after == null ? 0 : after.hashCode());
+        return 31 * hash + position;
+    }
+
+    @Override
+    public String toString() {
+        return "IterationCheckpoint{path=" + pathTemplate + ", filters=" + filters + ", after="
+                + after + ", position=" + position + "}";
+    }
+
+    /**
+     * The JSON a checkpoint is encoded as.
+     */
+    private static final class Encoded {
+        private int version;
+        private String path;
+        private Map<String, String> filters;
+        private String after;
+        private int position;
+    }
+}
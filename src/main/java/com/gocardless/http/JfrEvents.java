@@ -0,0 +1,41 @@
+package com.gocardless.http;
+
+/**
+ * Emits Java Flight Recorder events for requests, retries, page fetches and webhooks.
+ *
+ * This library targets Java 7, which has no public JFR API, so this version does nothing. The
+ * jar is a multi-release jar, and on Java 11 and later this class is replaced by the version in
+ * `src/main/java11`, which emits real events. Each `begin` method returns an event to pass to
+ * the matching `commit` method, or null if the event isn't enabled, in which case the commit
+ * does nothing.
+ */
+final class JfrEvents {
+    private JfrEvents() {}
+
+    static Object beginRequest() {
+        return null;
+    }
+
+    static void commitRequest(Object event, String method, String pathTemplate, int statusCode,
+            long bytes) {}
+
+    static void retry(String method, String pathTemplate, int attempt, Throwable cause) {}
+
+    static Object beginPageFetch() {
+        return null;
+    }
+
+    static void commitPageFetch(Object event, String pathTemplate, int items, boolean lastPage) {}
+
+    static Object beginWebhookVerify() {
+        return null;
+    }
+
+    static void commitWebhookVerify(Object event, boolean valid) {}
+
+    static Object beginWebhookParse() {
+        return null;
+    }
+
+    static void commitWebhookParse(Object event, int events) {}
+}
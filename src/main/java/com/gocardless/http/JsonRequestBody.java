@@ -0,0 +1,44 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.RequestBody;
+
+import okio.BufferedSink;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+/**
+ * A request body which streams the JSON representation of a request straight to the
+ * underlying sink, without building an intermediate JSON tree or string.
+ *
+ * The body is serialized again each time it is written, so it can be safely reused
+ * when a request is retried.
+ */
+final class JsonRequestBody extends RequestBody {
+    static final MediaType MEDIA_TYPE = MediaType.parse("application/json");
+    private final RequestWriter requestWriter;
+    private final Object object;
+    private final String envelope;
+
+    JsonRequestBody(RequestWriter requestWriter, Object object, String envelope) {
+        this.requestWriter = requestWriter;
+        this.object = object;
+        this.envelope = envelope;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // Not closed, as that would close the sink, which is owned by the caller.
+        Writer writer = new OutputStreamWriter(sink.outputStream(), UTF_8);
+        requestWriter.write(object, envelope, writer);
+    }
+}
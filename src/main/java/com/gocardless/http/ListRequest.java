@@ -1,11 +1,15 @@
 package com.gocardless.http;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Base class for GET requests that return multiple items.
  *
@@ -16,6 +20,7 @@ public abstract class ListRequest<S, T> extends ApiRequest<ListResponse<T>> {
     private String after;
     private String before;
     private Integer limit;
+    private boolean limitTuned;
 
     protected ListRequest(HttpClient httpClient, ListRequestExecutor<S, T> executor) {
         super(httpClient);
@@ -45,6 +50,88 @@ public abstract class ListRequest<S, T> extends ApiRequest<ListResponse<T>> {
         return executor.executeWrapped(this, getHttpClient());
     }
 
+    /**
+     * Fetches the page this request points at once, without retrying, whichever executor
+     * this request uses.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the page or, if the API
+     * returned an error, the error response, along with the response's status code and rate
+     * limit headers. API errors are never thrown.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    public Result<ListResponse<T>> executeForResult() {
+        return getHttpClient().executeForResult(this);
+    }
+
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.RawPage} holding the response body without
+     * binding its items, and the cursors for the pages either side of it.
+     *
+     * @throws com.gocardless.GoCardlessException
+     */
+    public RawPage executeRaw() {
+        return getHttpClient().executeRawPage(this, newDeadline());
+    }
+
+    /**
+     * Returns every page of this list, starting from this request's cursor, without binding
+     * their items. Pages are fetched as the returned iterable is iterated through, as with
+     * {@link #iteratingExecutor()}.
+     */
+    public Iterable<RawPage> rawPages() {
+        final ListRequest<S, T> request = this;
+        return new Iterable<RawPage>() {
+            @Override
+            public Iterator<RawPage> iterator() {
+                return new RawPageIterator(request, getHttpClient());
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over every item of this list, starting from this request's cursor,
+     * which can return a checkpoint of how far it has got.
+     */
+    public CheckpointingIterator<T> checkpointingIterator() {
+        return new CheckpointingIterator<>(this, getHttpClient(), getFilters(), after, 0);
+    }
+
+    /**
+     * Returns an iterator which carries on from a checkpoint, starting with the item after the
+     * last one returned before the checkpoint was taken.
+     *
+     * The iterator filters the list as it was when the checkpoint was taken, in place of any
+     * filters set on this request, which must be for the same list. The request itself is left
+     * as it was.
+     *
+     * @throws IllegalArgumentException if the checkpoint is for a different list
+     */
+    public CheckpointingIterator<T> resumeFrom(IterationCheckpoint checkpoint) {
+        if (!checkpoint.getPathTemplate().equals(getPathTemplate())) {
+            throw new IllegalArgumentException("Checkpoint is for " + checkpoint.getPathTemplate()
+                    + ", not " + getPathTemplate());
+        }
+        return new CheckpointingIterator<>(this, getHttpClient(), checkpoint.getFilters(),
+                checkpoint.getAfter(), checkpoint.getPosition());
+    }
+
+    /**
+     * Returns the query parameters this request is filtered by, which is all of them apart
+     * from its cursors.
+     */
+    ImmutableMap<String, String> getFilters() {
+        ImmutableMap.Builder<String, String> filters = ImmutableMap.builder();
+        for (Map.Entry<String, Object> param : getQueryParams().entrySet()) {
+            if (!param.getKey().equals("after") && !param.getKey().equals("before")) {
+                filters.put(param.getKey(), param.getValue().toString());
+            }
+        }
+        return filters.build();
+    }
+
     @Override
     protected ListResponse<T> parseResponse(String responseBody, ResponseParser responseParser) {
         return responseParser.parsePage(responseBody, getEnvelope(), getTypeToken());
@@ -87,6 +174,23 @@ public abstract class ListRequest<S, T> extends ApiRequest<ListResponse<T>> {
 
     protected void setLimit(Integer limit) {
         this.limit = limit;
+        this.limitTuned = false;
+    }
+
+    /**
+     * Sets a limit chosen by a {@link PageSizeTuner}, which can be changed again by the tuner
+     * as long as the caller doesn't set a limit of their own.
+     */
+    void setTunedLimit(int limit) {
+        this.limit = limit;
+        this.limitTuned = true;
+    }
+
+    /**
+     * Returns true if the caller hasn't set a limit, so a tuner may choose one.
+     */
+    boolean isLimitTunable() {
+        return limit == null || limitTuned;
     }
 
     public interface ListRequestExecutor<S, T> {
@@ -126,4 +230,41 @@ public abstract class ListRequest<S, T> extends ApiRequest<ListResponse<T>> {
             }
         };
     }
+
+    /**
+     * Returns an executor which publishes every item of a list, starting from the request's
+     * cursor, fetching pages on a shared pool of daemon threads.
+     *
+     * @see #publishingExecutor(Executor)
+     */
+    public static <T> ListRequestExecutor<Publisher<T>, T> publishingExecutor() {
+        return publishingExecutor(PaginatingPublisher.defaultExecutor());
+    }
+
+    /**
+     * Returns an executor which publishes every item of a list, starting from the request's
+     * cursor, fetching pages on the given executor.
+     *
+     * Pages are only fetched as the subscriber asks for items, one at a time, with the next
+     * page fetched while the items already fetched are delivered. Fetching a page still ties
+     * up one of the executor's threads until it arrives, but no thread waits on the
+     * subscriber. Cancelling the subscription cancels the request, aborting any page fetch in
+     * flight. Each publisher can only be subscribed to once.
+     */
+    public static <T> ListRequestExecutor<Publisher<T>, T> publishingExecutor(
+            final Executor executor) {
+        return new ListRequestExecutor<Publisher<T>, T>() {
+            @Override
+            public Publisher<T> execute(ListRequest<Publisher<T>, T> request, HttpClient client) {
+                return new PaginatingPublisher<>(request, client, executor);
+            }
+
+            @Override
+            public ApiResponse<Publisher<T>> executeWrapped(ListRequest<Publisher<T>, T> request,
+                    HttpClient client) {
+                throw new IllegalStateException(
+                        "executeWrapped not available when publishing list responses");
+            }
+        };
+    }
 }
@@ -10,10 +10,16 @@ import java.util.List;
 public class ListResponse<T> {
     private final List<T> items;
     private final Meta meta;
+    private final int bodyLength;
 
     ListResponse(List<T> items, Meta meta) {
+        this(items, meta, -1);
+    }
+
+    ListResponse(List<T> items, Meta meta, int bodyLength) {
         this.items = items;
         this.meta = meta;
+        this.bodyLength = bodyLength;
     }
 
     /**
@@ -46,6 +52,14 @@ public class ListResponse<T> {
         return meta.getLimit();
     }
 
+    /**
+     * Returns the length of the response body this page was parsed from, in characters, or -1
+     * if it isn't known.
+     */
+    int getBodyLength() {
+        return bodyLength;
+    }
+
     static class Meta {
         private final Cursors cursors;
         private final int limit;
@@ -55,11 +69,11 @@ public class ListResponse<T> {
             this.limit = limit;
         }
 
-        private Cursors getCursors() {
+        Cursors getCursors() {
             return cursors;
         }
 
-        private int getLimit() {
+        int getLimit() {
             return limit;
         }
 
@@ -72,11 +86,11 @@ public class ListResponse<T> {
                 this.after = after;
             }
 
-            private String getBefore() {
+            String getBefore() {
                 return before;
             }
 
-            private String getAfter() {
+            String getAfter() {
                 return after;
             }
         }
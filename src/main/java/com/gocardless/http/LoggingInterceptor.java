@@ -1,10 +1,9 @@
 package com.gocardless.http;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.base.Stopwatch;
-
-import com.squareup.okhttp.Interceptor.Chain;
 import com.squareup.okhttp.Interceptor;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
@@ -12,16 +11,164 @@ import com.squareup.okhttp.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-class LoggingInterceptor implements Interceptor {
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Logs the requests a client makes, with their response codes and how long they took.
+ *
+ * What is logged can be cut down by sampling, so only a fraction of requests are logged, and
+ * by a slow request threshold, above which requests are always logged whatever the sample
+ * rate. IDs and query strings can be redacted, in which case each request is logged with the
+ * path template of its endpoint, such as `payments/:identity`, instead of its URL.
+ *
+ * Requests which won't be logged are passed straight through, without being timed or
+ * allocating anything.
+ */
+public final class LoggingInterceptor implements Interceptor {
+    /**
+     * The levels requests can be logged at.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(LoggingInterceptor.class);
+    private static final String MESSAGE = "API request [{}] [{}] returned [{}] (took [{}ms])";
+    private final Level level;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final boolean redact;
+
+    private LoggingInterceptor(Builder builder) {
+        this.level = builder.level;
+        this.sampleRate = builder.sampleRate;
+        this.slowThresholdNanos = builder.slowThresholdNanos;
+        this.redact = builder.redact;
+    }
 
+    /**
+     * Returns a builder for configuring request logging.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
-        Stopwatch stopwatch = Stopwatch.createStarted();
+        if (!isEnabled()) {
+            return chain.proceed(request);
+        }
+        boolean sampled = sampleRate >= 1.0
+                || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        if (!sampled && slowThresholdNanos < 0) {
+            return chain.proceed(request);
+        }
+        long startNanos = System.nanoTime();
         Response response = chain.proceed(request);
-        stopwatch.stop();
-        LOGGER.info("API request [{}] [{}] returned [{}] (took [{}])", request.method(),
-                request.url(), response.code(), stopwatch);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (sampled || elapsedNanos >= slowThresholdNanos) {
+            log(request.method(), describe(request), response.code(),
+                    NANOSECONDS.toMillis(elapsedNanos));
+        }
         return response;
     }
+
+    private boolean isEnabled() {
+        switch (level) {
+            case DEBUG:
+                return LOGGER.isDebugEnabled();
+            case INFO:
+                return LOGGER.isInfoEnabled();
+            default:
+                return LOGGER.isWarnEnabled();
+        }
+    }
+
+    private Object describe(Request request) {
+        if (redact) {
+            Object tag = request.tag();
+            // Every request HttpClient builds is tagged with a recorder, which knows its path
+            // template.
+            if (tag instanceof TimingRecorder) {
+                return ((TimingRecorder) tag).getPathTemplate();
+            }
+            return request.httpUrl().encodedPath();
+        }
+        return request.httpUrl();
+    }
+
+    private void log(String method, Object url, int code, long millis) {
+        switch (level) {
+            case DEBUG:
+                LOGGER.debug(MESSAGE, method, url, code, millis);
+                break;
+            case INFO:
+                LOGGER.info(MESSAGE, method, url, code, millis);
+                break;
+            default:
+                LOGGER.warn(MESSAGE, method, url, code, millis);
+                break;
+        }
+    }
+
+    /**
+     * Builder for {@link LoggingInterceptor}.
+     */
+    public static final class Builder {
+        private Level level = Level.INFO;
+        private double sampleRate = 1.0;
+        private long slowThresholdNanos = -1;
+        private boolean redact = false;
+
+        private Builder() {}
+
+        /**
+         * Sets the level requests are logged at. Defaults to INFO.
+         */
+        public Builder withLevel(Level level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of requests which are logged, between 0 and 1. Defaults to 1, so
+         * that every request is logged.
+         */
+        public Builder withSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets how long a request can take before it is always logged, whatever the sample
+         * rate. To log only slow requests, combine this with a sample rate of 0.
+         */
+        public Builder withSlowThreshold(long slowThreshold, TimeUnit unit) {
+            this.slowThresholdNanos = unit.toNanos(slowThreshold);
+            return this;
+        }
+
+        /**
+         * Sets whether to log each request's path template instead of its URL, so that no
+         * IDs or query parameters are logged. Defaults to false.
+         */
+        public Builder withRedaction(boolean redact) {
+            this.redact = redact;
+            return this;
+        }
+
+        /**
+         * Builds the interceptor.
+         */
+        public LoggingInterceptor build() {
+            if (level == null) {
+                throw new IllegalArgumentException("level must not be null");
+            }
+            if (sampleRate < 0.0 || sampleRate > 1.0) {
+                throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+            }
+            return new LoggingInterceptor(this);
+        }
+    }
 }
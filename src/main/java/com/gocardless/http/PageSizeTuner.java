@@ -0,0 +1,230 @@
+package com.gocardless.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Chooses how many items to ask for in each page when iterating through a list, for lists
+ * whose limit hasn't been set by the caller.
+ *
+ * Small pages mean more round trips per item, and large pages mean more latency, heap and
+ * parsing per page. The tuner measures how long each page of an endpoint takes and how large
+ * its items are, and adjusts the limit between pages to get through the most items per
+ * second without pages growing past a size cap. Starting from an initial limit, it doubles the
+ * limit for as long as doing so doesn't slow down the rate items arrive at, and otherwise
+ * goes back to the last limit and stays there for a number of pages before trying a larger
+ * one again.
+ *
+ * Each endpoint is tuned separately, and what is learnt carries over from one iteration
+ * through its list to the next. Instances are safe to share between threads, and expose the
+ * limit chosen for each endpoint as metrics.
+ */
+public final class PageSizeTuner {
+    // A larger page must be at least this much slower per item before we back off from it.
+    private static final double TOLERANCE = 0.1;
+    // Weight given to the latest page's size when averaging the size of items.
+    private static final double SIZE_WEIGHT = 0.2;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxPageBytes;
+    private final int holdPages;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private PageSizeTuner(Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxPageBytes = builder.maxPageBytes;
+        this.holdPages = builder.holdPages;
+    }
+
+    /**
+     * Returns a builder for configuring a tuner.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the limit the next page of the given endpoint will be fetched with.
+     */
+    public int getLimit(String pathTemplate) {
+        Endpoint endpoint = endpoints.get(pathTemplate);
+        return endpoint == null ? initialLimit : endpoint.getLimit();
+    }
+
+    /**
+     * Returns the limit the next page of each endpoint which has been fetched will be fetched
+     * with, keyed by path template.
+     */
+    public Map<String, Integer> getLimits() {
+        ImmutableMap.Builder<String, Integer> limits = ImmutableMap.builder();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            limits.put(entry.getKey(), entry.getValue().getLimit());
+        }
+        return limits.build();
+    }
+
+    /**
+     * Records a page fetched with the given limit, which had the given number of items and
+     * length of body, and took the given time to fetch.
+     */
+    void record(String pathTemplate, int limit, int items, long bodyLength, long nanos) {
+        Endpoint endpoint = endpoints.get(pathTemplate);
+        if (endpoint == null) {
+            endpoint = new Endpoint();
+            Endpoint existing = endpoints.putIfAbsent(pathTemplate, endpoint);
+            if (existing != null) {
+                endpoint = existing;
+            }
+        }
+        endpoint.record(limit, items, bodyLength, nanos);
+    }
+
+    private final class Endpoint {
+        private int limit = initialLimit;
+        private double bytesPerItem;
+        // The limit before the last increase, and the rate items arrived at with it, or zero
+        // if the limit hasn't just been increased.
+        private int previousLimit;
+        private double previousRate;
+        private int pagesToHold;
+
+        private synchronized int getLimit() {
+            return limit;
+        }
+
+        private synchronized void record(int pageLimit, int items, long bodyLength,
+                long nanos) {
+            if (items == 0) {
+                return;
+            }
+            if (bodyLength > 0) {
+                double itemBytes = (double) bodyLength / items;
+                bytesPerItem = bytesPerItem == 0
+                        ? itemBytes : bytesPerItem * (1 - SIZE_WEIGHT) + itemBytes * SIZE_WEIGHT;
+            }
+            // The last page of a list is usually short, so says little about the limit, and
+            // pages from iterations which started before the limit last changed are stale.
+            if (items == pageLimit && pageLimit == limit && nanos > 0) {
+                double rate = items / (double) nanos;
+                if (previousLimit != 0 && rate < previousRate * (1 - TOLERANCE)) {
+                    limit = previousLimit;
+                    previousLimit = 0;
+                    pagesToHold = holdPages;
+                } else if (pagesToHold > 0) {
+                    pagesToHold--;
+                    previousLimit = 0;
+                } else {
+                    int larger = Math.min(clamp(limit * 2), sizeCap());
+                    if (larger > limit) {
+                        previousLimit = limit;
+                        previousRate = rate;
+                        limit = larger;
+                    } else {
+                        previousLimit = 0;
+                    }
+                }
+            }
+            limit = clamp(Math.min(limit, sizeCap()));
+        }
+
+        /**
+         * Returns the largest limit whose pages should fit under the size cap.
+         */
+        private int sizeCap() {
+            if (bytesPerItem == 0) {
+                return maxLimit;
+            }
+            return (int) Math.min(maxLimit, maxPageBytes / bytesPerItem);
+        }
+
+        private int clamp(int value) {
+            return Math.max(minLimit, Math.min(maxLimit, value));
+        }
+    }
+
+    /**
+     * Builder for {@link PageSizeTuner}.
+     */
+    public static final class Builder {
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 500;
+        private long maxPageBytes = 4 * 1024 * 1024;
+        private int holdPages = 20;
+
+        private Builder() {}
+
+        /**
+         * Sets the limit the first page of each endpoint is fetched with. Defaults to 50, the
+         * API's default.
+         */
+        public Builder withInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the smallest limit pages are fetched with, even if their items are larger than
+         * the size cap allows. Defaults to 10.
+         */
+        public Builder withMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Sets the largest limit pages are fetched with. Defaults to 500, the API's maximum.
+         */
+        public Builder withMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets the size cap: the largest a page's body should be, going by the average size of
+         * the endpoint's items so far. Defaults to 4 MiB.
+         */
+        public Builder withMaxPageBytes(long maxPageBytes) {
+            this.maxPageBytes = maxPageBytes;
+            return this;
+        }
+
+        /**
+         * Sets how many pages are fetched with a limit, after a larger one turned out to be
+         * slower, before a larger one is tried again. Defaults to 20.
+         */
+        public Builder withHoldPages(int holdPages) {
+            this.holdPages = holdPages;
+            return this;
+        }
+
+        /**
+         * Builds the tuner.
+         */
+        public PageSizeTuner build() {
+            if (minLimit < 1) {
+                throw new IllegalArgumentException("minLimit must be at least 1");
+            }
+            if (maxLimit < minLimit) {
+                throw new IllegalArgumentException("maxLimit must be at least minLimit");
+            }
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(
+                        "initialLimit must be between minLimit and maxLimit");
+            }
+            if (maxPageBytes < 1) {
+                throw new IllegalArgumentException("maxPageBytes must be positive");
+            }
+            if (holdPages < 0) {
+                throw new IllegalArgumentException("holdPages must not be negative");
+            }
+            return new PageSizeTuner(this);
+        }
+    }
+}
@@ -8,12 +8,19 @@ import com.google.common.collect.Lists;
 class PaginatingIterator<T> extends AbstractIterator<T> {
     private final ListRequest<?, T> request;
     private final HttpClient client;
+    private final Deadline deadline;
+    private final PageSizeTuner tuner;
     private List<T> items;
     private String nextCursor;
 
     PaginatingIterator(ListRequest<?, T> request, HttpClient client) {
         this.request = request;
         this.client = client;
+        // A single deadline covers fetching every page, not each page separately.
+        this.deadline = request.newDeadline();
+        // Pages are only tuned if the caller hasn't chosen their size.
+        PageSizeTuner pageSizeTuner = client.getPageSizeTuner();
+        this.tuner = pageSizeTuner != null && request.isLimitTunable() ? pageSizeTuner : null;
         loadPage();
     }
 
@@ -32,8 +39,21 @@ class PaginatingIterator<T> extends AbstractIterator<T> {
 
     private void loadPage() {
         request.setAfter(nextCursor);
-        ListResponse<T> response = client.executeWithRetries(request);
+        int limit = 0;
+        if (tuner != null) {
+            limit = tuner.getLimit(request.getPathTemplate());
+            request.setTunedLimit(limit);
+        }
+        Object event = JfrEvents.beginPageFetch();
+        long startNanos = System.nanoTime();
+        ListResponse<T> response = client.executePageWithRetries(request, deadline);
+        if (tuner != null) {
+            tuner.record(request.getPathTemplate(), limit, response.getItems().size(),
+                    response.getBodyLength(), System.nanoTime() - startNanos);
+        }
         items = Lists.newArrayList(response.getItems());
         nextCursor = response.getAfter();
+        JfrEvents.commitPageFetch(event, request.getPathTemplate(), items.size(),
+                nextCursor == null);
     }
 }
@@ -0,0 +1,215 @@
+package com.gocardless.http;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publishes every item of a list, starting from the request's cursor.
+ *
+ * Pages are fetched one at a time on an executor, and only once the subscriber has asked for
+ * more items than are already buffered, so at most two pages are held at once. The next page
+ * is fetched while the items already buffered are being delivered. Cancelling the
+ * subscription cancels the request, aborting any page fetch in flight. Page fetches are
+ * retried as they are when iterating, and the subscriber is sent the error if they fail.
+ *
+ * Requests can only be executed one at a time, so a publisher can only be subscribed to once.
+ */
+class PaginatingPublisher<T> implements Publisher<T> {
+    private final ListRequest<?, T> request;
+    private final HttpClient client;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    PaginatingPublisher(ListRequest<?, T> request, HttpClient client, Executor executor) {
+        this.request = request;
+        this.client = client;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(
+                    new IllegalStateException("A list can only be published to one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    /**
+     * Returns the executor pages are fetched on if none is given.
+     */
+    static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("gocardless-publisher-%d").build());
+    }
+
+    /**
+     * Delivers buffered items as they are asked for. Signals to the subscriber are only ever
+     * sent from {@link #drain()}, by whichever thread gets into it first, so are never sent
+     * concurrently.
+     */
+    private final class PageSubscription implements Subscription, Runnable {
+        private final Subscriber<? super T> subscriber;
+        private final Deadline deadline;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger drainers = new AtomicInteger();
+        private final Queue<T> items = new ConcurrentLinkedQueue<>();
+        private volatile boolean fetching;
+        private volatile boolean lastPage;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private boolean started;
+        private String nextCursor;
+
+        private PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            // A single deadline covers fetching every page, not each page separately.
+            this.deadline = request.newDeadline();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (error == null) {
+                    error = new IllegalArgumentException(
+                            "Number of items requested must be positive, but was " + n);
+                }
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            request.cancel();
+            drain();
+        }
+
+        /**
+         * Fetches the next page.
+         */
+        @Override
+        public void run() {
+            try {
+                if (started) {
+                    request.setAfter(nextCursor);
+                }
+                started = true;
+                Object event = JfrEvents.beginPageFetch();
+                ListResponse<T> page = client.executePageWithRetries(request, deadline);
+                JfrEvents.commitPageFetch(event, request.getPathTemplate(),
+                        page.getItems().size(), page.getAfter() == null);
+                items.addAll(page.getItems());
+                nextCursor = page.getAfter();
+                lastPage = nextCursor == null;
+            } catch (Throwable e) {
+                // Failures caused by cancelling the request aren't worth reporting.
+                if (!cancelled) {
+                    error = e;
+                }
+            }
+            fetching = false;
+            drain();
+        }
+
+        private void drain() {
+            if (drainers.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!cancelled) {
+                    // Start on the next page before delivering this one, if it'll be needed.
+                    fetchIfNeeded();
+                    long demand = requested.get();
+                    long delivered = 0;
+                    while (delivered != demand && !cancelled && error == null) {
+                        T item = items.poll();
+                        if (item == null) {
+                            break;
+                        }
+                        subscriber.onNext(item);
+                        delivered++;
+                    }
+                    if (delivered > 0 && demand != Long.MAX_VALUE) {
+                        requested.addAndGet(-delivered);
+                    }
+                    if (!cancelled) {
+                        Throwable failure = error;
+                        if (failure != null) {
+                            terminate();
+                            // A page may still be being fetched if demand was invalid.
+                            request.cancel();
+                            subscriber.onError(failure);
+                        } else if (lastPage && items.isEmpty()) {
+                            terminate();
+                            subscriber.onComplete();
+                        } else {
+                            fetchIfNeeded();
+                        }
+                    }
+                }
+                if (cancelled) {
+                    items.clear();
+                }
+                missed = drainers.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fetchIfNeeded() {
+            if (!fetching && !lastPage && error == null && requested.get() > items.size()) {
+                fetching = true;
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    fetching = false;
+                    error = e;
+                }
+            }
+        }
+
+        /**
+         * Stops any more signals being sent, before sending the last one.
+         */
+        private void terminate() {
+            cancelled = true;
+            items.clear();
+        }
+    }
+}
@@ -21,6 +21,21 @@ public abstract class PostRequest<T> extends ApiRequest<T> {
         return getHttpClient().execute(this);
     }
 
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, without throwing an exception.
+     *
+     * The request is made once, as POST requests without an idempotency key can't safely be
+     * retried, so this returns the same as {@link #executeForResult()}.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    public Result<T> tryExecute() {
+        return executeForResult();
+    }
+
     /**
      * Executes this request.
      *
@@ -33,6 +48,34 @@ public abstract class PostRequest<T> extends ApiRequest<T> {
         return getHttpClient().executeWrapped(this);
     }
 
+    /**
+     * Executes this request once, without retrying.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, along with the response's status
+     * code and rate limit headers. API errors are never thrown.
+     *
+     * Subclasses whose requests can be retried may retry in {@link #tryExecute()}, but
+     * never here.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    public Result<T> executeForResult() {
+        return getHttpClient().executeForResult(this);
+    }
+
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.RawResponse} holding the response body
+     * without parsing it.
+     *
+     * @throws com.gocardless.GoCardlessException
+     */
+    public RawResponse executeRaw() {
+        return getHttpClient().executeRaw(this);
+    }
+
     @Override
     protected T parseResponse(String responseBody, ResponseParser responseParser) {
         return responseParser.parseSingle(responseBody, getEnvelope(), getResponseClass());
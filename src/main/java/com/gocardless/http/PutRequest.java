@@ -21,6 +21,21 @@ public abstract class PutRequest<T> extends ApiRequest<T> {
         return getHttpClient().executeWithRetries(this);
     }
 
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, without throwing an exception.
+     *
+     * Internal errors and network failures are retried, as they are by {@link #execute()}.
+     * To make a single attempt, use {@link #executeForResult()}.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    public Result<T> tryExecute() {
+        return getHttpClient().tryExecuteWithRetries(this, newDeadline());
+    }
+
     /**
      * Executes this request.
      *
@@ -33,6 +48,33 @@ public abstract class PutRequest<T> extends ApiRequest<T> {
         return getHttpClient().executeWrapped(this);
     }
 
+    /**
+     * Executes this request once, without retrying.
+     *
+     * Returns a {@link com.gocardless.http.Result} holding either the response entity or,
+     * if the API returned an error, the error response, along with the response's status
+     * code and rate limit headers. API errors are never thrown.
+     *
+     * Unlike {@link #tryExecute()}, neither internal errors nor network failures are retried.
+     *
+     * @throws com.gocardless.GoCardlessException if the request could not be completed
+     */
+    public Result<T> executeForResult() {
+        return getHttpClient().executeForResult(this);
+    }
+
+    /**
+     * Executes this request.
+     *
+     * Returns a {@link com.gocardless.http.RawResponse} holding the response body
+     * without parsing it.
+     *
+     * @throws com.gocardless.GoCardlessException
+     */
+    public RawResponse executeRaw() {
+        return getHttpClient().executeRaw(this);
+    }
+
     @Override
     protected T parseResponse(String responseBody, ResponseParser responseParser) {
         return responseParser.parseSingle(responseBody, getEnvelope(), getResponseClass());
@@ -0,0 +1,169 @@
+package com.gocardless.http;
+
+import java.nio.charset.Charset;
+
+import com.gocardless.errors.MalformedResponseException;
+
+/**
+ * Finds the items in the envelope of a page of a list without decoding them, so that they can
+ * be copied out of the page's body byte for byte.
+ *
+ * Only as much of the body is checked as is needed to find where each item starts and ends.
+ */
+final class RawItems {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final byte[] json;
+    private int position;
+    private int start = -1;
+    private int end = -1;
+    private boolean done;
+
+    RawItems(byte[] json, String envelope) {
+        this.json = json;
+        byte[] key = envelope.getBytes(UTF_8);
+        expect('{');
+        while (true) {
+            skipWhitespace();
+            int keyStart = position + 1;
+            expect('"');
+            position--;
+            skipString();
+            int keyEnd = position - 1;
+            expect(':');
+            if (matches(keyStart, keyEnd, key)) {
+                expect('[');
+                return;
+            }
+            skipValue();
+            expect(',');
+        }
+    }
+
+    /**
+     * Moves on to the next item, returning false if there are no more.
+     */
+    boolean next() {
+        if (done) {
+            return false;
+        }
+        skipWhitespace();
+        if (byteAt(position) == ']') {
+            done = true;
+            return false;
+        }
+        if (start >= 0) {
+            expect(',');
+            skipWhitespace();
+        }
+        start = position;
+        skipValue();
+        end = position;
+        return true;
+    }
+
+    /**
+     * Returns the offset of the first byte of the current item.
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * Returns the offset after the last byte of the current item.
+     */
+    int end() {
+        return end;
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        byte b = byteAt(position);
+        if (b == '"') {
+            skipString();
+        } else if (b == '{' || b == '[') {
+            int depth = 0;
+            do {
+                b = byteAt(position);
+                if (b == '"') {
+                    skipString();
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0);
+        } else {
+            int literalStart = position;
+            while (position < json.length && !isDelimiter(json[position])) {
+                position++;
+            }
+            if (position == literalStart) {
+                throw malformed();
+            }
+        }
+    }
+
+    /**
+     * Skips over the string starting at the current position, leaving the position after its
+     * closing quote.
+     */
+    private void skipString() {
+        position++;
+        while (true) {
+            byte b = byteAt(position++);
+            if (b == '\\') {
+                position++;
+            } else if (b == '"') {
+                return;
+            }
+        }
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (byteAt(position) != c) {
+            throw malformed();
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length && isWhitespace(json[position])) {
+            position++;
+        }
+    }
+
+    private boolean matches(int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (json[from + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte byteAt(int index) {
+        if (index >= json.length) {
+            throw malformed();
+        }
+        return json[index];
+    }
+
+    private MalformedResponseException malformed() {
+        return new MalformedResponseException(new String(json, UTF_8));
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '}' || b == ']' || isWhitespace(b);
+    }
+}
@@ -0,0 +1,41 @@
+package com.gocardless.http;
+
+import com.squareup.okhttp.Headers;
+
+import okio.ByteString;
+
+/**
+ * A page of a list returned from the API which hasn't been parsed, apart from the cursors
+ * needed to fetch the pages either side of it.
+ */
+public final class RawPage extends RawResponse {
+    private final ListResponse.Meta meta;
+
+    RawPage(int statusCode, Headers headers, ByteString body, ListResponse.Meta meta) {
+        super(statusCode, headers, body);
+        this.meta = meta;
+    }
+
+    /**
+     * Returns a cursor that can be used to get the page after this one.  If null, then
+     * this is the last page.
+     */
+    public String getAfter() {
+        return meta.getCursors().getAfter();
+    }
+
+    /**
+     * Returns a cursor that can be used to get the page before this one.  If null, then
+     * this is the first page.
+     */
+    public String getBefore() {
+        return meta.getCursors().getBefore();
+    }
+
+    /**
+     * Returns the upper bound placed on the number of items returned.
+     */
+    public int getLimit() {
+        return meta.getLimit();
+    }
+}
@@ -0,0 +1,33 @@
+package com.gocardless.http;
+
+import com.google.common.collect.AbstractIterator;
+
+class RawPageIterator extends AbstractIterator<RawPage> {
+    private final ListRequest<?, ?> request;
+    private final HttpClient client;
+    private final Deadline deadline;
+    private RawPage lastPage;
+
+    RawPageIterator(ListRequest<?, ?> request, HttpClient client) {
+        this.request = request;
+        this.client = client;
+        // A single deadline covers fetching every page, not each page separately.
+        this.deadline = request.newDeadline();
+    }
+
+    @Override
+    protected RawPage computeNext() {
+        if (lastPage != null) {
+            if (lastPage.getAfter() == null) {
+                return endOfData();
+            }
+            request.setAfter(lastPage.getAfter());
+        }
+        Object event = JfrEvents.beginPageFetch();
+        lastPage = client.executeRawPageWithRetries(request, deadline);
+        // Raw pages aren't parsed, so we don't know how many items they have.
+        JfrEvents.commitPageFetch(event, request.getPathTemplate(), -1,
+                lastPage.getAfter() == null);
+        return lastPage;
+    }
+}
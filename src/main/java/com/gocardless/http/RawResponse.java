@@ -0,0 +1,67 @@
+package com.gocardless.http;
+
+import java.io.InputStream;
+
+import com.google.common.collect.Multimap;
+
+import com.squareup.okhttp.Headers;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * An API response which hasn't been parsed, for passing straight on to somewhere else.
+ *
+ * The body is read in full before the request returns, so that its connection is freed
+ * straight away, but it is never decoded or bound to a resource. Headers are only copied out
+ * of the underlying response if they are asked for as a map.
+ */
+public class RawResponse {
+    private final int statusCode;
+    private final Headers headers;
+    private final ByteString body;
+    private volatile Multimap<String, String> headerMap;
+
+    RawResponse(int statusCode, Headers headers, ByteString body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the last value of the given header, or null if it wasn't sent.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns all of the response's headers.
+     */
+    public Multimap<String, String> getHeaders() {
+        Multimap<String, String> map = headerMap;
+        if (map == null) {
+            map = ResponseHeaders.toMultimap(headers);
+            headerMap = map;
+        }
+        return map;
+    }
+
+    /**
+     * Returns the response body, exactly as it was received (after decompression).
+     */
+    public ByteString getBody() {
+        return body;
+    }
+
+    /**
+     * Returns a stream over the response body.
+     */
+    public InputStream getBodyStream() {
+        return new Buffer().write(body).inputStream();
+    }
+}
@@ -0,0 +1,18 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+
+/**
+ * Exception thrown when a request is cancelled while it is being executed.
+ */
+public class RequestCancelledException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
+
+    RequestCancelledException(String message) {
+        super(message);
+    }
+
+    RequestCancelledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
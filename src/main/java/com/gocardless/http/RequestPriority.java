@@ -0,0 +1,25 @@
+package com.gocardless.http;
+
+/**
+ * How urgently a request needs to be sent, when a client is limiting the number of requests
+ * it has in flight with a {@link ConcurrencyLimiter}.
+ *
+ * Requests which are waiting for a limiter permit are granted them in order of priority, and
+ * then in the order they arrived. Without a limiter, priority has no effect: in particular,
+ * {@link Bulkheads} grant permits in the order requests arrived, whatever their priority.
+ *
+ * A request's priority is set with its `withPriority` method. Requests which haven't had one
+ * set are sent as {@link #INTERACTIVE}, except for the pages fetched while iterating through a
+ * list, which are fetched as {@link #BATCH}.
+ */
+public enum RequestPriority {
+    /**
+     * A request someone is waiting on, such as one made while handling a web request. This is
+     * the default.
+     */
+    INTERACTIVE,
+    /**
+     * A request which is part of a bulk operation, such as fetching every page of a list.
+     */
+    BATCH
+}
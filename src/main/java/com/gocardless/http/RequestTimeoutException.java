@@ -0,0 +1,19 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+
+/**
+ * Exception thrown when a request, including any retries and any further pages fetched
+ * while iterating, does not complete within the timeout set with `withTimeout`.
+ */
+public class RequestTimeoutException extends GoCardlessException {
+    private static final long serialVersionUID = 1L;
+
+    RequestTimeoutException(String message) {
+        super(message);
+    }
+
+    RequestTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gocardless.http;
+
+/**
+ * Receives a breakdown of the time taken by each attempt at a request a client makes.
+ *
+ * Listeners are called on the thread which executed the request, once it has finished,
+ * whether or not it succeeded. They should return quickly, and must not throw.
+ */
+public interface RequestTimingListener {
+    void onRequestFinished(RequestTimings timings);
+}
@@ -0,0 +1,106 @@
+package com.gocardless.http;
+
+/**
+ * A breakdown of where the time went while executing a request.
+ *
+ * The phases are, in order:
+ *
+ * - queueing, waiting for permits from the client's bulkheads and concurrency limiter;
+ * - connecting, from handing the request to OkHttp until it has a connection, which includes
+ *   any DNS lookup and TCP and TLS handshakes, and is close to zero if a pooled connection
+ *   was reused;
+ * - waiting for the first byte, from having a connection until the response headers arrive,
+ *   which is mostly time spent by the API;
+ * - downloading the response body;
+ * - parsing the response body into resources.
+ *
+ * Serialising the request body is timed separately, as it is streamed to the connection
+ * while the request is being sent. All times are in nanoseconds, and phases which a request
+ * never reached take zero.
+ */
+public final class RequestTimings {
+    private final String method;
+    private final String pathTemplate;
+    private final int statusCode;
+    private final long serializeNanos;
+    private final long queueNanos;
+    private final long connectNanos;
+    private final long timeToFirstByteNanos;
+    private final long downloadNanos;
+    private final long parseNanos;
+    private final long totalNanos;
+
+    RequestTimings(String method, String pathTemplate, int statusCode, long serializeNanos,
+            long queueNanos, long connectNanos, long timeToFirstByteNanos, long downloadNanos,
+            long parseNanos, long totalNanos) {
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+        this.statusCode = statusCode;
+        this.serializeNanos = serializeNanos;
+        this.queueNanos = queueNanos;
+        this.connectNanos = connectNanos;
+        this.timeToFirstByteNanos = timeToFirstByteNanos;
+        this.downloadNanos = downloadNanos;
+        this.parseNanos = parseNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the path template of the endpoint, such as `payments/:identity`.
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Returns the response's status code, or -1 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getSerializeNanos() {
+        return serializeNanos;
+    }
+
+    public long getQueueNanos() {
+        return queueNanos;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    public long getDownloadNanos() {
+        return downloadNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Returns the time from starting to execute the request until it finished.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s %s [%d]: serialize=%dus queue=%dus connect=%dus ttfb=%dus download=%dus "
+                        + "parse=%dus total=%dus",
+                method, pathTemplate, statusCode, serializeNanos / 1000, queueNanos / 1000,
+                connectNanos / 1000, timeToFirstByteNanos / 1000, downloadNanos / 1000,
+                parseNanos / 1000, totalNanos / 1000);
+    }
+}
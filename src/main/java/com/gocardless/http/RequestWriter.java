@@ -1,7 +1,14 @@
 package com.gocardless.http;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import com.squareup.okhttp.RequestBody;
 
 final class RequestWriter {
     private final Gson gson;
@@ -11,8 +18,35 @@ final class RequestWriter {
     }
 
     public <T> String write(T object, String envelope) {
-        JsonObject result = new JsonObject();
-        result.add(envelope, gson.toJsonTree(object));
-        return gson.toJson(result);
+        StringWriter writer = new StringWriter();
+        try {
+            write(object, envelope, writer);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Returns a request body which serializes the given object, wrapped in the given
+     * envelope, directly to the connection when the request is sent.
+     */
+    public <T> RequestBody writeBody(T object, String envelope) {
+        return new JsonRequestBody(this, object, envelope);
+    }
+
+    void write(Object object, String envelope, Writer out) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(out);
+        writer.setHtmlSafe(gson.htmlSafe());
+        writer.beginObject();
+        writer.name(envelope);
+        // Gson.toJson would wrap any failure to write to the connection in a
+        // JsonIOException, hiding it from the client's handling of network failures.
+        @SuppressWarnings("unchecked")
+        TypeAdapter<Object> adapter = (TypeAdapter<Object>) gson.getAdapter(object.getClass());
+        adapter.write(writer, object);
+        writer.endObject();
+        writer.flush();
     }
 }
@@ -0,0 +1,119 @@
+package com.gocardless.http;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+
+import com.squareup.okhttp.Headers;
+
+/**
+ * Helpers for reading response headers.
+ *
+ * The typed parsers work directly on the header's characters, so reading a header like
+ * `RateLimit-Remaining` from a response allocates nothing.
+ */
+final class ResponseHeaders {
+    static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+    static final String REQUEST_ID = "Request-Id";
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    // "Sun, 06 Nov 1994 08:49:37 GMT", as described in RFC 7231, section 7.1.1.1.
+    private static final int HTTP_DATE_LENGTH = 29;
+
+    private ResponseHeaders() {
+        // blank to prevent instantiation
+    }
+
+    static Multimap<String, String> toMultimap(Headers headers) {
+        ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
+        for (Map.Entry<String, List<String>> entry : headers.toMultimap().entrySet()) {
+            builder.putAll(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    static Headers fromMap(Map<String, List<String>> headers) {
+        Headers.Builder builder = new Headers.Builder();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            // HttpURLConnection reports the status line as a header with a null name.
+            if (entry.getKey() == null) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                builder.add(entry.getKey(), value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses a header holding a non-negative integer, returning -1 if it is missing or
+     * malformed.
+     */
+    static int parseInt(String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        return digits(value, 0, value.length());
+    }
+
+    /**
+     * Parses a header holding an HTTP date, returning the time in milliseconds since the
+     * epoch, or -1 if it is missing or malformed.
+     */
+    static long parseHttpDate(String value) {
+        if (value == null || value.length() != HTTP_DATE_LENGTH || !value.endsWith(" GMT")) {
+            return -1;
+        }
+        int day = digits(value, 5, 2);
+        int month = -1;
+        for (int i = 0; i < 12; i++) {
+            if (value.regionMatches(8, MONTHS, i * 3, 3)) {
+                month = i + 1;
+                break;
+            }
+        }
+        int year = digits(value, 12, 4);
+        int hour = digits(value, 17, 2);
+        int minute = digits(value, 20, 2);
+        int second = digits(value, 23, 2);
+        if (day < 1 || day > 31 || month < 0 || year < 0 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return -1;
+        }
+        long days = epochDay(year, month, day);
+        return ((days * 24 + hour) * 60 + minute) * 60000L + second * 1000L;
+    }
+
+    /**
+     * Returns the number of days between 1970-01-01 and the given date in the proleptic
+     * Gregorian calendar.
+     */
+    static long epochDay(int year, int month, int day) {
+        // Count years from March, so that the leap day falls at the end of the year.
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(String value, int start, int length) {
+        if (length > 9) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
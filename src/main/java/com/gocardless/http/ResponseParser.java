@@ -1,15 +1,21 @@
 package com.gocardless.http;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.List;
 
 import com.gocardless.errors.ApiErrorResponse;
-import com.gocardless.errors.GoCardlessApiException;
-import com.gocardless.errors.GoCardlessErrorMapper;
 import com.gocardless.errors.MalformedResponseException;
 
 import com.google.common.collect.ImmutableList;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import okio.Buffer;
+import okio.ByteString;
+
+import static com.google.common.base.Charsets.UTF_8;
 
 final class ResponseParser {
     private final Gson gson;
@@ -48,11 +54,31 @@ final class ResponseParser {
         List<T> items = parseMultiple(json, envelope, clazz);
         JsonObject metaJson = json.getAsJsonObject("meta");
         ListResponse.Meta meta = gson.fromJson(metaJson, ListResponse.Meta.class);
-        return new ListResponse<>(ImmutableList.copyOf(items), meta);
+        return new ListResponse<>(ImmutableList.copyOf(items), meta, responseBody.length());
+    }
+
+    /**
+     * Reads just the `meta` object from a page of a list, skipping over the items without
+     * binding them.
+     */
+    ListResponse.Meta parsePageMeta(ByteString responseBody) {
+        JsonReader reader = new JsonReader(
+                new InputStreamReader(new Buffer().write(responseBody).inputStream(), UTF_8));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("meta")) {
+                    return gson.fromJson(reader, ListResponse.Meta.class);
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            throw new MalformedResponseException(responseBody.utf8());
+        }
+        throw new MalformedResponseException(responseBody.utf8());
     }
 
-    GoCardlessApiException parseError(String responseBody) {
-        ApiErrorResponse error = parseSingle(responseBody, "error", ApiErrorResponse.class);
-        return GoCardlessErrorMapper.toException(error);
+    ApiErrorResponse parseErrorResponse(String responseBody) {
+        return parseSingle(responseBody, "error", ApiErrorResponse.class);
     }
 }
@@ -0,0 +1,158 @@
+package com.gocardless.http;
+
+import java.util.List;
+
+import com.gocardless.errors.ApiError;
+import com.gocardless.errors.ApiErrorResponse;
+import com.gocardless.errors.ErrorReason;
+import com.gocardless.errors.ErrorType;
+import com.gocardless.errors.GoCardlessErrorMapper;
+
+import com.squareup.okhttp.Headers;
+
+/**
+ * The outcome of a request which was handled by the API: either the resource it returned, or
+ * the error response describing why it failed.
+ *
+ * Results are returned instead of throwing exceptions for API errors, which makes them
+ * cheaper for callers which expect some of their requests to fail, such as bulk jobs. Network
+ * failures, timeouts and cancellations are still thrown. Either way, the result carries the
+ * response's status code and rate limit headers, so that callers can pace themselves.
+ *
+ * @param <T> the type of the resource.
+ */
+public final class Result<T> {
+    private final T resource;
+    private final ApiErrorResponse error;
+    private final int statusCode;
+    private final Headers headers;
+
+    private Result(T resource, ApiErrorResponse error, int statusCode, Headers headers) {
+        this.resource = resource;
+        this.error = error;
+        this.statusCode = statusCode;
+        this.headers = headers;
+    }
+
+    static <T> Result<T> success(T resource, int statusCode, Headers headers) {
+        return new Result<>(resource, null, statusCode, headers);
+    }
+
+    static <T> Result<T> failure(ApiErrorResponse error, int statusCode, Headers headers) {
+        return new Result<>(null, error, statusCode, headers);
+    }
+
+    /**
+     * Returns true if the request succeeded.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the resource, or null if the request failed.
+     */
+    public T getResource() {
+        return resource;
+    }
+
+    /**
+     * Returns the error response, or null if the request succeeded.
+     */
+    public ApiErrorResponse getError() {
+        return error;
+    }
+
+    /**
+     * Returns the type of the error, or null if the request succeeded.
+     */
+    public ErrorType getErrorType() {
+        return error == null ? null : error.getType();
+    }
+
+    /**
+     * Returns the reason for the first of the errors, or null if the request succeeded or
+     * the error response didn't include any.
+     */
+    public ErrorReason getErrorReason() {
+        if (error == null) {
+            return null;
+        }
+        List<ApiError> errors = error.getErrors();
+        return errors.isEmpty() ? null : errors.get(0).getErrorReason();
+    }
+
+    /**
+     * Returns true if the request failed with an error with the given reason.
+     */
+    public boolean hasErrorReason(ErrorReason reason) {
+        return error != null && error.findError(reason) != null;
+    }
+
+    /**
+     * Returns the HTTP status code of the response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the last value of the given response header, or null if it wasn't sent.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns the number of requests allowed in the current rate limit window, from the
+     * `RateLimit-Limit` header, or -1 if it wasn't sent.
+     */
+    public int getRateLimitLimit() {
+        return ResponseHeaders.parseInt(headers.get(ResponseHeaders.RATE_LIMIT_LIMIT));
+    }
+
+    /**
+     * Returns the number of requests left in the current rate limit window, from the
+     * `RateLimit-Remaining` header, or -1 if it wasn't sent.
+     */
+    public int getRateLimitRemaining() {
+        return ResponseHeaders.parseInt(headers.get(ResponseHeaders.RATE_LIMIT_REMAINING));
+    }
+
+    /**
+     * Returns the time the current rate limit window ends, in milliseconds since the epoch,
+     * from the `RateLimit-Reset` header, or -1 if it wasn't sent.
+     */
+    public long getRateLimitReset() {
+        return ResponseHeaders.parseHttpDate(headers.get(ResponseHeaders.RATE_LIMIT_RESET));
+    }
+
+    /**
+     * Returns the ID the API assigned to this request, from the `Request-Id` header, or null
+     * if it wasn't sent.
+     */
+    public String getRequestId() {
+        return headers.get(ResponseHeaders.REQUEST_ID);
+    }
+
+    /**
+     * Returns the resource if the request succeeded, and otherwise throws the exception
+     * {@code execute()} would have thrown.
+     *
+     * @throws com.gocardless.errors.GoCardlessApiException
+     */
+    public T getOrThrow() {
+        if (error != null) {
+            throw GoCardlessErrorMapper.toException(error);
+        }
+        return resource;
+    }
+
+    @Override
+    public String toString() {
+        if (error == null) {
+            return "Result{" + statusCode + ", " + resource + "}";
+        }
+        return "Result{" + statusCode + ", " + error + "}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Response;
+
+/**
+ * A network interceptor which marks when a request gets a connection and when its response
+ * headers arrive, for requests tagged with a {@link TimingRecorder}.
+ *
+ * OkHttp 2 has no event listener, so network interceptors, which run once a connection has
+ * been established, are the closest we can get to timing the connection itself.
+ */
+final class TimingInterceptor implements Interceptor {
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Object tag = chain.request().tag();
+        if (!(tag instanceof TimingRecorder)) {
+            return chain.proceed(chain.request());
+        }
+        TimingRecorder recorder = (TimingRecorder) tag;
+        recorder.connected();
+        Response response = chain.proceed(chain.request());
+        recorder.headersReceived(response.code());
+        return response;
+    }
+}
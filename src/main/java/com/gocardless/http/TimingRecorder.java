@@ -0,0 +1,128 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.RequestBody;
+
+import okio.BufferedSink;
+
+/**
+ * Records when each phase of a single attempt at a request starts and ends.
+ *
+ * A recorder is attached to the OkHttp request as its tag, so that
+ * {@link TimingInterceptor} can mark when the request gets a connection and when its response
+ * headers arrive. A hedged request's calls share a recorder, and the first to reach each
+ * point is the one recorded.
+ */
+final class TimingRecorder {
+    private final String method;
+    private final String pathTemplate;
+    private final long startNanos;
+    private long queueNanos;
+    private long serializeNanos;
+    private long serializeWhileConnectedNanos;
+    private long parseNanos;
+    private long downloadNanos;
+    private volatile long callStartedAt;
+    private volatile long connectedAt;
+    private volatile long headersAt;
+    private volatile int statusCode = -1;
+
+    TimingRecorder(String method, String pathTemplate) {
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+        this.startNanos = System.nanoTime();
+    }
+
+    String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    void queued(long nanos) {
+        queueNanos += nanos;
+    }
+
+    void callStarted() {
+        callStartedAt = System.nanoTime();
+    }
+
+    synchronized void serialized(long startedAt, long nanos) {
+        serializeNanos += nanos;
+        long connected = connectedAt;
+        if (connected != 0 && startedAt - connected >= 0) {
+            serializeWhileConnectedNanos += nanos;
+        }
+    }
+
+    synchronized void connected() {
+        if (connectedAt == 0) {
+            connectedAt = System.nanoTime();
+        }
+    }
+
+    synchronized void headersReceived(int code) {
+        if (headersAt == 0) {
+            headersAt = System.nanoTime();
+            statusCode = code;
+        }
+    }
+
+    void downloaded(long nanos) {
+        downloadNanos += nanos;
+    }
+
+    void parsed(long nanos) {
+        parseNanos += nanos;
+    }
+
+    /**
+     * Wraps a request body so that the time spent writing it is recorded as serialisation.
+     */
+    RequestBody timeBody(final RequestBody body) {
+        if (body == null) {
+            return null;
+        }
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() throws IOException {
+                return body.contentLength();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                long startedAt = System.nanoTime();
+                try {
+                    body.writeTo(sink);
+                } finally {
+                    serialized(startedAt, System.nanoTime() - startedAt);
+                }
+            }
+        };
+    }
+
+    synchronized RequestTimings snapshot() {
+        long now = System.nanoTime();
+        long connectNanos = 0;
+        long timeToFirstByteNanos = 0;
+        if (callStartedAt != 0) {
+            long connectEnd = connectedAt != 0 ? connectedAt : (headersAt != 0 ? headersAt : now);
+            connectNanos = connectEnd - callStartedAt;
+            if (connectedAt != 0 && headersAt != 0) {
+                timeToFirstByteNanos = Math.max(0,
+                        headersAt - connectedAt - serializeWhileConnectedNanos);
+            }
+        }
+        return new RequestTimings(method, pathTemplate, statusCode, serializeNanos, queueNanos,
+                connectNanos, timeToFirstByteNanos, downloadNanos, parseNanos, now - startNanos);
+    }
+}
@@ -1,26 +1,114 @@
 package com.gocardless.http;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 
 import com.squareup.okhttp.HttpUrl;
 
 final class UrlFormatter {
-    private final HttpUrl baseUrl;
+    private static final Splitter PATH_SPLITTER = Splitter.on('/');
+    private final HttpUrl rootUrl;
+    private final HttpUrl directoryUrl;
+    private final ConcurrentMap<String, PathTemplate> templates;
 
     UrlFormatter(String baseUrl) {
-        this.baseUrl = HttpUrl.parse(baseUrl);
+        HttpUrl url = HttpUrl.parse(baseUrl);
+        // Templates starting with a slash are resolved against the root of the base URL, and
+        // all others against its "directory", in the same way as `HttpUrl#resolve`.
+        this.rootUrl = url.resolve("/");
+        this.directoryUrl = url.resolve(".");
+        this.templates = new ConcurrentHashMap<>();
     }
 
     HttpUrl formatUrl(String template, Map<String, String> pathParams,
             Map<String, Object> queryParams) {
-        String path = template;
-        for (Map.Entry<String, String> entry : pathParams.entrySet()) {
-            path = path.replace(":" + entry.getKey(), entry.getValue());
+        PathTemplate pathTemplate = compile(template);
+        HttpUrl.Builder builder =
+                pathTemplate.isAbsolute() ? rootUrl.newBuilder() : directoryUrl.newBuilder();
+        for (Segment segment : pathTemplate.getSegments()) {
+            builder.addPathSegment(segment.format(pathParams));
         }
-        HttpUrl.Builder builder = baseUrl.resolve(path).newBuilder();
         for (Map.Entry<String, Object> param : queryParams.entrySet()) {
             builder.addQueryParameter(param.getKey(), param.getValue().toString());
         }
         return builder.build();
     }
+
+    private PathTemplate compile(String template) {
+        PathTemplate pathTemplate = templates.get(template);
+        if (pathTemplate == null) {
+            pathTemplate = PathTemplate.parse(template);
+            PathTemplate existing = templates.putIfAbsent(template, pathTemplate);
+            if (existing != null) {
+                pathTemplate = existing;
+            }
+        }
+        return pathTemplate;
+    }
+
+    /**
+     * A path template, such as `payments/:identity/actions/cancel`, split into its
+     * segments.
+     */
+    private static final class PathTemplate {
+        private final boolean absolute;
+        private final List<Segment> segments;
+
+        private PathTemplate(boolean absolute, List<Segment> segments) {
+            this.absolute = absolute;
+            this.segments = segments;
+        }
+
+        private static PathTemplate parse(String template) {
+            boolean absolute = template.startsWith("/");
+            String path = absolute ? template.substring(1) : template;
+            ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+            for (String segment : PATH_SPLITTER.split(path)) {
+                if (segment.startsWith(":")) {
+                    segments.add(new Segment(segment, segment.substring(1)));
+                } else {
+                    segments.add(new Segment(segment, null));
+                }
+            }
+            return new PathTemplate(absolute, segments.build());
+        }
+
+        private boolean isAbsolute() {
+            return absolute;
+        }
+
+        private List<Segment> getSegments() {
+            return segments;
+        }
+    }
+
+    /**
+     * A single segment of a path template, which is either literal text or a named
+     * parameter.
+     */
+    private static final class Segment {
+        private final String literal;
+        private final String paramName;
+
+        private Segment(String literal, String paramName) {
+            this.literal = literal;
+            this.paramName = paramName;
+        }
+
+        private String format(Map<String, String> pathParams) {
+            if (paramName == null) {
+                return literal;
+            }
+            String value = pathParams.get(paramName);
+            if (value == null) {
+                return literal;
+            }
+            return value;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.gocardless.http;
 
+import java.security.MessageDigest;
 import java.util.List;
 
 import com.gocardless.resources.Event;
@@ -8,13 +9,28 @@ import com.google.common.collect.ImmutableList;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
 
+import org.apache.commons.codec.digest.HmacUtils;
+
 public final class WebhookParser {
     private WebhookParser() {}
 
     public static ImmutableList<Event> parse(String responseBody) {
+        Object event = JfrEvents.beginWebhookParse();
         Gson gson = GsonFactory.build();
         ResponseParser responseParser = new ResponseParser(gson);
-        return responseParser
+        ImmutableList<Event> events = responseParser
                 .parseMultiple(responseBody, "events", new TypeToken<List<Event>>() {});
+        JfrEvents.commitWebhookParse(event, events.size());
+        return events;
+    }
+
+    public static boolean isValidSignature(String requestBody, String signatureHeader,
+            String webhookEndpointSecret) {
+        Object event = JfrEvents.beginWebhookVerify();
+        String computedSignature = HmacUtils.hmacSha256Hex(webhookEndpointSecret, requestBody);
+        boolean valid =
+                MessageDigest.isEqual(signatureHeader.getBytes(), computedSignature.getBytes());
+        JfrEvents.commitWebhookVerify(event, valid);
+        return valid;
     }
 }
@@ -0,0 +1,102 @@
+package com.gocardless.mirror;
+
+import java.util.Set;
+
+import com.gocardless.resources.Mandate;
+import com.gocardless.resources.Payment;
+import com.gocardless.resources.Subscription;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A consistent copy of a {@link LocalMirror}'s state: every resource it held, the IDs of
+ * those it knew to be out of date, and how far through the event stream it had got.
+ *
+ * A mirror can be restored from a checkpoint with `LocalMirror.Builder#withCheckpoint`, and
+ * then carries on polling for events from where the checkpoint left off, without needing to
+ * backfill again.
+ */
+public final class Checkpoint {
+    private final ImmutableMap<String, Payment> payments;
+    private final ImmutableMap<String, Mandate> mandates;
+    private final ImmutableMap<String, Subscription> subscriptions;
+    private final ImmutableSet<String> dirtyPayments;
+    private final ImmutableSet<String> dirtyMandates;
+    private final ImmutableSet<String> dirtySubscriptions;
+    private final String eventsCreatedAt;
+    private final ImmutableSet<String> eventsSeenAtCreatedAt;
+    private final long syncedAtMillis;
+
+    Checkpoint(ImmutableMap<String, Payment> payments, ImmutableMap<String, Mandate> mandates,
+            ImmutableMap<String, Subscription> subscriptions, ImmutableSet<String> dirtyPayments,
+            ImmutableSet<String> dirtyMandates, ImmutableSet<String> dirtySubscriptions,
+            String eventsCreatedAt, Set<String> eventsSeenAtCreatedAt, long syncedAtMillis) {
+        this.payments = payments;
+        this.mandates = mandates;
+        this.subscriptions = subscriptions;
+        this.dirtyPayments = dirtyPayments;
+        this.dirtyMandates = dirtyMandates;
+        this.dirtySubscriptions = dirtySubscriptions;
+        this.eventsCreatedAt = eventsCreatedAt;
+        this.eventsSeenAtCreatedAt = ImmutableSet.copyOf(eventsSeenAtCreatedAt);
+        this.syncedAtMillis = syncedAtMillis;
+    }
+
+    public ImmutableMap<String, Payment> getPayments() {
+        return payments;
+    }
+
+    public ImmutableMap<String, Mandate> getMandates() {
+        return mandates;
+    }
+
+    public ImmutableMap<String, Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * Returns the IDs of payments which had changed since they were last fetched.
+     */
+    public ImmutableSet<String> getDirtyPayments() {
+        return dirtyPayments;
+    }
+
+    /**
+     * Returns the IDs of mandates which had changed since they were last fetched.
+     */
+    public ImmutableSet<String> getDirtyMandates() {
+        return dirtyMandates;
+    }
+
+    /**
+     * Returns the IDs of subscriptions which had changed since they were last fetched.
+     */
+    public ImmutableSet<String> getDirtySubscriptions() {
+        return dirtySubscriptions;
+    }
+
+    /**
+     * Returns the creation time of the newest event polled, or of the point polling starts
+     * from if none have been, in the API's timestamp format.
+     */
+    public String getEventsCreatedAt() {
+        return eventsCreatedAt;
+    }
+
+    /**
+     * Returns the IDs of the events already polled which were created at
+     * {@link #getEventsCreatedAt()}, so that they aren't applied twice.
+     */
+    public ImmutableSet<String> getEventsSeenAtCreatedAt() {
+        return eventsSeenAtCreatedAt;
+    }
+
+    /**
+     * Returns the time, in milliseconds since the epoch, up to which every change the mirror
+     * had been told about had been fetched, or 0 if it had never caught up.
+     */
+    public long getSyncedAtMillis() {
+        return syncedAtMillis;
+    }
+}
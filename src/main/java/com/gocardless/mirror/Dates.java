@@ -0,0 +1,142 @@
+package com.gocardless.mirror;
+
+/**
+ * Converts the API's dates (`2017-10-02`) and timestamps (`2017-09-26T12:45:21.778Z`) to and
+ * from days and milliseconds since the epoch, so that they can be stored in fixed-width
+ * columns and compared as numbers.
+ *
+ * These run once per row when snapshots are written and read, so they avoid the allocation
+ * and locking of `SimpleDateFormat`.
+ */
+final class Dates {
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private Dates() {}
+
+    /**
+     * Parses a date, returning {@link #NO_DATE} if it is null.
+     */
+    static int parseDate(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            throw new IllegalArgumentException("Malformed date: " + date);
+        }
+        return (int) epochDay(digits(date, 0, 4), digits(date, 5, 2), digits(date, 8, 2));
+    }
+
+    /**
+     * Parses a UTC timestamp, with or without milliseconds, returning {@link #NO_TIMESTAMP}
+     * if it is null.
+     */
+    static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        int length = timestamp.length();
+        if (length < 20 || timestamp.charAt(10) != 'T' || timestamp.charAt(length - 1) != 'Z') {
+            throw new IllegalArgumentException("Malformed timestamp: " + timestamp);
+        }
+        long millis = parseDate(timestamp.substring(0, 10)) * MILLIS_PER_DAY
+                + digits(timestamp, 11, 2) * 3600000L + digits(timestamp, 14, 2) * 60000L
+                + digits(timestamp, 17, 2) * 1000L;
+        if (length == 24 && timestamp.charAt(19) == '.') {
+            millis += digits(timestamp, 20, 3);
+        } else if (length != 20) {
+            throw new IllegalArgumentException("Malformed timestamp: " + timestamp);
+        }
+        return millis;
+    }
+
+    /**
+     * Formats a number of days since the epoch as a date, or returns null for
+     * {@link #NO_DATE}.
+     */
+    static String formatDate(int epochDay) {
+        if (epochDay == NO_DATE) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(10);
+        appendDate(builder, epochDay);
+        return builder.toString();
+    }
+
+    /**
+     * Formats a number of milliseconds since the epoch as a UTC timestamp with milliseconds,
+     * or returns null for {@link #NO_TIMESTAMP}.
+     */
+    static String formatTimestamp(long millis) {
+        if (millis == NO_TIMESTAMP) {
+            return null;
+        }
+        long epochDay = (millis >= 0 ? millis : millis - MILLIS_PER_DAY + 1) / MILLIS_PER_DAY;
+        int millisOfDay = (int) (millis - epochDay * MILLIS_PER_DAY);
+        StringBuilder builder = new StringBuilder(24);
+        appendDate(builder, epochDay);
+        builder.append('T');
+        pad(builder, millisOfDay / 3600000, 2);
+        builder.append(':');
+        pad(builder, millisOfDay / 60000 % 60, 2);
+        builder.append(':');
+        pad(builder, millisOfDay / 1000 % 60, 2);
+        builder.append('.');
+        pad(builder, millisOfDay % 1000, 3);
+        return builder.append('Z').toString();
+    }
+
+    /**
+     * Returns the number of days between 1970-01-01 and the given date in the proleptic
+     * Gregorian calendar.
+     */
+    static long epochDay(int year, int month, int day) {
+        // Count years from March, so that the leap day falls at the end of the year.
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static void appendDate(StringBuilder builder, long epochDay) {
+        // The inverse of epochDay, again counting years from March.
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra =
+                (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthFromMarch + 2) / 5 + 1);
+        int month = (int) (monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        pad(builder, year, 4);
+        builder.append('-');
+        pad(builder, month, 2);
+        builder.append('-');
+        pad(builder, day, 2);
+    }
+
+    private static void pad(StringBuilder builder, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            builder.append('0');
+        }
+        builder.append(digits);
+    }
+
+    private static int digits(String value, int start, int length) {
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Malformed date: " + value);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
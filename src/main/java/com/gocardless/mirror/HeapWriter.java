@@ -0,0 +1,99 @@
+package com.gocardless.mirror;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the variable-length values of a snapshot, such as references and metadata, to a
+ * temporary file, which is appended to the snapshot once every row has been written.
+ *
+ * Each value is written as its length followed by its bytes, and referred to from its row by
+ * its offset in the heap. Null values aren't written, and are referred to as {@link #NULL}.
+ */
+final class HeapWriter implements Closeable {
+    static final int NULL = -1;
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final File file;
+    private final DataOutputStream out;
+    private int length;
+
+    HeapWriter(File file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    int putString(String value) throws IOException {
+        if (value == null) {
+            return NULL;
+        }
+        int offset = length;
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        advance(4 + bytes.length);
+        return offset;
+    }
+
+    /**
+     * Writes a map of strings, such as metadata, as its size followed by its keys and values.
+     */
+    int putMap(Map<String, String> map) throws IOException {
+        if (map == null) {
+            return NULL;
+        }
+        int offset = length;
+        out.writeInt(map.size());
+        advance(4);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            putString(entry.getKey());
+            putString(entry.getValue() == null ? "" : entry.getValue());
+        }
+        return offset;
+    }
+
+    /**
+     * Writes the names of the constants of each of the given enums, in order, so that the
+     * ordinals stored in rows can be decoded even if constants are added to the enums later.
+     */
+    int putEnumTables(List<Class<? extends Enum<?>>> enumClasses) throws IOException {
+        int offset = length;
+        out.writeInt(enumClasses.size());
+        advance(4);
+        for (Class<? extends Enum<?>> enumClass : enumClasses) {
+            Enum<?>[] constants = enumClass.getEnumConstants();
+            out.writeInt(constants.length);
+            advance(4);
+            for (Enum<?> constant : constants) {
+                putString(constant.name());
+            }
+        }
+        return offset;
+    }
+
+    private void advance(int bytes) throws IOException {
+        if (length > Integer.MAX_VALUE - bytes) {
+            throw new IOException("Snapshot heap is larger than 2GB");
+        }
+        length += bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
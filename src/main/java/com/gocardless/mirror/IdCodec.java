@@ -0,0 +1,163 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes resource IDs as `long`s, so that caches and indexes of millions of resources can hold
+ * them without the overhead of a `String` each, and compare and hash them as numbers.
+ *
+ * IDs issued by GoCardless, such as `PM00008KWW97PE`, are a two-letter prefix for the type of
+ * resource followed by twelve characters from Crockford's base 32 alphabet. These are packed
+ * into a code without any lookup: the prefix takes the top four bits, and each character of the
+ * body takes five of the remaining sixty, so the code can be decoded by any instance.
+ *
+ * Any other ID is assigned the next number from a table held by this instance, which grows for
+ * the lifetime of the codec. These codes are only meaningful to the instance that assigned them,
+ * so shouldn't be persisted.
+ *
+ * No ID is ever encoded as {@link #NONE}. This class is thread-safe.
+ */
+public final class IdCodec {
+    /**
+     * A code which no ID is encoded as.
+     */
+    public static final long NONE = 0;
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int BODY_LENGTH = 12;
+    // The position of a prefix in this list is part of the encoding, so new prefixes must only
+    // ever be added to the end. Index 0 marks a code from the table of other IDs.
+    private static final String[] PREFIXES = {
+            null, "PM", "MD", "CU", "SB", "CR", "BA", "EV", "PO", "RF", "RE", "IM"};
+    private static final byte[] DIGITS = new byte[128];
+    private final ConcurrentHashMap<String, Long> otherCodes = new ConcurrentHashMap<>();
+    private String[] otherIds = new String[16];
+    private int otherCount;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            DIGITS[ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * Returns the code for an ID, assigning it one if it can't be packed and hasn't been seen
+     * before, or {@link #NONE} if the ID is null.
+     */
+    public long encode(String id) {
+        long code = pack(id);
+        if (code != NONE || id == null) {
+            return code;
+        }
+        Long other = otherCodes.get(id);
+        return other != null ? other : assign(id);
+    }
+
+    /**
+     * Returns the code for an ID without assigning one, or {@link #NONE} if it can't be packed
+     * and hasn't been encoded by this instance. Use this when looking IDs up, so that queries for
+     * unknown IDs don't grow the table.
+     */
+    public long lookup(String id) {
+        long code = pack(id);
+        if (code != NONE || id == null) {
+            return code;
+        }
+        Long other = otherCodes.get(id);
+        return other != null ? other : NONE;
+    }
+
+    /**
+     * Returns the ID for a code returned by this instance.
+     *
+     * @throws IllegalArgumentException if the code wasn't returned by this instance
+     */
+    public String decode(long code) {
+        if (isPacked(code)) {
+            return unpack(code);
+        }
+        synchronized (this) {
+            if (code < 1 || code > otherCount) {
+                throw new IllegalArgumentException("Unknown ID code: " + code);
+            }
+            return otherIds[(int) code - 1];
+        }
+    }
+
+    /**
+     * Packs an ID issued by GoCardless into a code, returning {@link #NONE} if it doesn't have a
+     * known prefix and a twelve-character body.
+     */
+    public static long pack(String id) {
+        if (id == null || id.length() != 2 + BODY_LENGTH) {
+            return NONE;
+        }
+        long prefix = prefixIndex(id);
+        if (prefix == 0) {
+            return NONE;
+        }
+        long code = prefix;
+        for (int i = 2; i < id.length(); i++) {
+            char c = id.charAt(i);
+            int digit = c < DIGITS.length ? DIGITS[c] : -1;
+            if (digit < 0) {
+                return NONE;
+            }
+            code = code << 5 | digit;
+        }
+        return code;
+    }
+
+    /**
+     * Returns whether a code was packed from an ID, rather than assigned from a table, in which
+     * case it can be decoded by {@link #unpack(long)}.
+     */
+    public static boolean isPacked(long code) {
+        int prefix = (int) (code >>> 60);
+        return prefix > 0 && prefix < PREFIXES.length;
+    }
+
+    /**
+     * Unpacks a code returned by {@link #pack(String)}.
+     *
+     * @throws IllegalArgumentException if the code wasn't packed from an ID
+     */
+    public static String unpack(long code) {
+        if (!isPacked(code)) {
+            throw new IllegalArgumentException("Not a packed ID code: " + code);
+        }
+        char[] chars = new char[2 + BODY_LENGTH];
+        String prefix = PREFIXES[(int) (code >>> 60)];
+        chars[0] = prefix.charAt(0);
+        chars[1] = prefix.charAt(1);
+        for (int i = chars.length - 1; i >= 2; i--) {
+            chars[i] = ALPHABET.charAt((int) (code & 31));
+            code >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int prefixIndex(String id) {
+        for (int i = 1; i < PREFIXES.length; i++) {
+            if (id.startsWith(PREFIXES[i])) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private synchronized long assign(String id) {
+        Long existing = otherCodes.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        if (otherCount == otherIds.length) {
+            otherIds = Arrays.copyOf(otherIds, otherIds.length * 2);
+        }
+        otherIds[otherCount++] = id;
+        long code = otherCount;
+        otherCodes.put(id, code);
+        return code;
+    }
+}
@@ -0,0 +1,581 @@
+package com.gocardless.mirror;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.gocardless.GoCardlessClient;
+import com.gocardless.http.Result;
+import com.gocardless.resources.Event;
+import com.gocardless.resources.Mandate;
+import com.gocardless.resources.Payment;
+import com.gocardless.resources.Subscription;
+
+/**
+ * An in-memory copy of an account's payments, mandates and subscriptions, kept up to date by
+ * applying events, so that their statuses can be read without calling the API.
+ *
+ * A mirror is filled in two phases:
+ *
+ * 1. {@link #backfill()} lists every resource through the `all()` iterators.
+ * 2. Events, either received through webhooks and passed to {@link #apply(Iterable)}, or
+ *    fetched by {@link #poll()}, mark the resources they link to as dirty. {@link #refresh()}
+ *    then fetches the dirty resources again in batches. {@link #sync()} does both.
+ *
+ * Payments, mandates and subscriptions can also be queried by the fields the API's list
+ * endpoints filter on, such as {@link #getPaymentsForMandate(String, Payment.Status)}. These
+ * queries are answered from secondary indexes, which are updated along with the resources.
+ *
+ * Reads never block, other than queries waiting for an index update to finish, and return
+ * whatever copy the mirror holds. How out of date that copy can be is reported by
+ * {@link #getStalenessMillis()} and {@link #isFresh()}: callers which need a bound on
+ * staleness should fall back to the API when the mirror isn't fresh, or when
+ * {@link #isPaymentDirty} and the like show that a resource is known to have changed.
+ *
+ * Writes are serialised by a lock which readers never take, so that {@link #checkpoint()}
+ * can take a consistent copy of everything, from which a mirror can be restored later.
+ */
+public final class LocalMirror {
+    // Events created while we were backfilling must be polled, even if our clock is ahead.
+    private static final long CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private final GoCardlessClient client;
+    private final int batchSize;
+    private final long maxStalenessMillis;
+    private final MirrorTable<Payment> payments;
+    private final MirrorTable<Mandate> mandates;
+    private final MirrorTable<Subscription> subscriptions;
+    private final SecondaryIndexes.Index<Payment> paymentsByMandate;
+    private final SecondaryIndexes.Index<Payment> paymentsBySubscription;
+    private final SecondaryIndexes.Index<Payment> paymentsByStatus;
+    private final SecondaryIndexes.Index<Mandate> mandatesByCustomer;
+    private final SecondaryIndexes.Index<Subscription> subscriptionsByStatus;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private String eventsCreatedAt;
+    private Set<String> eventsSeenAtCreatedAt = new HashSet<>();
+    private volatile long syncedAtMillis;
+
+    private LocalMirror(Builder builder) {
+        this.client = builder.client;
+        this.batchSize = builder.batchSize;
+        this.maxStalenessMillis = builder.maxStalenessMillis;
+        IdCodec codec = new IdCodec();
+        this.payments = new MirrorTable<>(new PaymentSource(client), codec);
+        this.mandates = new MirrorTable<>(new MandateSource(client), codec);
+        this.subscriptions = new MirrorTable<>(new SubscriptionSource(client), codec);
+        this.paymentsByMandate = payments.addIndex(new SecondaryIndexes.Field<Payment>() {
+            @Override
+            Object valueOf(Payment payment) {
+                return payment.getLinks() == null ? null : payment.getLinks().getMandate();
+            }
+        });
+        this.paymentsBySubscription = payments.addIndex(new SecondaryIndexes.Field<Payment>() {
+            @Override
+            Object valueOf(Payment payment) {
+                return payment.getLinks() == null ? null : payment.getLinks().getSubscription();
+            }
+        });
+        this.paymentsByStatus = payments.addIndex(new SecondaryIndexes.Field<Payment>() {
+            @Override
+            Object valueOf(Payment payment) {
+                return payment.getStatus();
+            }
+        });
+        this.mandatesByCustomer = mandates.addIndex(new SecondaryIndexes.Field<Mandate>() {
+            @Override
+            Object valueOf(Mandate mandate) {
+                return mandate.getLinks() == null ? null : mandate.getLinks().getCustomer();
+            }
+        });
+        this.subscriptionsByStatus =
+                subscriptions.addIndex(new SecondaryIndexes.Field<Subscription>() {
+                    @Override
+                    Object valueOf(Subscription subscription) {
+                        return subscription.getStatus();
+                    }
+                });
+        if (builder.checkpoint != null) {
+            restore(builder.checkpoint);
+        }
+    }
+
+    /**
+     * Returns a builder for a mirror of the account the given client accesses.
+     */
+    public static Builder newBuilder(GoCardlessClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Returns the mirrored copy of the given payment, or null if the mirror doesn't have it.
+     */
+    public Payment getPayment(String id) {
+        return payments.get(id);
+    }
+
+    /**
+     * Returns the mirrored copy of the given mandate, or null if the mirror doesn't have it.
+     */
+    public Mandate getMandate(String id) {
+        return mandates.get(id);
+    }
+
+    /**
+     * Returns the mirrored copy of the given subscription, or null if the mirror doesn't have
+     * it.
+     */
+    public Subscription getSubscription(String id) {
+        return subscriptions.get(id);
+    }
+
+    /**
+     * Returns the mirrored payments taken against the given mandate.
+     */
+    public List<Payment> getPaymentsForMandate(String mandateId) {
+        return payments.find(paymentsByMandate, mandateId);
+    }
+
+    /**
+     * Returns the mirrored payments taken against the given mandate which have the given
+     * status.
+     */
+    public List<Payment> getPaymentsForMandate(String mandateId, Payment.Status status) {
+        return payments.find(paymentsByMandate, mandateId, paymentsByStatus, status);
+    }
+
+    /**
+     * Returns the mirrored payments created by the given subscription.
+     */
+    public List<Payment> getPaymentsForSubscription(String subscriptionId) {
+        return payments.find(paymentsBySubscription, subscriptionId);
+    }
+
+    /**
+     * Returns the mirrored payments which have the given status.
+     */
+    public List<Payment> getPaymentsWithStatus(Payment.Status status) {
+        return payments.find(paymentsByStatus, status);
+    }
+
+    /**
+     * Returns the mirrored mandates of the given customer.
+     */
+    public List<Mandate> getMandatesForCustomer(String customerId) {
+        return mandates.find(mandatesByCustomer, customerId);
+    }
+
+    /**
+     * Returns the mirrored subscriptions which have the given status.
+     */
+    public List<Subscription> getSubscriptionsWithStatus(Subscription.Status status) {
+        return subscriptions.find(subscriptionsByStatus, status);
+    }
+
+    /**
+     * Returns true if the given payment has changed since the mirror last fetched it.
+     */
+    public boolean isPaymentDirty(String id) {
+        return payments.isDirty(id);
+    }
+
+    /**
+     * Returns true if the given mandate has changed since the mirror last fetched it.
+     */
+    public boolean isMandateDirty(String id) {
+        return mandates.isDirty(id);
+    }
+
+    /**
+     * Returns true if the given subscription has changed since the mirror last fetched it.
+     */
+    public boolean isSubscriptionDirty(String id) {
+        return subscriptions.isDirty(id);
+    }
+
+    /**
+     * Returns the number of payments, mandates and subscriptions waiting to be fetched again.
+     */
+    public int getDirtyCount() {
+        return payments.dirtyCount() + mandates.dirtyCount() + subscriptions.dirtyCount();
+    }
+
+    /**
+     * Returns how long it has been since the mirror had fetched every change it had been told
+     * about, or `Long.MAX_VALUE` if it never has.
+     */
+    public long getStalenessMillis() {
+        long synced = syncedAtMillis;
+        return synced == 0 ? Long.MAX_VALUE : System.currentTimeMillis() - synced;
+    }
+
+    /**
+     * Returns true if the mirror's staleness is within the configured maximum.
+     */
+    public boolean isFresh() {
+        return getStalenessMillis() <= maxStalenessMillis;
+    }
+
+    /**
+     * Lists every payment, mandate and subscription, replacing any copies the mirror already
+     * holds, and starts polling for events from the time the backfill began. Changes made
+     * during the backfill are picked up by the next {@link #sync()}.
+     *
+     * @throws com.gocardless.GoCardlessException
+     */
+    public void backfill() {
+        long startedAt = System.currentTimeMillis();
+        String pollFrom = Dates.formatTimestamp(startedAt - CLOCK_SKEW_MILLIS);
+        backfill(payments);
+        backfill(mandates);
+        backfill(subscriptions);
+        writeLock.lock();
+        try {
+            if (eventsCreatedAt == null || pollFrom.compareTo(eventsCreatedAt) > 0) {
+                eventsCreatedAt = pollFrom;
+                eventsSeenAtCreatedAt = new HashSet<>();
+            }
+            markSyncedIfClean(startedAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the resources the given event links to as dirty, to be fetched by the next
+     * {@link #refresh()}.
+     */
+    public void apply(Event event) {
+        writeLock.lock();
+        try {
+            markDirty(event);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the resources the given events link to as dirty, to be fetched by the next
+     * {@link #refresh()}. Pass this the events from each webhook received.
+     */
+    public void apply(Iterable<Event> events) {
+        writeLock.lock();
+        try {
+            for (Event event : events) {
+                markDirty(event);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Fetches the events created since the last poll, or since the backfill began, and marks
+     * the resources they link to as dirty. Returns the number of new events.
+     *
+     * @throws IllegalStateException if the mirror has neither been backfilled nor restored
+     * @throws com.gocardless.GoCardlessException
+     */
+    public int poll() {
+        String from;
+        Set<String> seen;
+        writeLock.lock();
+        try {
+            from = eventsCreatedAt;
+            seen = eventsSeenAtCreatedAt;
+        } finally {
+            writeLock.unlock();
+        }
+        if (from == null) {
+            throw new IllegalStateException("Mirror must be backfilled before polling");
+        }
+        String newest = from;
+        Set<String> seenAtNewest = new HashSet<>(seen);
+        int applied = 0;
+        for (Event event : client.events().all().withCreatedAtGte(from).execute()) {
+            String createdAt = event.getCreatedAt();
+            if (createdAt.equals(from) && seen.contains(event.getId())) {
+                continue;
+            }
+            apply(event);
+            applied++;
+            int order = createdAt.compareTo(newest);
+            if (order > 0) {
+                newest = createdAt;
+                seenAtNewest = new HashSet<>();
+            }
+            if (order >= 0) {
+                seenAtNewest.add(event.getId());
+            }
+        }
+        writeLock.lock();
+        try {
+            eventsCreatedAt = newest;
+            eventsSeenAtCreatedAt = seenAtNewest;
+        } finally {
+            writeLock.unlock();
+        }
+        return applied;
+    }
+
+    /**
+     * Fetches every dirty resource again, in batches. If a fetch fails, that resource stays
+     * dirty and the rest of its type are left for next time. Returns the number of resources
+     * fetched.
+     *
+     * @throws com.gocardless.GoCardlessException if a request could not be completed
+     */
+    public int refresh() {
+        long startedAt = System.currentTimeMillis();
+        int fetched = refresh(payments) + refresh(mandates) + refresh(subscriptions);
+        writeLock.lock();
+        try {
+            markSyncedIfClean(startedAt);
+        } finally {
+            writeLock.unlock();
+        }
+        return fetched;
+    }
+
+    /**
+     * Polls for new events and then refreshes the resources they changed. Call this
+     * periodically to keep the mirror up to date without webhooks.
+     *
+     * @throws com.gocardless.GoCardlessException
+     */
+    public void sync() {
+        poll();
+        refresh();
+    }
+
+    /**
+     * Returns a consistent copy of the mirror's state.
+     */
+    public Checkpoint checkpoint() {
+        writeLock.lock();
+        try {
+            return new Checkpoint(payments.copyResources(), mandates.copyResources(),
+                    subscriptions.copyResources(), payments.copyDirty(), mandates.copyDirty(),
+                    subscriptions.copyDirty(), eventsCreatedAt, eventsSeenAtCreatedAt,
+                    syncedAtMillis);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void restore(Checkpoint checkpoint) {
+        writeLock.lock();
+        try {
+            payments.restore(checkpoint.getPayments(), checkpoint.getDirtyPayments());
+            mandates.restore(checkpoint.getMandates(), checkpoint.getDirtyMandates());
+            subscriptions.restore(checkpoint.getSubscriptions(),
+                    checkpoint.getDirtySubscriptions());
+            eventsCreatedAt = checkpoint.getEventsCreatedAt();
+            eventsSeenAtCreatedAt = new HashSet<>(checkpoint.getEventsSeenAtCreatedAt());
+            syncedAtMillis = checkpoint.getSyncedAtMillis();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <R> void backfill(MirrorTable<R> table) {
+        List<R> batch = new ArrayList<>(batchSize);
+        for (R resource : table.listAll()) {
+            batch.add(resource);
+            if (batch.size() == batchSize) {
+                putAll(table, batch);
+                batch.clear();
+            }
+        }
+        putAll(table, batch);
+    }
+
+    private <R> void putAll(MirrorTable<R> table, List<R> batch) {
+        writeLock.lock();
+        try {
+            for (R resource : batch) {
+                table.put(resource);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <R> int refresh(MirrorTable<R> table) {
+        int fetched = 0;
+        while (true) {
+            List<String> ids;
+            writeLock.lock();
+            try {
+                ids = table.takeDirty(batchSize);
+            } finally {
+                writeLock.unlock();
+            }
+            if (ids.isEmpty()) {
+                return fetched;
+            }
+            List<Result<R>> results = new ArrayList<>(ids.size());
+            boolean failed = false;
+            try {
+                for (String id : ids) {
+                    results.add(table.fetch(id));
+                }
+            } finally {
+                writeLock.lock();
+                try {
+                    for (int i = 0; i < ids.size(); i++) {
+                        if (i < results.size()) {
+                            failed |= !table.apply(ids.get(i), results.get(i));
+                        } else {
+                            // We didn't get to this one, so it's still dirty.
+                            table.release(ids.get(i));
+                        }
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            fetched += results.size();
+            if (failed) {
+                return fetched;
+            }
+        }
+    }
+
+    private void markDirty(Event event) {
+        Event.Links links = event.getLinks();
+        if (links == null) {
+            return;
+        }
+        payments.markDirty(links.getPayment());
+        mandates.markDirty(links.getMandate());
+        mandates.markDirty(links.getNewMandate());
+        subscriptions.markDirty(links.getSubscription());
+    }
+
+    private void markSyncedIfClean(long startedAt) {
+        if (getDirtyCount() == 0 && startedAt > syncedAtMillis) {
+            syncedAtMillis = startedAt;
+        }
+    }
+
+    private static final class PaymentSource extends MirrorTable.Source<Payment> {
+        private final GoCardlessClient client;
+
+        private PaymentSource(GoCardlessClient client) {
+            this.client = client;
+        }
+
+        @Override
+        String idOf(Payment payment) {
+            return payment.getId();
+        }
+
+        @Override
+        Iterable<Payment> listAll() {
+            return client.payments().all().execute();
+        }
+
+        @Override
+        Result<Payment> fetch(String id) {
+            return client.payments().get(id).tryExecute();
+        }
+    }
+
+    private static final class MandateSource extends MirrorTable.Source<Mandate> {
+        private final GoCardlessClient client;
+
+        private MandateSource(GoCardlessClient client) {
+            this.client = client;
+        }
+
+        @Override
+        String idOf(Mandate mandate) {
+            return mandate.getId();
+        }
+
+        @Override
+        Iterable<Mandate> listAll() {
+            return client.mandates().all().execute();
+        }
+
+        @Override
+        Result<Mandate> fetch(String id) {
+            return client.mandates().get(id).tryExecute();
+        }
+    }
+
+    private static final class SubscriptionSource extends MirrorTable.Source<Subscription> {
+        private final GoCardlessClient client;
+
+        private SubscriptionSource(GoCardlessClient client) {
+            this.client = client;
+        }
+
+        @Override
+        String idOf(Subscription subscription) {
+            return subscription.getId();
+        }
+
+        @Override
+        Iterable<Subscription> listAll() {
+            return client.subscriptions().all().execute();
+        }
+
+        @Override
+        Result<Subscription> fetch(String id) {
+            return client.subscriptions().get(id).tryExecute();
+        }
+    }
+
+    /**
+     * Builder for {@link LocalMirror}.
+     */
+    public static final class Builder {
+        private final GoCardlessClient client;
+        private int batchSize = 100;
+        private long maxStalenessMillis = TimeUnit.MINUTES.toMillis(1);
+        private Checkpoint checkpoint;
+
+        private Builder(GoCardlessClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Sets how many resources are written at once while backfilling, and fetched at once
+         * while refreshing. Defaults to 100.
+         */
+        public Builder withBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets how stale the mirror can be while still counting as fresh. Defaults to 1
+         * minute.
+         */
+        public Builder withMaxStaleness(long maxStaleness, TimeUnit unit) {
+            this.maxStalenessMillis = unit.toMillis(maxStaleness);
+            return this;
+        }
+
+        /**
+         * Restores the mirror from a checkpoint, so that it doesn't need to be backfilled.
+         */
+        public Builder withCheckpoint(Checkpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        /**
+         * Builds the mirror.
+         */
+        public LocalMirror build() {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be at least 1");
+            }
+            return new LocalMirror(this);
+        }
+    }
+}
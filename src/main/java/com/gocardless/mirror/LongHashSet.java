@@ -0,0 +1,118 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+
+/**
+ * A set of `long`s, such as ID codes from an {@link IdCodec}, stored in an open-addressed table
+ * of primitives rather than as boxed values.
+ *
+ * Like {@link java.util.HashSet}, this class is not thread-safe.
+ */
+public final class LongHashSet {
+    private long[] keys;
+    private boolean containsZero;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates a set which can hold the given number of values without resizing.
+     */
+    public LongHashSet(int expectedSize) {
+        this.keys = new long[LongHashing.capacityFor(expectedSize)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        return keys[LongHashing.find(keys, value)] == value;
+    }
+
+    /**
+     * Adds a value to the set, returning whether it wasn't already present.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = LongHashing.find(keys, value);
+        if (keys[slot] == value) {
+            return false;
+        }
+        keys[slot] = value;
+        if (++size > keys.length / 2) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value from the set, returning whether it was present.
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int slot = LongHashing.find(keys, value);
+        if (keys[slot] != value) {
+            return false;
+        }
+        LongHashing.delete(keys, null, null, slot);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Returns the values in the set, in no particular order.
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int count = 0;
+        if (containsZero) {
+            values[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                values[count++] = key;
+            }
+        }
+        return values;
+    }
+
+    private void resize() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        for (long key : old) {
+            if (key != 0) {
+                keys[LongHashing.find(keys, key)] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.gocardless.mirror;
+
+/**
+ * The open-addressed tables behind {@link LongHashSet}, {@link LongObjectMap} and
+ * {@link LongIntMap}.
+ *
+ * Tables are arrays of keys whose length is a power of two, kept at most half full, with zero
+ * marking an empty slot. Collisions are resolved by linear probing, and removals shift later
+ * keys back rather than leaving tombstones, so lookups never slow down as keys churn.
+ */
+final class LongHashing {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private LongHashing() {}
+
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative");
+        }
+        int capacity = 4;
+        while (capacity < MAXIMUM_CAPACITY && capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or the empty slot where it would be
+     * inserted.
+     */
+    static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving back any later keys in the same run which would otherwise become
+     * unreachable, along with their values in whichever of the value arrays the table has.
+     */
+    static void delete(long[] keys, Object[] values, int[] intValues, int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = slot(keys[next], mask);
+            // Move the key into the gap unless its home lies cyclically between the gap and it.
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                if (values != null) {
+                    values[gap] = values[next];
+                }
+                if (intValues != null) {
+                    intValues[gap] = intValues[next];
+                }
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        if (values != null) {
+            values[gap] = null;
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        // The finaliser of MurmurHash3, so that keys differing only in high bits, as packed IDs
+        // with the same prefix do, spread across the table.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+}
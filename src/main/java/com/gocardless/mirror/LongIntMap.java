@@ -0,0 +1,136 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+
+/**
+ * A map from `long`s, such as ID codes from an {@link IdCodec}, to `int`s, stored in an
+ * open-addressed table of primitives rather than as boxed entries.
+ *
+ * Like {@link java.util.HashMap}, this class is not thread-safe.
+ */
+public final class LongIntMap {
+    private long[] keys;
+    private int[] values;
+    private boolean containsZero;
+    private int zeroValue;
+    private int size;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    /**
+     * Creates a map which can hold the given number of entries without resizing.
+     */
+    public LongIntMap(int expectedSize) {
+        int capacity = LongHashing.capacityFor(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        return keys[LongHashing.find(keys, key)] == key;
+    }
+
+    /**
+     * Returns the value for a key, or the given default if it has none.
+     */
+    public int get(long key, int defaultValue) {
+        if (key == 0) {
+            return containsZero ? zeroValue : defaultValue;
+        }
+        int slot = LongHashing.find(keys, key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Sets the value for a key.
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = LongHashing.find(keys, key);
+        values[slot] = value;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size > keys.length / 2) {
+                resize();
+            }
+        }
+    }
+
+    /**
+     * Removes the value for a key, returning whether it had one.
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int slot = LongHashing.find(keys, key);
+        if (keys[slot] != key) {
+            return false;
+        }
+        LongHashing.delete(keys, null, values, slot);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Returns the keys in the map, in no particular order.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        if (containsZero) {
+            result[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongHashing.find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+
+/**
+ * A map from `long`s, such as ID codes from an {@link IdCodec}, to objects, stored in an
+ * open-addressed table of primitive keys rather than as boxed entries.
+ *
+ * Null values aren't supported. Like {@link java.util.HashMap}, this class is not thread-safe.
+ *
+ * @param <V> the type of value
+ */
+public final class LongObjectMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private V zeroValue;
+    private int size;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Creates a map which can hold the given number of entries without resizing.
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = LongHashing.capacityFor(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value for a key, or null if it has none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        return (V) values[LongHashing.find(keys, key)];
+    }
+
+    /**
+     * Sets the value for a key, returning its previous value or null if it had none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        if (key == 0) {
+            V previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        int slot = LongHashing.find(keys, key);
+        V previous = (V) values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (previous == null && ++size > keys.length / 2) {
+            resize();
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the value for a key, returning it or null if it had none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            zeroValue = null;
+            if (previous != null) {
+                size--;
+            }
+            return previous;
+        }
+        int slot = LongHashing.find(keys, key);
+        V previous = (V) values[slot];
+        if (previous != null) {
+            LongHashing.delete(keys, values, null, slot);
+            size--;
+        }
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the keys in the map, in no particular order.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        if (zeroValue != null) {
+            result[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongHashing.find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.gocardless.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.gocardless.resources.Mandate;
+import com.google.gson.JsonObject;
+
+/**
+ * A memory-mapped snapshot of mandates.
+ *
+ * Snapshots are written by appending mandates to the writer returned by
+ * {@link #newWriter(File)}, and read by calling {@link #open(File)}.
+ *
+ * @see PaymentSnapshot
+ */
+public final class MandateSnapshot extends Snapshot {
+    private static final int STATUS = 16;
+    private static final int PAYMENTS_REQUIRE_APPROVAL = 17;
+    private static final int NEXT_POSSIBLE_CHARGE_DATE = 18;
+    private static final int CREATED_AT = 22;
+    private static final int CREDITOR = 30;
+    private static final int CUSTOMER = 46;
+    private static final int CUSTOMER_BANK_ACCOUNT = 62;
+    private static final int NEW_MANDATE = 78;
+    private static final int REFERENCE = 94;
+    private static final int SCHEME = 98;
+    private static final int METADATA = 102;
+    private static final int ROW_SIZE = 106;
+    private static final int STATUS_TABLE = 0;
+    private static final RowCodec<Mandate> CODEC = new Codec();
+
+    private MandateSnapshot(File file) throws IOException {
+        super(file, CODEC);
+    }
+
+    /**
+     * Returns a writer which writes a snapshot of mandates to the given file, replacing it if
+     * it exists.
+     */
+    public static SnapshotWriter<Mandate> newWriter(File file) throws IOException {
+        return new SnapshotWriter<>(file, CODEC);
+    }
+
+    /**
+     * Maps a snapshot of mandates into memory.
+     *
+     * @throws IOException if the file can't be read, or isn't a complete snapshot of mandates
+     */
+    public static MandateSnapshot open(File file) throws IOException {
+        return new MandateSnapshot(file);
+    }
+
+    /**
+     * Returns the mandate with the given ID, or null if it isn't in the snapshot.
+     */
+    public Mandate get(String id) {
+        int row = indexOf(id);
+        return row == -1 ? null : toMandate(row);
+    }
+
+    public Mandate.Status getStatus(int row) {
+        return readEnum(row, STATUS, STATUS_TABLE, Mandate.Status.class);
+    }
+
+    public Boolean getPaymentsRequireApproval(int row) {
+        byte value = readByte(row, PAYMENTS_REQUIRE_APPROVAL);
+        return value == 0 ? null : value == 2;
+    }
+
+    public String getNextPossibleChargeDate(int row) {
+        return Dates.formatDate(getNextPossibleChargeDateEpochDay(row));
+    }
+
+    /**
+     * Returns the next possible charge date as a number of days since 1970-01-01, or
+     * `Integer.MIN_VALUE` if the mandate has none.
+     */
+    public int getNextPossibleChargeDateEpochDay(int row) {
+        return readInt(row, NEXT_POSSIBLE_CHARGE_DATE);
+    }
+
+    public String getCreatedAt(int row) {
+        return Dates.formatTimestamp(getCreatedAtMillis(row));
+    }
+
+    /**
+     * Returns the creation time in milliseconds since the epoch, or `Long.MIN_VALUE` if the
+     * mandate has none.
+     */
+    public long getCreatedAtMillis(int row) {
+        return readLong(row, CREATED_AT);
+    }
+
+    public String getCreditor(int row) {
+        return readId(row, CREDITOR);
+    }
+
+    public String getCustomer(int row) {
+        return readId(row, CUSTOMER);
+    }
+
+    public String getCustomerBankAccount(int row) {
+        return readId(row, CUSTOMER_BANK_ACCOUNT);
+    }
+
+    public String getNewMandate(int row) {
+        return readId(row, NEW_MANDATE);
+    }
+
+    public String getReference(int row) {
+        return readString(row, REFERENCE);
+    }
+
+    public String getScheme(int row) {
+        return readString(row, SCHEME);
+    }
+
+    public Map<String, String> getMetadata(int row) {
+        return readMap(row, METADATA);
+    }
+
+    /**
+     * Reads every column of the given row into a mandate.
+     */
+    public Mandate toMandate(int row) {
+        JsonObject links = new JsonObject();
+        links.addProperty("creditor", getCreditor(row));
+        links.addProperty("customer", getCustomer(row));
+        links.addProperty("customerBankAccount", getCustomerBankAccount(row));
+        links.addProperty("newMandate", getNewMandate(row));
+        JsonObject json = new JsonObject();
+        json.addProperty("id", getId(row));
+        json.add("status", GSON.toJsonTree(getStatus(row)));
+        json.addProperty("paymentsRequireApproval", getPaymentsRequireApproval(row));
+        json.addProperty("nextPossibleChargeDate", getNextPossibleChargeDate(row));
+        json.addProperty("createdAt", getCreatedAt(row));
+        json.addProperty("reference", getReference(row));
+        json.addProperty("scheme", getScheme(row));
+        json.add("metadata", GSON.toJsonTree(getMetadata(row)));
+        json.add("links", links);
+        return GSON.fromJson(json, Mandate.class);
+    }
+
+    private static final class Codec extends RowCodec<Mandate> {
+        @Override
+        byte kind() {
+            return 2;
+        }
+
+        @Override
+        int rowSize() {
+            return ROW_SIZE;
+        }
+
+        @Override
+        List<Class<? extends Enum<?>>> enums() {
+            return Collections.<Class<? extends Enum<?>>>singletonList(Mandate.Status.class);
+        }
+
+        @Override
+        String createdAtOf(Mandate mandate) {
+            return mandate.getCreatedAt();
+        }
+
+        @Override
+        void write(Mandate mandate, ByteBuffer buffer, int offset, HeapWriter heap)
+                throws IOException {
+            Mandate.Links links = mandate.getLinks();
+            Boolean requireApproval = mandate.getPaymentsRequireApproval();
+            putId(buffer, offset, mandate.getId());
+            putEnum(buffer, offset + STATUS, mandate.getStatus());
+            buffer.put(offset + PAYMENTS_REQUIRE_APPROVAL,
+                    (byte) (requireApproval == null ? 0 : requireApproval ? 2 : 1));
+            buffer.putInt(offset + NEXT_POSSIBLE_CHARGE_DATE,
+                    Dates.parseDate(mandate.getNextPossibleChargeDate()));
+            buffer.putLong(offset + CREATED_AT, Dates.parseTimestamp(mandate.getCreatedAt()));
+            putId(buffer, offset + CREDITOR, links == null ? null : links.getCreditor());
+            putId(buffer, offset + CUSTOMER, links == null ? null : links.getCustomer());
+            putId(buffer, offset + CUSTOMER_BANK_ACCOUNT,
+                    links == null ? null : links.getCustomerBankAccount());
+            putId(buffer, offset + NEW_MANDATE, links == null ? null : links.getNewMandate());
+            buffer.putInt(offset + REFERENCE, heap.putString(mandate.getReference()));
+            buffer.putInt(offset + SCHEME, heap.putString(mandate.getScheme()));
+            buffer.putInt(offset + METADATA, heap.putMap(mandate.getMetadata()));
+        }
+    }
+}
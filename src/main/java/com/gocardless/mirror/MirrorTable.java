@@ -0,0 +1,164 @@
+package com.gocardless.mirror;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.gocardless.errors.ErrorReason;
+import com.gocardless.http.Result;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The mirrored copies of one type of resource, keyed by ID, along with the IDs of those which
+ * are known to have changed since they were fetched.
+ *
+ * IDs taken from the dirty set to be fetched count as dirty until the result has been applied,
+ * so that a checkpoint taken in the meantime doesn't lose them.
+ *
+ * Reads go straight to a concurrent map, so never block. Writes are made by
+ * {@link LocalMirror} while it holds its write lock, so that checkpoints see every table at
+ * the same point, and are applied to the table's {@link SecondaryIndexes} as they are made.
+ *
+ * @param <R> the type of resource
+ */
+final class MirrorTable<R> {
+    private final Source<R> source;
+    private final SecondaryIndexes<R> indexes;
+    private final ConcurrentMap<String, R> resources = new ConcurrentHashMap<>();
+    private final Set<String> dirty =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> inFlight =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    MirrorTable(Source<R> source, IdCodec codec) {
+        this.source = source;
+        this.indexes = new SecondaryIndexes<>(codec);
+    }
+
+    SecondaryIndexes.Index<R> addIndex(SecondaryIndexes.Field<R> field) {
+        return indexes.addIndex(field);
+    }
+
+    List<R> find(SecondaryIndexes.Index<R> index, Object value) {
+        return indexes.find(index, value);
+    }
+
+    List<R> find(SecondaryIndexes.Index<R> first, Object firstValue,
+            SecondaryIndexes.Index<R> second, Object secondValue) {
+        return indexes.find(first, firstValue, second, secondValue);
+    }
+
+    R get(String id) {
+        return resources.get(id);
+    }
+
+    boolean isDirty(String id) {
+        return dirty.contains(id) || inFlight.contains(id);
+    }
+
+    int dirtyCount() {
+        return dirty.size() + inFlight.size();
+    }
+
+    Iterable<R> listAll() {
+        return source.listAll();
+    }
+
+    void put(R resource) {
+        String id = source.idOf(resource);
+        resources.put(id, resource);
+        indexes.put(id, resource);
+    }
+
+    void markDirty(String id) {
+        if (id != null) {
+            dirty.add(id);
+        }
+    }
+
+    /**
+     * Takes up to `max` IDs from the dirty set to be fetched. An ID which is marked dirty
+     * again while it is being fetched stays dirty, so that it is fetched again.
+     */
+    List<String> takeDirty(int max) {
+        List<String> ids = new ArrayList<>(Math.min(max, dirty.size()));
+        Iterator<String> iterator = dirty.iterator();
+        while (ids.size() < max && iterator.hasNext()) {
+            String id = iterator.next();
+            inFlight.add(id);
+            iterator.remove();
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Puts an ID taken by {@link #takeDirty} back without fetching it.
+     */
+    void release(String id) {
+        inFlight.remove(id);
+        dirty.add(id);
+    }
+
+    Result<R> fetch(String id) {
+        return source.fetch(id);
+    }
+
+    /**
+     * Applies the result of fetching a resource, returning false if it failed in a way which
+     * is worth trying again later.
+     */
+    boolean apply(String id, Result<R> result) {
+        inFlight.remove(id);
+        if (result.isSuccess()) {
+            put(result.getResource());
+            return true;
+        }
+        if (result.hasErrorReason(ErrorReason.RESOURCE_NOT_FOUND)) {
+            resources.remove(id);
+            indexes.remove(id);
+            return true;
+        }
+        dirty.add(id);
+        return false;
+    }
+
+    ImmutableMap<String, R> copyResources() {
+        return ImmutableMap.copyOf(resources);
+    }
+
+    ImmutableSet<String> copyDirty() {
+        return ImmutableSet.<String>builder().addAll(dirty).addAll(inFlight).build();
+    }
+
+    void restore(Map<String, R> restoredResources, Collection<String> restoredDirty) {
+        resources.clear();
+        resources.putAll(restoredResources);
+        indexes.clear();
+        for (Map.Entry<String, R> entry : restoredResources.entrySet()) {
+            indexes.put(entry.getKey(), entry.getValue());
+        }
+        dirty.clear();
+        inFlight.clear();
+        dirty.addAll(restoredDirty);
+    }
+
+    /**
+     * Where a table's resources come from.
+     */
+    abstract static class Source<R> {
+        abstract String idOf(R resource);
+
+        abstract Iterable<R> listAll();
+
+        abstract Result<R> fetch(String id);
+    }
+}
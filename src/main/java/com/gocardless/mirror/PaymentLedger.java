@@ -0,0 +1,362 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.gocardless.resources.Payment;
+
+/**
+ * The amounts, charge dates, statuses and currencies of a large number of payments, held in
+ * primitive columns so that they can be totalled without boxing or allocating per payment.
+ *
+ * Payments can be added from {@link com.gocardless.services.PaymentService#all()}, or in
+ * batches supplied by the caller. Adding a payment which the ledger already holds replaces its
+ * row, so refetched payments can be added again as they change:
+ *
+ * <pre>
+ * PaymentLedger ledger = new PaymentLedger();
+ * ledger.addAll(client.payments().all().execute());
+ * PaymentLedger.Totals collected = ledger.sumByCurrencyAndDay("2017-10-01", "2017-10-31",
+ *         Payment.Status.CONFIRMED, Payment.Status.PAID_OUT);
+ * long gbpOnFirst = collected.getAmount(Payment.Currency.GBP, "2017-10-01");
+ * </pre>
+ *
+ * Queries split the rows between the tasks of a fork-join pool, each of which totals its rows
+ * into its own array of buckets, and merge the buckets at the end.
+ *
+ * This class is thread-safe. Queries hold a read lock for as long as they run, so payments
+ * added in the meantime wait for them to finish.
+ */
+public final class PaymentLedger {
+    private static final int NO_AMOUNT = Integer.MIN_VALUE;
+    private static final byte NONE = 0;
+    private static final int MIN_ROWS_PER_TASK = 1 << 16;
+    private static final Payment.Currency[] CURRENCIES = Payment.Currency.values();
+    private final IdCodec codec = new IdCodec();
+    private final LongIntMap rows;
+    private final ForkJoinPool pool;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] amounts;
+    private int[] amountsRefunded;
+    private int[] chargeDates;
+    private byte[] statuses;
+    private byte[] currencies;
+    private int size;
+
+    /**
+     * Creates a ledger which runs its queries on a pool shared by every ledger, with one thread
+     * per processor.
+     */
+    public PaymentLedger() {
+        this(1024, SharedPool.POOL);
+    }
+
+    /**
+     * Creates a ledger which can hold the given number of payments without resizing, and runs
+     * its queries on the given pool.
+     */
+    public PaymentLedger(int expectedSize, ForkJoinPool pool) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        int capacity = Math.max(expectedSize, 16);
+        this.rows = new LongIntMap(capacity);
+        this.pool = pool;
+        this.amounts = new int[capacity];
+        this.amountsRefunded = new int[capacity];
+        this.chargeDates = new int[capacity];
+        this.statuses = new byte[capacity];
+        this.currencies = new byte[capacity];
+    }
+
+    /**
+     * Returns the number of payments in the ledger.
+     */
+    public int size() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a payment, replacing the row of any earlier version of it.
+     */
+    public void add(Payment payment) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            put(payment);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of payments, replacing the rows of any earlier versions of them.
+     *
+     * The batch is added under one lock, so it appears to queries all at once. To stream a
+     * very large collection in without holding up queries, add it in several batches.
+     */
+    public void addAll(Iterable<Payment> payments) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Payment payment : payments) {
+                put(payment);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Totals the amounts of the payments charged between two dates, inclusive, by currency and
+     * charge date.
+     *
+     * @param fromDate the first charge date to include, for example `2017-10-01`
+     * @param toDate the last charge date to include
+     * @param statuses the statuses of the payments to include, or none to include every payment
+     */
+    public Totals sumByCurrencyAndDay(String fromDate, String toDate,
+            Payment.Status... statuses) {
+        int firstDay = Dates.parseDate(fromDate);
+        int lastDay = Dates.parseDate(toDate);
+        if (firstDay == Dates.NO_DATE || lastDay == Dates.NO_DATE || lastDay < firstDay) {
+            throw new IllegalArgumentException("Invalid date range: " + fromDate + " to "
+                    + toDate);
+        }
+        return sum(firstDay, lastDay - firstDay + 1, statusMask(statuses));
+    }
+
+    /**
+     * Totals the amounts of payments by currency, whatever their charge date.
+     *
+     * @param statuses the statuses of the payments to include, or none to include every payment
+     */
+    public Totals sumByCurrency(Payment.Status... statuses) {
+        return sum(Dates.NO_DATE, 1, statusMask(statuses));
+    }
+
+    private void put(Payment payment) {
+        long code = codec.encode(payment.getId());
+        int row = rows.get(code, -1);
+        if (row == -1) {
+            if (size == amounts.length) {
+                grow();
+            }
+            row = size++;
+            rows.put(code, row);
+        }
+        amounts[row] = payment.getAmount() == null ? NO_AMOUNT : payment.getAmount();
+        amountsRefunded[row] =
+                payment.getAmountRefunded() == null ? NO_AMOUNT : payment.getAmountRefunded();
+        chargeDates[row] = Dates.parseDate(payment.getChargeDate());
+        statuses[row] = ordinalOf(payment.getStatus());
+        currencies[row] = ordinalOf(payment.getCurrency());
+    }
+
+    private void grow() {
+        int capacity = amounts.length * 2;
+        amounts = Arrays.copyOf(amounts, capacity);
+        amountsRefunded = Arrays.copyOf(amountsRefunded, capacity);
+        chargeDates = Arrays.copyOf(chargeDates, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+    }
+
+    private Totals sum(int firstDay, int days, int statusMask) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, size / (pool.getParallelism() * 4));
+            SumTask task = new SumTask(this, firstDay, days, statusMask, rowsPerTask, 0, size);
+            return new Totals(firstDay, days, pool.invoke(task));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private static byte ordinalOf(Enum<?> value) {
+        return value == null ? NONE : (byte) (value.ordinal() + 1);
+    }
+
+    private static int statusMask(Payment.Status[] statuses) {
+        if (statuses.length == 0) {
+            return -1;
+        }
+        int mask = 0;
+        for (Payment.Status status : statuses) {
+            mask |= 1 << (status.ordinal() + 1);
+        }
+        return mask;
+    }
+
+    /**
+     * Totals a range of rows into buckets of three longs per currency and day: the sum of
+     * amounts, the sum of amounts refunded, and the number of payments.
+     */
+    private static final class SumTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final PaymentLedger ledger;
+        private final int firstDay;
+        private final int days;
+        private final int statusMask;
+        private final int rowsPerTask;
+        private final int from;
+        private final int to;
+
+        private SumTask(PaymentLedger ledger, int firstDay, int days, int statusMask,
+                int rowsPerTask, int from, int to) {
+            this.ledger = ledger;
+            this.firstDay = firstDay;
+            this.days = days;
+            this.statusMask = statusMask;
+            this.rowsPerTask = rowsPerTask;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= rowsPerTask) {
+                return sumRows();
+            }
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(ledger, firstDay, days, statusMask, rowsPerTask, from,
+                    middle);
+            SumTask right = new SumTask(ledger, firstDay, days, statusMask, rowsPerTask, middle,
+                    to);
+            left.fork();
+            long[] buckets = right.compute();
+            long[] other = left.join();
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += other[i];
+            }
+            return buckets;
+        }
+
+        private long[] sumRows() {
+            int[] amounts = ledger.amounts;
+            int[] amountsRefunded = ledger.amountsRefunded;
+            int[] chargeDates = ledger.chargeDates;
+            byte[] statuses = ledger.statuses;
+            byte[] currencies = ledger.currencies;
+            boolean byDay = firstDay != Dates.NO_DATE;
+            long[] buckets = new long[CURRENCIES.length * days * 3];
+            for (int row = from; row < to; row++) {
+                int currency = currencies[row] - 1;
+                if (currency < 0 || (statusMask & (1 << statuses[row])) == 0) {
+                    continue;
+                }
+                int day = 0;
+                if (byDay) {
+                    day = chargeDates[row] - firstDay;
+                    if (chargeDates[row] == Dates.NO_DATE || day < 0 || day >= days) {
+                        continue;
+                    }
+                }
+                int bucket = (currency * days + day) * 3;
+                if (amounts[row] != NO_AMOUNT) {
+                    buckets[bucket] += amounts[row];
+                }
+                if (amountsRefunded[row] != NO_AMOUNT) {
+                    buckets[bucket + 1] += amountsRefunded[row];
+                }
+                buckets[bucket + 2]++;
+            }
+            return buckets;
+        }
+    }
+
+    /**
+     * The result of a query, totalled by currency and, if the query was by day, charge date.
+     * Amounts are in the lowest denomination of their currency, as on {@link Payment}.
+     */
+    public static final class Totals {
+        private final int firstDay;
+        private final int days;
+        private final long[] buckets;
+
+        private Totals(int firstDay, int days, long[] buckets) {
+            this.firstDay = firstDay;
+            this.days = days;
+            this.buckets = buckets;
+        }
+
+        /**
+         * Returns the total amount of the payments in the given currency.
+         */
+        public long getAmount(Payment.Currency currency) {
+            return total(currency, 0);
+        }
+
+        /**
+         * Returns the total amount of the payments in the given currency charged on the given
+         * date, which must be within the range of the query.
+         */
+        public long getAmount(Payment.Currency currency, String date) {
+            return buckets[bucket(currency, date)];
+        }
+
+        /**
+         * Returns the total amount refunded from the payments in the given currency.
+         */
+        public long getAmountRefunded(Payment.Currency currency) {
+            return total(currency, 1);
+        }
+
+        /**
+         * Returns the total amount refunded from the payments in the given currency charged on
+         * the given date, which must be within the range of the query.
+         */
+        public long getAmountRefunded(Payment.Currency currency, String date) {
+            return buckets[bucket(currency, date) + 1];
+        }
+
+        /**
+         * Returns the number of payments in the given currency.
+         */
+        public long getCount(Payment.Currency currency) {
+            return total(currency, 2);
+        }
+
+        /**
+         * Returns the number of payments in the given currency charged on the given date, which
+         * must be within the range of the query.
+         */
+        public long getCount(Payment.Currency currency, String date) {
+            return buckets[bucket(currency, date) + 2];
+        }
+
+        private long total(Payment.Currency currency, int offset) {
+            long total = 0;
+            for (int day = 0; day < days; day++) {
+                total += buckets[(currency.ordinal() * days + day) * 3 + offset];
+            }
+            return total;
+        }
+
+        private int bucket(Payment.Currency currency, String date) {
+            int day = Dates.parseDate(date) - firstDay;
+            if (firstDay == Dates.NO_DATE || day < 0 || day >= days) {
+                throw new IllegalArgumentException("Date is outside the query's range: " + date);
+            }
+            return (currency.ordinal() * days + day) * 3;
+        }
+    }
+
+    /**
+     * Holds the pool shared by ledgers which aren't given one, which is only started when the
+     * first of them is created. Its threads are daemons, so it needn't be shut down.
+     */
+    private static final class SharedPool {
+        private static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
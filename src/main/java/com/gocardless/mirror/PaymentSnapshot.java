@@ -0,0 +1,213 @@
+package com.gocardless.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.gocardless.resources.Payment;
+import com.google.gson.JsonObject;
+
+/**
+ * A memory-mapped snapshot of payments.
+ *
+ * To write a snapshot, append payments to the writer returned by {@link #newWriter(File)}:
+ *
+ * <pre>
+ * SnapshotWriter&lt;Payment&gt; writer = PaymentSnapshot.newWriter(file);
+ * try {
+ *     for (Payment payment : client.payments().all().execute()) {
+ *         writer.append(payment);
+ *     }
+ * } finally {
+ *     writer.close();
+ * }
+ * </pre>
+ *
+ * and to read it, call {@link #open(File)}.
+ */
+public final class PaymentSnapshot extends Snapshot {
+    private static final int STATUS = 16;
+    private static final int CURRENCY = 17;
+    private static final int AMOUNT = 18;
+    private static final int AMOUNT_REFUNDED = 22;
+    private static final int CHARGE_DATE = 26;
+    private static final int CREATED_AT = 30;
+    private static final int MANDATE = 38;
+    private static final int CREDITOR = 54;
+    private static final int PAYOUT = 70;
+    private static final int SUBSCRIPTION = 86;
+    private static final int REFERENCE = 102;
+    private static final int DESCRIPTION = 106;
+    private static final int METADATA = 110;
+    private static final int ROW_SIZE = 114;
+    private static final int STATUS_TABLE = 0;
+    private static final int CURRENCY_TABLE = 1;
+    private static final RowCodec<Payment> CODEC = new Codec();
+
+    private PaymentSnapshot(File file) throws IOException {
+        super(file, CODEC);
+    }
+
+    /**
+     * Returns a writer which writes a snapshot of payments to the given file, replacing it if
+     * it exists.
+     */
+    public static SnapshotWriter<Payment> newWriter(File file) throws IOException {
+        return new SnapshotWriter<>(file, CODEC);
+    }
+
+    /**
+     * Maps a snapshot of payments into memory.
+     *
+     * @throws IOException if the file can't be read, or isn't a complete snapshot of payments
+     */
+    public static PaymentSnapshot open(File file) throws IOException {
+        return new PaymentSnapshot(file);
+    }
+
+    /**
+     * Returns the payment with the given ID, or null if it isn't in the snapshot.
+     */
+    public Payment get(String id) {
+        int row = indexOf(id);
+        return row == -1 ? null : toPayment(row);
+    }
+
+    public Payment.Status getStatus(int row) {
+        return readEnum(row, STATUS, STATUS_TABLE, Payment.Status.class);
+    }
+
+    public Payment.Currency getCurrency(int row) {
+        return readEnum(row, CURRENCY, CURRENCY_TABLE, Payment.Currency.class);
+    }
+
+    public Integer getAmount(int row) {
+        return readInteger(row, AMOUNT);
+    }
+
+    public Integer getAmountRefunded(int row) {
+        return readInteger(row, AMOUNT_REFUNDED);
+    }
+
+    public String getChargeDate(int row) {
+        return Dates.formatDate(getChargeDateEpochDay(row));
+    }
+
+    /**
+     * Returns the charge date as a number of days since 1970-01-01, or `Integer.MIN_VALUE` if
+     * the payment has none.
+     */
+    public int getChargeDateEpochDay(int row) {
+        return readInt(row, CHARGE_DATE);
+    }
+
+    public String getCreatedAt(int row) {
+        return Dates.formatTimestamp(getCreatedAtMillis(row));
+    }
+
+    /**
+     * Returns the creation time in milliseconds since the epoch, or `Long.MIN_VALUE` if the
+     * payment has none.
+     */
+    public long getCreatedAtMillis(int row) {
+        return readLong(row, CREATED_AT);
+    }
+
+    public String getMandate(int row) {
+        return readId(row, MANDATE);
+    }
+
+    public String getCreditor(int row) {
+        return readId(row, CREDITOR);
+    }
+
+    public String getPayout(int row) {
+        return readId(row, PAYOUT);
+    }
+
+    public String getSubscription(int row) {
+        return readId(row, SUBSCRIPTION);
+    }
+
+    public String getReference(int row) {
+        return readString(row, REFERENCE);
+    }
+
+    public String getDescription(int row) {
+        return readString(row, DESCRIPTION);
+    }
+
+    public Map<String, String> getMetadata(int row) {
+        return readMap(row, METADATA);
+    }
+
+    /**
+     * Reads every column of the given row into a payment.
+     */
+    public Payment toPayment(int row) {
+        JsonObject links = new JsonObject();
+        links.addProperty("mandate", getMandate(row));
+        links.addProperty("creditor", getCreditor(row));
+        links.addProperty("payout", getPayout(row));
+        links.addProperty("subscription", getSubscription(row));
+        JsonObject json = new JsonObject();
+        json.addProperty("id", getId(row));
+        json.add("status", GSON.toJsonTree(getStatus(row)));
+        json.add("currency", GSON.toJsonTree(getCurrency(row)));
+        json.addProperty("amount", getAmount(row));
+        json.addProperty("amountRefunded", getAmountRefunded(row));
+        json.addProperty("chargeDate", getChargeDate(row));
+        json.addProperty("createdAt", getCreatedAt(row));
+        json.addProperty("reference", getReference(row));
+        json.addProperty("description", getDescription(row));
+        json.add("metadata", GSON.toJsonTree(getMetadata(row)));
+        json.add("links", links);
+        return GSON.fromJson(json, Payment.class);
+    }
+
+    private static final class Codec extends RowCodec<Payment> {
+        @Override
+        byte kind() {
+            return 1;
+        }
+
+        @Override
+        int rowSize() {
+            return ROW_SIZE;
+        }
+
+        @Override
+        List<Class<? extends Enum<?>>> enums() {
+            return Arrays.<Class<? extends Enum<?>>>asList(Payment.Status.class,
+                    Payment.Currency.class);
+        }
+
+        @Override
+        String createdAtOf(Payment payment) {
+            return payment.getCreatedAt();
+        }
+
+        @Override
+        void write(Payment payment, ByteBuffer buffer, int offset, HeapWriter heap)
+                throws IOException {
+            Payment.Links links = payment.getLinks();
+            putId(buffer, offset, payment.getId());
+            putEnum(buffer, offset + STATUS, payment.getStatus());
+            putEnum(buffer, offset + CURRENCY, payment.getCurrency());
+            putInteger(buffer, offset + AMOUNT, payment.getAmount());
+            putInteger(buffer, offset + AMOUNT_REFUNDED, payment.getAmountRefunded());
+            buffer.putInt(offset + CHARGE_DATE, Dates.parseDate(payment.getChargeDate()));
+            buffer.putLong(offset + CREATED_AT, Dates.parseTimestamp(payment.getCreatedAt()));
+            putId(buffer, offset + MANDATE, links == null ? null : links.getMandate());
+            putId(buffer, offset + CREDITOR, links == null ? null : links.getCreditor());
+            putId(buffer, offset + PAYOUT, links == null ? null : links.getPayout());
+            putId(buffer, offset + SUBSCRIPTION, links == null ? null : links.getSubscription());
+            buffer.putInt(offset + REFERENCE, heap.putString(payment.getReference()));
+            buffer.putInt(offset + DESCRIPTION, heap.putString(payment.getDescription()));
+            buffer.putInt(offset + METADATA, heap.putMap(payment.getMetadata()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.gocardless.mirror;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Writes one type of resource to the fixed-width rows of a snapshot.
+ *
+ * @param <R> the type of resource
+ */
+abstract class RowCodec<R> {
+    static final int ID_WIDTH = 16;
+
+    /**
+     * Returns the number identifying this type of resource in snapshot headers.
+     */
+    abstract byte kind();
+
+    abstract int rowSize();
+
+    /**
+     * Returns the enums whose ordinals are stored in rows, in the order their tables are
+     * written.
+     */
+    abstract List<Class<? extends Enum<?>>> enums();
+
+    abstract String createdAtOf(R resource);
+
+    /**
+     * Writes a resource to the row starting at the given offset of the buffer, and its
+     * variable-length values to the heap.
+     */
+    abstract void write(R resource, ByteBuffer buffer, int offset, HeapWriter heap)
+            throws IOException;
+
+    /**
+     * Writes an ID as zero-padded ASCII.
+     *
+     * @throws IllegalArgumentException if the ID isn't ASCII, or is longer than {@link #ID_WIDTH}
+     *         characters
+     */
+    static void putId(ByteBuffer buffer, int offset, String id) {
+        int length = id == null ? 0 : id.length();
+        if (length > ID_WIDTH) {
+            throw new IllegalArgumentException("ID is too long for a snapshot: " + id);
+        }
+        for (int i = 0; i < ID_WIDTH; i++) {
+            char c = i < length ? id.charAt(i) : 0;
+            if (c > 127) {
+                throw new IllegalArgumentException("ID is not ASCII: " + id);
+            }
+            buffer.put(offset + i, (byte) c);
+        }
+    }
+
+    /**
+     * Writes an enum as its ordinal plus one, so that null can be written as zero.
+     */
+    static void putEnum(ByteBuffer buffer, int offset, Enum<?> value) {
+        buffer.put(offset, value == null ? 0 : (byte) (value.ordinal() + 1));
+    }
+
+    static void putInteger(ByteBuffer buffer, int offset, Integer value) {
+        buffer.putInt(offset, value == null ? Integer.MIN_VALUE : value);
+    }
+}
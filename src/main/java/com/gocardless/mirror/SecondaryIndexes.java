@@ -0,0 +1,283 @@
+package com.gocardless.mirror;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over one type of resource, such as payments by mandate or by status.
+ *
+ * Each resource is given a dense `int` ordinal, and each index maps the code of a field's value
+ * to a posting list of the ordinals of the resources with that value. An index also records
+ * where in its posting list each ordinal sits, so moving a resource from one list to another
+ * when its field changes takes constant time, however long the lists are.
+ *
+ * Updates are made by {@link MirrorTable} while {@link LocalMirror} holds its write lock. They
+ * take this class's write lock too, so that a query never sees a resource in two posting lists,
+ * or in neither, while it is being moved. Queries only hold the read lock while copying out
+ * their results.
+ *
+ * @param <R> the type of resource
+ */
+final class SecondaryIndexes<R> {
+    private static final int NO_ORDINAL = -1;
+    private final IdCodec codec;
+    private final List<Index<R>> indexes = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap ordinals = new LongIntMap();
+    private final IntList freeOrdinals = new IntList();
+    private Object[] resources = new Object[16];
+    private int ordinalCount;
+
+    SecondaryIndexes(IdCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Adds an index on the given field. Indexes must be added before any resources are.
+     */
+    Index<R> addIndex(Field<R> field) {
+        Index<R> index = new Index<>(field);
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Indexes a resource, replacing any previous version of it.
+     */
+    void put(String id, R resource) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            long code = codec.encode(id);
+            int ordinal = ordinals.get(code, NO_ORDINAL);
+            if (ordinal == NO_ORDINAL) {
+                ordinal = freeOrdinals.isEmpty() ? ordinalCount++ : freeOrdinals.removeLast();
+                ordinals.put(code, ordinal);
+                if (ordinal == resources.length) {
+                    resources = Arrays.copyOf(resources, resources.length * 2);
+                }
+            }
+            resources[ordinal] = resource;
+            for (Index<R> index : indexes) {
+                index.set(ordinal, keyOf(index.field.valueOf(resource), true));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a resource from every index.
+     */
+    void remove(String id) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            long code = codec.lookup(id);
+            int ordinal = ordinals.get(code, NO_ORDINAL);
+            if (code == IdCodec.NONE || ordinal == NO_ORDINAL) {
+                return;
+            }
+            ordinals.remove(code);
+            resources[ordinal] = null;
+            for (Index<R> index : indexes) {
+                index.set(ordinal, 0);
+            }
+            freeOrdinals.add(ordinal);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void clear() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            Arrays.fill(resources, null);
+            ordinalCount = 0;
+            for (Index<R> index : indexes) {
+                index.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the resources whose indexed field has the given value.
+     */
+    List<R> find(Index<R> index, Object value) {
+        return find(index, value, null, null);
+    }
+
+    /**
+     * Returns the resources whose fields have both of the given values. The shorter posting
+     * list is walked, and each of its resources checked against the other index.
+     */
+    List<R> find(Index<R> first, Object firstValue, Index<R> second, Object secondValue) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            long firstKey = keyOf(firstValue, false);
+            IntList postings = first.postings.get(firstKey);
+            if (firstKey == 0 || postings == null) {
+                return Collections.emptyList();
+            }
+            Index<R> other = second;
+            long otherKey = 0;
+            if (second != null) {
+                long secondKey = keyOf(secondValue, false);
+                IntList secondPostings = second.postings.get(secondKey);
+                if (secondKey == 0 || secondPostings == null) {
+                    return Collections.emptyList();
+                }
+                if (secondPostings.size() < postings.size()) {
+                    postings = secondPostings;
+                    other = first;
+                    otherKey = firstKey;
+                } else {
+                    otherKey = secondKey;
+                }
+            }
+            List<R> results = new ArrayList<>(postings.size());
+            for (int i = 0; i < postings.size(); i++) {
+                int ordinal = postings.get(i);
+                if (other == null || other.keys[ordinal] == otherKey) {
+                    results.add(resourceAt(ordinal));
+                }
+            }
+            return results;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private R resourceAt(int ordinal) {
+        return (R) resources[ordinal];
+    }
+
+    /**
+     * Returns the key a field value is indexed under: the code of an ID, or one more than the
+     * ordinal of an enum, or zero if the value is null or an ID which has never been indexed.
+     */
+    private long keyOf(Object value, boolean assign) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).ordinal() + 1;
+        }
+        return assign ? codec.encode((String) value) : codec.lookup((String) value);
+    }
+
+    /**
+     * A field of a resource to index on, whose values are either IDs or enums.
+     */
+    abstract static class Field<R> {
+        abstract Object valueOf(R resource);
+    }
+
+    /**
+     * One index, identifying the posting lists of a field.
+     */
+    static final class Index<R> {
+        private final Field<R> field;
+        private final LongObjectMap<IntList> postings = new LongObjectMap<>();
+        // The key each ordinal is indexed under, and its position in that key's posting list.
+        private long[] keys = new long[16];
+        private int[] positions = new int[16];
+
+        private Index(Field<R> field) {
+            this.field = field;
+        }
+
+        private void set(int ordinal, long key) {
+            if (ordinal >= keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, ordinal + 1));
+                positions = Arrays.copyOf(positions, keys.length);
+            }
+            long previous = keys[ordinal];
+            if (previous == key) {
+                return;
+            }
+            if (previous != 0) {
+                IntList list = postings.get(previous);
+                int position = positions[ordinal];
+                int moved = list.removeAt(position);
+                if (moved != ordinal) {
+                    positions[moved] = position;
+                }
+                if (list.isEmpty()) {
+                    postings.remove(previous);
+                }
+            }
+            if (key != 0) {
+                IntList list = postings.get(key);
+                if (list == null) {
+                    list = new IntList();
+                    postings.put(key, list);
+                }
+                positions[ordinal] = list.size();
+                list.add(ordinal);
+            }
+            keys[ordinal] = key;
+        }
+
+        private void clear() {
+            postings.clear();
+            Arrays.fill(keys, 0);
+        }
+    }
+
+    /**
+     * A growable list of `int`s.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        /**
+         * Removes the value at an index by moving the last value into its place, and returns
+         * the value which was moved.
+         */
+        int removeAt(int index) {
+            int last = values[--size];
+            values[index] = last;
+            return last;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
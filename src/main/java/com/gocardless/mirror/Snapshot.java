@@ -0,0 +1,271 @@
+package com.gocardless.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * A memory-mapped snapshot of a collection of resources, written by a {@link SnapshotWriter}.
+ *
+ * Resources are stored in fixed-width rows, with IDs, enums, amounts, dates and timestamps
+ * stored inline, and other strings and metadata stored in a heap at the end of the file. Opening
+ * a snapshot maps the file and indexes its IDs, without reading any other columns, so a large
+ * collection is available in seconds rather than having to be listed from the API again.
+ *
+ * Columns can be read for a row directly, or a row can be turned back into a resource. Snapshots
+ * are immutable and safe to read from multiple threads.
+ */
+public abstract class Snapshot {
+    static final int MAGIC = 0x47435331;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int KIND_OFFSET = 6;
+    static final int ROW_COUNT_OFFSET = 8;
+    static final int ROW_SIZE_OFFSET = 12;
+    static final int HEAP_OFFSET_OFFSET = 16;
+    static final int HEAP_LENGTH_OFFSET = 24;
+    static final int ENUM_TABLES_OFFSET = 28;
+    static final int HIGH_WATER_OFFSET = 32;
+    static final int LAST_EVENT_ID_OFFSET = 40;
+    static final Gson GSON = new Gson();
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int rowSize;
+    private final int heapOffset;
+    private final Enum<?>[][] enumTables;
+    private final int[] index;
+
+    Snapshot(File file, RowCodec<?> codec) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            long size = in.length();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw invalid(file);
+            }
+            // The mapping remains valid after the file is closed.
+            this.buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            in.close();
+        }
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getShort(VERSION_OFFSET) != VERSION
+                || buffer.get(KIND_OFFSET) != codec.kind()) {
+            throw invalid(file);
+        }
+        this.rowCount = buffer.getInt(ROW_COUNT_OFFSET);
+        this.rowSize = buffer.getInt(ROW_SIZE_OFFSET);
+        long heapStart = buffer.getLong(HEAP_OFFSET_OFFSET);
+        int heapLength = buffer.getInt(HEAP_LENGTH_OFFSET);
+        if (rowSize != codec.rowSize() || rowCount < 0 || heapLength < 0
+                || heapStart != HEADER_SIZE + (long) rowCount * rowSize
+                || heapStart + heapLength > buffer.capacity()) {
+            throw invalid(file);
+        }
+        this.heapOffset = (int) heapStart;
+        this.enumTables = readEnumTables(codec.enums(), buffer.getInt(ENUM_TABLES_OFFSET));
+        this.index = buildIndex();
+    }
+
+    /**
+     * Returns the number of resources in the snapshot.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the row of the resource with the given ID, or -1 if it isn't in the snapshot.
+     *
+     * If a resource was appended more than once, the last row written for it is returned.
+     */
+    public int indexOf(String id) {
+        if (id == null || id.isEmpty() || id.length() > RowCodec.ID_WIDTH) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = hash(id) & mask; index[slot] != -1; slot = (slot + 1) & mask) {
+            if (idEquals(index[slot], id)) {
+                return index[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the ID of the resource in the given row.
+     */
+    public String getId(int row) {
+        return readId(row, 0);
+    }
+
+    /**
+     * Returns the `created_at` timestamp that events should be listed from to bring the
+     * resources in the snapshot up to date, or null if it has none.
+     */
+    public String getCreatedAtHighWater() {
+        return Dates.formatTimestamp(buffer.getLong(HIGH_WATER_OFFSET));
+    }
+
+    /**
+     * Returns the ID of the last event applied to the resources in the snapshot, or null if it
+     * has none.
+     */
+    public String getLastEventId() {
+        return readAscii(LAST_EVENT_ID_OFFSET, RowCodec.ID_WIDTH);
+    }
+
+    String readId(int row, int column) {
+        return readAscii(rowOffset(row) + column, RowCodec.ID_WIDTH);
+    }
+
+    byte readByte(int row, int column) {
+        return buffer.get(rowOffset(row) + column);
+    }
+
+    int readInt(int row, int column) {
+        return buffer.getInt(rowOffset(row) + column);
+    }
+
+    long readLong(int row, int column) {
+        return buffer.getLong(rowOffset(row) + column);
+    }
+
+    Integer readInteger(int row, int column) {
+        int value = readInt(row, column);
+        return value == Integer.MIN_VALUE ? null : value;
+    }
+
+    /**
+     * Reads an enum stored as its ordinal when the snapshot was written, returning null if the
+     * constant has since been removed.
+     */
+    <E extends Enum<E>> E readEnum(int row, int column, int table, Class<E> enumClass) {
+        int code = readByte(row, column) & 0xff;
+        Enum<?>[] constants = enumTables[table];
+        return code == 0 || code > constants.length ? null : enumClass.cast(constants[code - 1]);
+    }
+
+    String readString(int row, int column) {
+        int ref = readInt(row, column);
+        return ref == HeapWriter.NULL ? null : readHeapString(heapOffset + ref);
+    }
+
+    Map<String, String> readMap(int row, int column) {
+        int ref = readInt(row, column);
+        if (ref == HeapWriter.NULL) {
+            return null;
+        }
+        int position = heapOffset + ref;
+        int size = buffer.getInt(position);
+        position += 4;
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readHeapString(position);
+            position += 4 + buffer.getInt(position);
+            String value = readHeapString(position);
+            position += 4 + buffer.getInt(position);
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private int rowOffset(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return HEADER_SIZE + row * rowSize;
+    }
+
+    private String readAscii(int position, int width) {
+        char[] chars = new char[width];
+        int length = 0;
+        while (length < width && buffer.get(position + length) != 0) {
+            chars[length] = (char) buffer.get(position + length);
+            length++;
+        }
+        return length == 0 ? null : new String(chars, 0, length);
+    }
+
+    private String readHeapString(int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + 4 + i);
+        }
+        return new String(bytes, HeapWriter.UTF_8);
+    }
+
+    private Enum<?>[][] readEnumTables(List<Class<? extends Enum<?>>> enumClasses, int ref) {
+        Enum<?>[][] tables = new Enum<?>[enumClasses.size()][];
+        int position = heapOffset + ref + 4;
+        for (int i = 0; i < tables.length; i++) {
+            int size = buffer.getInt(position);
+            position += 4;
+            tables[i] = new Enum<?>[size];
+            for (int j = 0; j < size; j++) {
+                tables[i][j] = constantNamed(enumClasses.get(i), readHeapString(position));
+                position += 4 + buffer.getInt(position);
+            }
+        }
+        return tables;
+    }
+
+    private static Enum<?> constantNamed(Class<? extends Enum<?>> enumClass, String name) {
+        for (Enum<?> constant : enumClass.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    private int[] buildIndex() {
+        int capacity = 2;
+        while (capacity < rowCount * 2L) {
+            capacity <<= 1;
+        }
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, -1);
+        int mask = capacity - 1;
+        for (int row = 0; row < rowCount; row++) {
+            String id = getId(row);
+            if (id == null) {
+                continue;
+            }
+            int slot = hash(id) & mask;
+            while (slots[slot] != -1 && !idEquals(slots[slot], id)) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = row;
+        }
+        return slots;
+    }
+
+    private boolean idEquals(int row, String id) {
+        int position = rowOffset(row);
+        for (int i = 0; i < RowCodec.ID_WIDTH; i++) {
+            int expected = i < id.length() ? id.charAt(i) : 0;
+            if (buffer.get(position + i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String id) {
+        int hash = id.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static IOException invalid(File file) {
+        return new IOException("Not a valid snapshot: " + file);
+    }
+}
@@ -0,0 +1,191 @@
+package com.gocardless.mirror;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes resources to a snapshot file one at a time, so that a collection can be streamed to
+ * disk as it is listed from the API, without holding it in memory.
+ *
+ * The snapshot is written to a temporary file in the same directory, which only replaces the
+ * snapshot file once the writer has been closed, so any previous snapshot stays readable until
+ * then, and is left in place if the write fails.
+ *
+ * Writers are created by {@link PaymentSnapshot#newWriter(File)} and
+ * {@link MandateSnapshot#newWriter(File)}, and are not thread-safe.
+ *
+ * @param <R> the type of resource
+ */
+public final class SnapshotWriter<R> implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final RowCodec<R> codec;
+    private final File target;
+    private final File temporary;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final HeapWriter heap;
+    private final ByteBuffer rows;
+    private long position = Snapshot.HEADER_SIZE;
+    private int rowCount;
+    private long createdAtHighWater = Dates.NO_TIMESTAMP;
+    private boolean cursorSet;
+    private String lastEventId;
+    private boolean closed;
+
+    SnapshotWriter(File file, RowCodec<R> codec) throws IOException {
+        this.codec = codec;
+        this.target = file;
+        File directory = file.getAbsoluteFile().getParentFile();
+        this.temporary = File.createTempFile(file.getName() + ".", ".tmp", directory);
+        try {
+            this.file = new RandomAccessFile(temporary, "rw");
+        } catch (IOException | RuntimeException e) {
+            temporary.delete();
+            throw e;
+        }
+        this.channel = this.file.getChannel();
+        try {
+            this.heap =
+                    new HeapWriter(File.createTempFile(file.getName() + ".", ".heap", directory));
+        } catch (IOException | RuntimeException e) {
+            this.file.close();
+            temporary.delete();
+            throw e;
+        }
+        int rowSize = codec.rowSize();
+        this.rows = ByteBuffer.allocate(Math.max(1, BUFFER_SIZE / rowSize) * rowSize);
+    }
+
+    /**
+     * Appends a resource to the snapshot.
+     *
+     * Unless {@link #setCursor(String, String)} is called, the snapshot's `created_at`
+     * high-water mark is the latest `created_at` of the resources appended to it.
+     *
+     * @throws IllegalArgumentException if the resource has an ID which can't be stored in a
+     *         snapshot
+     */
+    public void append(R resource) throws IOException {
+        checkOpen();
+        int rowSize = codec.rowSize();
+        if (rows.remaining() < rowSize) {
+            flushRows();
+        }
+        int offset = rows.position();
+        codec.write(resource, rows, offset, heap);
+        rows.position(offset + rowSize);
+        rowCount++;
+        if (!cursorSet) {
+            long createdAt = Dates.parseTimestamp(codec.createdAtOf(resource));
+            createdAtHighWater = Math.max(createdAtHighWater, createdAt);
+        }
+    }
+
+    /**
+     * Sets the point in the event stream that the snapshot is up to date with, so that a caller
+     * restoring from it can catch up by listing events from there.
+     *
+     * @param createdAtHighWater the `created_at` timestamp to list events from, or null
+     * @param lastEventId the ID of the last event applied to the resources, or null
+     */
+    public void setCursor(String createdAtHighWater, String lastEventId) {
+        checkOpen();
+        this.createdAtHighWater = Dates.parseTimestamp(createdAtHighWater);
+        this.lastEventId = lastEventId;
+        this.cursorSet = true;
+    }
+
+    /**
+     * Writes the heap and header of the snapshot, closes the file and moves it into place.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean written = false;
+        try {
+            flushRows();
+            int enumTables = heap.putEnumTables(codec.enums());
+            heap.close();
+            long heapOffset = position;
+            int heapLength = heap.getLength();
+            if (heapOffset + heapLength > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is larger than 2GB");
+            }
+            // The heap can only be copied in at or before the end of the file, which is short
+            // of where it goes if no rows were written, as the header is written last.
+            file.setLength(heapOffset);
+            copyHeap(heapOffset, heapLength);
+            ByteBuffer header = ByteBuffer.allocate(Snapshot.HEADER_SIZE);
+            header.putInt(Snapshot.MAGIC_OFFSET, Snapshot.MAGIC);
+            header.putShort(Snapshot.VERSION_OFFSET, Snapshot.VERSION);
+            header.put(Snapshot.KIND_OFFSET, codec.kind());
+            header.putInt(Snapshot.ROW_COUNT_OFFSET, rowCount);
+            header.putInt(Snapshot.ROW_SIZE_OFFSET, codec.rowSize());
+            header.putLong(Snapshot.HEAP_OFFSET_OFFSET, heapOffset);
+            header.putInt(Snapshot.HEAP_LENGTH_OFFSET, heapLength);
+            header.putInt(Snapshot.ENUM_TABLES_OFFSET, enumTables);
+            header.putLong(Snapshot.HIGH_WATER_OFFSET, createdAtHighWater);
+            RowCodec.putId(header, Snapshot.LAST_EVENT_ID_OFFSET, lastEventId);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            written = true;
+        } finally {
+            heap.close();
+            heap.getFile().delete();
+            file.close();
+            if (!written) {
+                temporary.delete();
+            }
+        }
+        try {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+    }
+
+    private void flushRows() throws IOException {
+        rows.flip();
+        while (rows.hasRemaining()) {
+            position += channel.write(rows, position);
+        }
+        rows.clear();
+    }
+
+    private void copyHeap(long heapOffset, int heapLength) throws IOException {
+        FileInputStream in = new FileInputStream(heap.getFile());
+        try {
+            FileChannel source = in.getChannel();
+            long copied = 0;
+            while (copied < heapLength) {
+                long bytes = channel.transferFrom(source, heapOffset + copied, heapLength - copied);
+                if (bytes <= 0) {
+                    throw new IOException("Failed to copy snapshot heap");
+                }
+                copied += bytes;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Snapshot writer is closed");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory copies of API resources, kept up to date by events.
+ */
+package com.gocardless.mirror;
@@ -0,0 +1,85 @@
+package com.gocardless.reconciliation;
+
+/**
+ * Parses the decimal amounts of payout items, such as `-12.5`, into exact fixed-point `long`s,
+ * and rounds them back to whole units of currency.
+ */
+final class Amounts {
+    static final int SCALE_DIGITS = 4;
+    static final long SCALE = 10000;
+    // 14 digits before the point times SCALE stays well within a long.
+    private static final int MAX_INTEGER_DIGITS = 14;
+
+    private Amounts() {}
+
+    /**
+     * Parses a decimal amount into units of 1 / {@link #SCALE}.
+     *
+     * @throws IllegalArgumentException if the amount isn't a decimal number, or has more than
+     *         {@link #SCALE_DIGITS} decimal places, so can't be held exactly
+     */
+    static long parse(String amount) {
+        if (amount == null || amount.isEmpty()) {
+            throw malformed(amount);
+        }
+        int position = 0;
+        boolean negative = false;
+        char first = amount.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            position++;
+        }
+        long value = 0;
+        int integerDigits = 0;
+        while (position < amount.length() && amount.charAt(position) != '.') {
+            value = value * 10 + digit(amount, position++);
+            integerDigits++;
+        }
+        if (integerDigits == 0 || integerDigits > MAX_INTEGER_DIGITS) {
+            throw malformed(amount);
+        }
+        int decimalPlaces = 0;
+        if (position < amount.length()) {
+            position++;
+            if (position == amount.length()) {
+                throw malformed(amount);
+            }
+            while (position < amount.length()) {
+                if (++decimalPlaces > SCALE_DIGITS) {
+                    throw new IllegalArgumentException("Amount is more precise than "
+                            + SCALE_DIGITS + " decimal places: " + amount);
+                }
+                value = value * 10 + digit(amount, position++);
+            }
+        }
+        for (int i = decimalPlaces; i < SCALE_DIGITS; i++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Rounds an amount in units of 1 / {@link #SCALE} to the nearest whole unit, with halves
+     * rounded away from zero.
+     */
+    static long round(long amount) {
+        long units = amount / SCALE;
+        long remainder = Math.abs(amount % SCALE);
+        if (remainder * 2 >= SCALE) {
+            units += amount < 0 ? -1 : 1;
+        }
+        return units;
+    }
+
+    private static int digit(String amount, int position) {
+        char c = amount.charAt(position);
+        if (c < '0' || c > '9') {
+            throw malformed(amount);
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException malformed(String amount) {
+        return new IllegalArgumentException("Malformed amount: " + amount);
+    }
+}
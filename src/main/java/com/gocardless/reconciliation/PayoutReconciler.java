@@ -0,0 +1,258 @@
+package com.gocardless.reconciliation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.gocardless.GoCardlessClient;
+import com.gocardless.GoCardlessException;
+import com.gocardless.http.Result;
+import com.gocardless.resources.Payment;
+import com.gocardless.resources.Payout;
+import com.gocardless.resources.PayoutItem;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Reconciles payouts against the items they are made up of and the payments those items link
+ * to.
+ *
+ * For each payout, the reconciler fetches the payout, streams its items, and totals them by
+ * type. Each payment linked to from the items is then fetched, once however many items and
+ * payouts link to it. Payouts, and the payments linked to from them, are all fetched
+ * concurrently, so many payouts can be reconciled at once:
+ *
+ * <pre>
+ * PayoutReconciler reconciler = PayoutReconciler.newBuilder(client).build();
+ * for (PayoutReconciliation reconciliation : reconciler.reconcileAll(payoutIds).values()) {
+ *     if (!reconciliation.isReconciled()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * Requests are made on the executor given to the builder, or otherwise on a pool of threads
+ * started for each call to {@link #reconcileAll(Collection)}. Only the calling thread waits for
+ * requests to complete, so the executor can be shared and bounded without risk of deadlock.
+ */
+public final class PayoutReconciler {
+    private static final PayoutItem.Type[] TYPES = PayoutItem.Type.values();
+    private final GoCardlessClient client;
+    private final Executor executor;
+    private final int concurrency;
+
+    private PayoutReconciler(Builder builder) {
+        this.client = builder.client;
+        this.executor = builder.executor;
+        this.concurrency = builder.concurrency;
+    }
+
+    /**
+     * Returns a builder for a reconciler of payouts from the account the given client accesses.
+     */
+    public static Builder newBuilder(GoCardlessClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Reconciles one payout.
+     *
+     * @throws com.gocardless.GoCardlessException if the payout or its items can't be fetched
+     */
+    public PayoutReconciliation reconcile(String payoutId) throws InterruptedException {
+        return reconcileAll(Collections.singleton(payoutId)).get(payoutId);
+    }
+
+    /**
+     * Reconciles several payouts concurrently, returning their reconciliations keyed by payout
+     * ID, in the order the IDs were given.
+     *
+     * Payments which can't be fetched are reported by
+     * {@link PayoutReconciliation#getUnresolvedPayments()}.
+     *
+     * @throws com.gocardless.GoCardlessException if any payout or its items can't be fetched
+     */
+    public Map<String, PayoutReconciliation> reconcileAll(Collection<String> payoutIds)
+            throws InterruptedException {
+        ExecutorService ownExecutor = null;
+        Executor requestExecutor = executor;
+        if (requestExecutor == null) {
+            ownExecutor = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+                    .setDaemon(true).setNameFormat("gocardless-reconciler-%d").build());
+            requestExecutor = ownExecutor;
+        }
+        try {
+            return reconcileAll(payoutIds, requestExecutor);
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private Map<String, PayoutReconciliation> reconcileAll(Collection<String> payoutIds,
+            Executor requestExecutor) throws InterruptedException {
+        CompletionService<Tally> tallies = new ExecutorCompletionService<>(requestExecutor);
+        Set<String> uniquePayoutIds = new LinkedHashSet<>(payoutIds);
+        for (String payoutId : uniquePayoutIds) {
+            tallies.submit(new TallyPayout(payoutId));
+        }
+        // Start fetching each payout's payments as soon as its items have been listed.
+        Map<String, Tally> tallied = new HashMap<>();
+        Map<String, Future<Payment>> paymentFetches = new HashMap<>();
+        for (int i = 0; i < uniquePayoutIds.size(); i++) {
+            Tally tally = await(tallies.take());
+            tallied.put(tally.payoutId, tally);
+            for (String paymentId : tally.paymentIds) {
+                if (!paymentFetches.containsKey(paymentId)) {
+                    FutureTask<Payment> fetch = new FutureTask<>(new FetchPayment(paymentId));
+                    paymentFetches.put(paymentId, fetch);
+                    requestExecutor.execute(fetch);
+                }
+            }
+        }
+        Map<String, PayoutReconciliation> reconciliations = new LinkedHashMap<>();
+        for (String payoutId : uniquePayoutIds) {
+            Tally tally = tallied.get(payoutId);
+            Map<String, Payment> resolved = new HashMap<>();
+            Set<String> unresolved = new LinkedHashSet<>();
+            for (String paymentId : tally.paymentIds) {
+                Payment payment = await(paymentFetches.get(paymentId));
+                if (payment == null) {
+                    unresolved.add(paymentId);
+                } else {
+                    resolved.put(paymentId, payment);
+                }
+            }
+            reconciliations.put(payoutId, new PayoutReconciliation(tally.payout, tally.totals,
+                    tally.counts, resolved, unresolved));
+        }
+        return reconciliations;
+    }
+
+    private static <T> T await(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * A payout, the totals and counts of its items by type, and the payments they link to.
+     */
+    private static final class Tally {
+        private final String payoutId;
+        private final Payout payout;
+        private final long[] totals = new long[TYPES.length];
+        private final int[] counts = new int[TYPES.length];
+        private final Set<String> paymentIds = new LinkedHashSet<>();
+
+        private Tally(String payoutId, Payout payout) {
+            this.payoutId = payoutId;
+            this.payout = payout;
+        }
+    }
+
+    private final class TallyPayout implements Callable<Tally> {
+        private final String payoutId;
+
+        private TallyPayout(String payoutId) {
+            this.payoutId = payoutId;
+        }
+
+        @Override
+        public Tally call() {
+            Tally tally = new Tally(payoutId, client.payouts().get(payoutId).execute());
+            for (PayoutItem item : client.payoutItems().all().withPayout(payoutId).execute()) {
+                if (item.getType() != null) {
+                    int type = item.getType().ordinal();
+                    tally.totals[type] += Amounts.parse(item.getAmount());
+                    tally.counts[type]++;
+                }
+                if (item.getLinks() != null && item.getLinks().getPayment() != null) {
+                    tally.paymentIds.add(item.getLinks().getPayment());
+                }
+            }
+            return tally;
+        }
+    }
+
+    /**
+     * Fetches a payment, returning null if it can't be fetched.
+     */
+    private final class FetchPayment implements Callable<Payment> {
+        private final String paymentId;
+
+        private FetchPayment(String paymentId) {
+            this.paymentId = paymentId;
+        }
+
+        @Override
+        public Payment call() {
+            try {
+                Result<Payment> result = client.payments().get(paymentId).tryExecute();
+                return result.isSuccess() ? result.getResource() : null;
+            } catch (GoCardlessException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link PayoutReconciler}.
+     */
+    public static final class Builder {
+        private final GoCardlessClient client;
+        private Executor executor;
+        private int concurrency = 8;
+
+        private Builder(GoCardlessClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Sets the executor to make requests on. If this isn't set, each call to
+         * {@link PayoutReconciler#reconcileAll(Collection)} starts its own pool of threads.
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads in the pool started for each call to
+         * {@link PayoutReconciler#reconcileAll(Collection)} if no executor is set. Defaults
+         * to 8.
+         */
+        public Builder withConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Builds the reconciler.
+         */
+        public PayoutReconciler build() {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("concurrency must be at least 1");
+            }
+            return new PayoutReconciler(this);
+        }
+    }
+}
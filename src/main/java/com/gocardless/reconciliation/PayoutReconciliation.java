@@ -0,0 +1,133 @@
+package com.gocardless.reconciliation;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.gocardless.resources.Payment;
+import com.gocardless.resources.Payout;
+import com.gocardless.resources.PayoutItem;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The result of reconciling a payout against its items, returned by {@link PayoutReconciler}.
+ *
+ * Item amounts are in fractions of the currency's smallest unit, which GoCardless records to
+ * more precision than can be paid out. They are totalled exactly, in units of 1 /
+ * {@link #SCALE} of a penny, cent or öre, and only rounded to whole units when compared with
+ * the payout, in the same way as GoCardless calculates the payout.
+ */
+public final class PayoutReconciliation {
+    /**
+     * The number of units item totals are given in per penny, cent or öre.
+     */
+    public static final long SCALE = Amounts.SCALE;
+    private static final PayoutItem.Type[] TYPES = PayoutItem.Type.values();
+    private final Payout payout;
+    private final long[] totals;
+    private final int[] counts;
+    private final ImmutableMap<String, Payment> payments;
+    private final ImmutableSet<String> unresolvedPayments;
+
+    PayoutReconciliation(Payout payout, long[] totals, int[] counts,
+            Map<String, Payment> payments, Set<String> unresolvedPayments) {
+        this.payout = payout;
+        this.totals = totals;
+        this.counts = counts;
+        this.payments = ImmutableMap.copyOf(payments);
+        this.unresolvedPayments = ImmutableSet.copyOf(unresolvedPayments);
+    }
+
+    public Payout getPayout() {
+        return payout;
+    }
+
+    /**
+     * Returns the total of the items of the given type, in units of 1 / {@link #SCALE}.
+     * Credits are positive and debits negative.
+     */
+    public long getItemTotal(PayoutItem.Type type) {
+        return totals[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of items of the given type.
+     */
+    public int getItemCount(PayoutItem.Type type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * Returns the total of every item, in units of 1 / {@link #SCALE}.
+     */
+    public long getItemsTotal() {
+        long total = 0;
+        for (PayoutItem.Type type : TYPES) {
+            total += totals[type.ordinal()];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the amount the items add up to, rounded to the nearest penny, cent or öre.
+     */
+    public long getExpectedAmount() {
+        return Amounts.round(getItemsTotal());
+    }
+
+    /**
+     * Returns the fees the items show were deducted from the payout, rounded to the nearest
+     * penny, cent or öre. This is the GoCardless and app fees charged, less any refunded.
+     */
+    public long getExpectedDeductedFees() {
+        return -Amounts.round(getItemTotal(PayoutItem.Type.GOCARDLESS_FEE)
+                + getItemTotal(PayoutItem.Type.APP_FEE));
+    }
+
+    /**
+     * Returns true if the items add up to the payout's amount.
+     */
+    public boolean isAmountReconciled() {
+        return payout.getAmount() != null && payout.getAmount() == getExpectedAmount();
+    }
+
+    /**
+     * Returns true if the fees in the items add up to the payout's deducted fees.
+     */
+    public boolean isDeductedFeesReconciled() {
+        long deductedFees = payout.getDeductedFees() == null ? 0 : payout.getDeductedFees();
+        return deductedFees == getExpectedDeductedFees();
+    }
+
+    /**
+     * Returns true if the amount and deducted fees both reconcile, and every payment the items
+     * link to was fetched.
+     */
+    public boolean isReconciled() {
+        return isAmountReconciled() && isDeductedFeesReconciled() && unresolvedPayments.isEmpty();
+    }
+
+    /**
+     * Returns the payments the items link to, keyed by ID.
+     */
+    public ImmutableMap<String, Payment> getPayments() {
+        return payments;
+    }
+
+    /**
+     * Returns the IDs of the payments the items link to which couldn't be fetched.
+     */
+    public ImmutableSet<String> getUnresolvedPayments() {
+        return unresolvedPayments;
+    }
+
+    @Override
+    public String toString() {
+        return "PayoutReconciliation{payout=" + payout.getId() + ", amount=" + payout.getAmount()
+                + ", expectedAmount=" + getExpectedAmount() + ", deductedFees="
+                + payout.getDeductedFees() + ", expectedDeductedFees="
+                + getExpectedDeductedFees() + ", unresolvedPayments=" + unresolvedPayments.size()
+                + "}";
+    }
+}
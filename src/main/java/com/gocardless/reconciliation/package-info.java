@@ -0,0 +1,4 @@
+/**
+ * Reconciliation of payouts against the items and payments they are made up of.
+ */
+package com.gocardless.reconciliation;
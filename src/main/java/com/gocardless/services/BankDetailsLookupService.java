@@ -1,5 +1,7 @@
 package com.gocardless.services;
 
+import java.util.concurrent.TimeUnit;
+
 import com.gocardless.http.*;
 import com.gocardless.resources.BankDetailsLookup;
 
@@ -117,6 +119,16 @@ public class BankDetailsLookupService {
             return this;
         }
 
+        public BankDetailsLookupCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public BankDetailsLookupCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "bank_details_lookups";
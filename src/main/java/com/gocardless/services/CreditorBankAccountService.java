@@ -3,6 +3,7 @@ package com.gocardless.services;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.CreditorBankAccount;
@@ -10,6 +11,8 @@ import com.gocardless.resources.CreditorBankAccount;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with creditor bank account resources.
  *
@@ -56,6 +59,11 @@ public class CreditorBankAccountService {
                 ListRequest.<CreditorBankAccount>iteratingExecutor());
     }
 
+    public CreditorBankAccountListRequest<Publisher<CreditorBankAccount>> publish() {
+        return new CreditorBankAccountListRequest<>(httpClient,
+                ListRequest.<CreditorBankAccount>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of an existing creditor bank account.
      */
@@ -229,6 +237,16 @@ public class CreditorBankAccountService {
             return this;
         }
 
+        public CreditorBankAccountCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorBankAccountCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "creditor_bank_accounts";
@@ -372,6 +390,16 @@ public class CreditorBankAccountService {
             return this;
         }
 
+        public CreditorBankAccountListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorBankAccountListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -479,6 +507,16 @@ public class CreditorBankAccountService {
             return this;
         }
 
+        public CreditorBankAccountGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorBankAccountGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -527,6 +565,16 @@ public class CreditorBankAccountService {
             return this;
         }
 
+        public CreditorBankAccountDisableRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorBankAccountDisableRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
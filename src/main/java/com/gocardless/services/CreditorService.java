@@ -3,6 +3,7 @@ package com.gocardless.services;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Creditor;
@@ -10,6 +11,8 @@ import com.gocardless.resources.Creditor;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with creditor resources.
  *
@@ -50,6 +53,10 @@ public class CreditorService {
         return new CreditorListRequest<>(httpClient, ListRequest.<Creditor>iteratingExecutor());
     }
 
+    public CreditorListRequest<Publisher<Creditor>> publish() {
+        return new CreditorListRequest<>(httpClient, ListRequest.<Creditor>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of an existing creditor.
      */
@@ -181,6 +188,16 @@ public class CreditorService {
             return this;
         }
 
+        public CreditorCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "creditors";
@@ -292,6 +309,16 @@ public class CreditorService {
             return this;
         }
 
+        public CreditorListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -393,6 +420,16 @@ public class CreditorService {
             return this;
         }
 
+        public CreditorGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -581,6 +618,16 @@ public class CreditorService {
             return this;
         }
 
+        public CreditorUpdateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CreditorUpdateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -3,6 +3,7 @@ package com.gocardless.services;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.CustomerBankAccount;
@@ -10,6 +11,8 @@ import com.gocardless.resources.CustomerBankAccount;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with customer bank account resources.
  *
@@ -65,6 +68,11 @@ public class CustomerBankAccountService {
                 ListRequest.<CustomerBankAccount>iteratingExecutor());
     }
 
+    public CustomerBankAccountListRequest<Publisher<CustomerBankAccount>> publish() {
+        return new CustomerBankAccountListRequest<>(httpClient,
+                ListRequest.<CustomerBankAccount>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of an existing bank account.
      */
@@ -258,6 +266,16 @@ public class CustomerBankAccountService {
             return this;
         }
 
+        public CustomerBankAccountCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerBankAccountCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "customer_bank_accounts";
@@ -411,6 +429,16 @@ public class CustomerBankAccountService {
             return this;
         }
 
+        public CustomerBankAccountListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerBankAccountListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -518,6 +546,16 @@ public class CustomerBankAccountService {
             return this;
         }
 
+        public CustomerBankAccountGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerBankAccountGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -583,6 +621,16 @@ public class CustomerBankAccountService {
             return this;
         }
 
+        public CustomerBankAccountUpdateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerBankAccountUpdateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -636,6 +684,16 @@ public class CustomerBankAccountService {
             return this;
         }
 
+        public CustomerBankAccountDisableRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerBankAccountDisableRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
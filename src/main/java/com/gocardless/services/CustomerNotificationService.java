@@ -1,6 +1,7 @@
 package com.gocardless.services;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.CustomerNotification;
@@ -71,6 +72,16 @@ public class CustomerNotificationService {
             return this;
         }
 
+        public CustomerNotificationHandleRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerNotificationHandleRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -3,6 +3,7 @@ package com.gocardless.services;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Customer;
@@ -10,6 +11,8 @@ import com.gocardless.resources.Customer;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with customer resources.
  *
@@ -53,6 +56,10 @@ public class CustomerService {
         return new CustomerListRequest<>(httpClient, ListRequest.<Customer>iteratingExecutor());
     }
 
+    public CustomerListRequest<Publisher<Customer>> publish() {
+        return new CustomerListRequest<>(httpClient, ListRequest.<Customer>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of an existing customer.
      */
@@ -254,6 +261,16 @@ public class CustomerService {
             return this;
         }
 
+        public CustomerCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "customers";
@@ -365,6 +382,16 @@ public class CustomerService {
             return this;
         }
 
+        public CustomerListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -466,6 +493,16 @@ public class CustomerService {
             return this;
         }
 
+        public CustomerGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -665,6 +702,16 @@ public class CustomerService {
             return this;
         }
 
+        public CustomerUpdateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public CustomerUpdateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -2,6 +2,7 @@ package com.gocardless.services;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Event;
@@ -10,6 +11,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with event resources.
  *
@@ -39,6 +42,10 @@ public class EventService {
         return new EventListRequest<>(httpClient, ListRequest.<Event>iteratingExecutor());
     }
 
+    public EventListRequest<Publisher<Event>> publish() {
+        return new EventListRequest<>(httpClient, ListRequest.<Event>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of a single event.
      */
@@ -239,6 +246,16 @@ public class EventService {
             return this;
         }
 
+        public EventListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public EventListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -393,6 +410,16 @@ public class EventService {
             return this;
         }
 
+        public EventGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public EventGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -2,6 +2,7 @@ package com.gocardless.services;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.MandateImportEntry;
@@ -9,6 +10,8 @@ import com.gocardless.resources.MandateImportEntry;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with mandate import entry resources.
  *
@@ -76,6 +79,11 @@ public class MandateImportEntryService {
                 ListRequest.<MandateImportEntry>iteratingExecutor());
     }
 
+    public MandateImportEntryListRequest<Publisher<MandateImportEntry>> publish() {
+        return new MandateImportEntryListRequest<>(httpClient,
+                ListRequest.<MandateImportEntry>publishingExecutor());
+    }
+
     /**
      * Request class for {@link MandateImportEntryService#create }.
      *
@@ -426,6 +434,16 @@ public class MandateImportEntryService {
             return this;
         }
 
+        public MandateImportEntryCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public MandateImportEntryCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "mandate_import_entries";
@@ -755,6 +773,16 @@ public class MandateImportEntryService {
             return this;
         }
 
+        public MandateImportEntryListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public MandateImportEntryListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
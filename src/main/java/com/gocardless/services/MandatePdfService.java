@@ -1,5 +1,7 @@
 package com.gocardless.services;
 
+import java.util.concurrent.TimeUnit;
+
 import com.gocardless.http.*;
 import com.gocardless.resources.MandatePdf;
 
@@ -286,6 +288,16 @@ public class MandatePdfService {
             return this;
         }
 
+        public MandatePdfCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public MandatePdfCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "mandate_pdfs";
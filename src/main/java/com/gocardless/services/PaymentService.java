@@ -3,6 +3,7 @@ package com.gocardless.services;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Payment;
@@ -11,6 +12,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with payment resources.
  *
@@ -55,6 +58,10 @@ public class PaymentService {
         return new PaymentListRequest<>(httpClient, ListRequest.<Payment>iteratingExecutor());
     }
 
+    public PaymentListRequest<Publisher<Payment>> publish() {
+        return new PaymentListRequest<>(httpClient, ListRequest.<Payment>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of a single existing payment.
      */
@@ -232,6 +239,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "payments";
@@ -439,6 +456,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -589,6 +616,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -653,6 +690,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentUpdateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentUpdateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -726,6 +773,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentCancelRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentCancelRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -808,6 +865,16 @@ public class PaymentService {
             return this;
         }
 
+        public PaymentRetryRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PaymentRetryRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
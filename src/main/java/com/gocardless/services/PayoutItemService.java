@@ -2,6 +2,7 @@ package com.gocardless.services;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.PayoutItem;
@@ -9,6 +10,8 @@ import com.gocardless.resources.PayoutItem;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with payout item resources.
  *
@@ -49,6 +52,11 @@ public class PayoutItemService {
         return new PayoutItemListRequest<>(httpClient, ListRequest.<PayoutItem>iteratingExecutor());
     }
 
+    public PayoutItemListRequest<Publisher<PayoutItem>> publish() {
+        return new PayoutItemListRequest<>(httpClient,
+                ListRequest.<PayoutItem>publishingExecutor());
+    }
+
     /**
      * Request class for {@link PayoutItemService#list }.
      *
@@ -100,6 +108,16 @@ public class PayoutItemService {
             return this;
         }
 
+        public PayoutItemListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PayoutItemListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -2,6 +2,7 @@ package com.gocardless.services;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Payout;
@@ -10,6 +11,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with payout resources.
  *
@@ -40,6 +43,10 @@ public class PayoutService {
         return new PayoutListRequest<>(httpClient, ListRequest.<Payout>iteratingExecutor());
     }
 
+    public PayoutListRequest<Publisher<Payout>> publish() {
+        return new PayoutListRequest<>(httpClient, ListRequest.<Payout>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of a single payout. For an example of how to reconcile the transactions in a
      * payout, see [this guide](#events-reconciling-payouts-with-events).
@@ -197,6 +204,16 @@ public class PayoutService {
             return this;
         }
 
+        public PayoutListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PayoutListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -351,6 +368,16 @@ public class PayoutService {
             return this;
         }
 
+        public PayoutGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public PayoutGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.http.*;
 import com.gocardless.resources.Subscription;
@@ -13,6 +14,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Service class for working with subscription resources.
  *
@@ -98,6 +101,11 @@ public class SubscriptionService {
                 ListRequest.<Subscription>iteratingExecutor());
     }
 
+    public SubscriptionListRequest<Publisher<Subscription>> publish() {
+        return new SubscriptionListRequest<>(httpClient,
+                ListRequest.<Subscription>publishingExecutor());
+    }
+
     /**
      * Retrieves the details of a single subscription.
      */
@@ -337,6 +345,16 @@ public class SubscriptionService {
             return this;
         }
 
+        public SubscriptionCreateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public SubscriptionCreateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected String getPathTemplate() {
             return "subscriptions";
@@ -531,6 +549,16 @@ public class SubscriptionService {
             return this;
         }
 
+        public SubscriptionListRequest<S> withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public SubscriptionListRequest<S> withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, Object> getQueryParams() {
             ImmutableMap.Builder<String, Object> params = ImmutableMap.builder();
@@ -641,6 +669,16 @@ public class SubscriptionService {
             return this;
         }
 
+        public SubscriptionGetRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public SubscriptionGetRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -769,6 +807,16 @@ public class SubscriptionService {
             return this;
         }
 
+        public SubscriptionUpdateRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public SubscriptionUpdateRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
@@ -842,6 +890,16 @@ public class SubscriptionService {
             return this;
         }
 
+        public SubscriptionCancelRequest withTimeout(long timeout, TimeUnit unit) {
+            this.setTimeout(timeout, unit);
+            return this;
+        }
+
+        public SubscriptionCancelRequest withPriority(RequestPriority priority) {
+            this.setPriority(priority);
+            return this;
+        }
+
         @Override
         protected Map<String, String> getPathParams() {
             ImmutableMap.Builder<String, String> params = ImmutableMap.builder();
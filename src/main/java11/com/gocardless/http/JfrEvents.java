@@ -0,0 +1,187 @@
+package com.gocardless.http;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emits Java Flight Recorder events for requests, retries, page fetches and webhooks.
+ *
+ * This is the version of the class used on Java 11 and later. The events are disabled unless
+ * a recording enables them, and creating a disabled event is optimised away by the JIT, so
+ * they cost next to nothing when nobody is recording.
+ */
+final class JfrEvents {
+    private JfrEvents() {}
+
+    static Object beginRequest() {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitRequest(Object event, String method, String pathTemplate, int statusCode,
+            long bytes) {
+        if (event == null) {
+            return;
+        }
+        RequestEvent request = (RequestEvent) event;
+        request.method = method;
+        request.pathTemplate = pathTemplate;
+        request.statusCode = statusCode;
+        request.bytes = bytes;
+        request.commit();
+    }
+
+    static void retry(String method, String pathTemplate, int attempt, Throwable cause) {
+        RetryEvent event = new RetryEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.method = method;
+        event.pathTemplate = pathTemplate;
+        event.attempt = attempt;
+        event.cause = cause == null ? null : cause.getClass().getName();
+        event.message = cause == null ? null : cause.getMessage();
+        event.commit();
+    }
+
+    static Object beginPageFetch() {
+        PageFetchEvent event = new PageFetchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitPageFetch(Object event, String pathTemplate, int items, boolean lastPage) {
+        if (event == null) {
+            return;
+        }
+        PageFetchEvent page = (PageFetchEvent) event;
+        page.pathTemplate = pathTemplate;
+        page.items = items;
+        page.lastPage = lastPage;
+        page.commit();
+    }
+
+    static Object beginWebhookVerify() {
+        WebhookVerifyEvent event = new WebhookVerifyEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitWebhookVerify(Object event, boolean valid) {
+        if (event == null) {
+            return;
+        }
+        WebhookVerifyEvent verify = (WebhookVerifyEvent) event;
+        verify.valid = valid;
+        verify.commit();
+    }
+
+    static Object beginWebhookParse() {
+        WebhookParseEvent event = new WebhookParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitWebhookParse(Object event, int events) {
+        if (event == null) {
+            return;
+        }
+        WebhookParseEvent parse = (WebhookParseEvent) event;
+        parse.events = events;
+        parse.commit();
+    }
+
+    @Name("com.gocardless.Request")
+    @Label("API Request")
+    @Description("A single attempt at an API request, from queueing to reading the response")
+    @Category({"GoCardless", "HTTP"})
+    @StackTrace(false)
+    static final class RequestEvent extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Path Template")
+        String pathTemplate;
+
+        @Label("Status Code")
+        int statusCode;
+
+        @Label("Response Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.gocardless.Retry")
+    @Label("API Request Retry")
+    @Description("A failed attempt at an API request which may be retried")
+    @Category({"GoCardless", "HTTP"})
+    static final class RetryEvent extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Path Template")
+        String pathTemplate;
+
+        @Label("Attempt")
+        int attempt;
+
+        @Label("Cause")
+        String cause;
+
+        @Label("Message")
+        String message;
+    }
+
+    @Name("com.gocardless.PageFetch")
+    @Label("List Page Fetch")
+    @Description("A page fetched while iterating through a list endpoint")
+    @Category({"GoCardless", "HTTP"})
+    @StackTrace(false)
+    static final class PageFetchEvent extends Event {
+        @Label("Path Template")
+        String pathTemplate;
+
+        @Label("Items")
+        @Description("The number of items on the page, or -1 if it wasn't parsed")
+        int items;
+
+        @Label("Last Page")
+        boolean lastPage;
+    }
+
+    @Name("com.gocardless.WebhookVerify")
+    @Label("Webhook Signature Verification")
+    @Category({"GoCardless", "Webhooks"})
+    @StackTrace(false)
+    static final class WebhookVerifyEvent extends Event {
+        @Label("Valid")
+        boolean valid;
+    }
+
+    @Name("com.gocardless.WebhookParse")
+    @Label("Webhook Parse")
+    @Category({"GoCardless", "Webhooks"})
+    @StackTrace(false)
+    static final class WebhookParseEvent extends Event {
+        @Label("Events")
+        int events;
+    }
+}
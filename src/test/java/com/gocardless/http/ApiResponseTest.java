@@ -0,0 +1,64 @@
+package com.gocardless.http;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiResponseTest {
+    @Test
+    public void shouldReadRateLimitHeaders() {
+        ApiResponse<String> response = response(ImmutableMap.of(
+                "RateLimit-Limit", "1000",
+                "RateLimit-Remaining", "997",
+                "RateLimit-Reset", "Thu, 01 Jan 2015 01:02:03 GMT",
+                "Request-Id", "ABC123"));
+        assertThat(response.getRateLimitLimit()).isEqualTo(1000);
+        assertThat(response.getRateLimitRemaining()).isEqualTo(997);
+        assertThat(response.getRateLimitReset()).isEqualTo(1420074123000L);
+        assertThat(response.getRequestId()).isEqualTo("ABC123");
+    }
+
+    @Test
+    public void shouldReturnDefaultsForMissingOrMalformedHeaders() {
+        ApiResponse<String> response = response(ImmutableMap.of(
+                "RateLimit-Remaining", "lots",
+                "RateLimit-Reset", "tomorrow"));
+        assertThat(response.getRateLimitLimit()).isEqualTo(-1);
+        assertThat(response.getRateLimitRemaining()).isEqualTo(-1);
+        assertThat(response.getRateLimitReset()).isEqualTo(-1);
+        assertThat(response.getRequestId()).isNull();
+    }
+
+    @Test
+    public void shouldExposeAllHeadersAsMultimap() {
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(null, Collections.singletonList("HTTP/1.1 200 OK"));
+        headers.put("Vary", Arrays.asList("Accept", "Accept-Encoding"));
+        ApiResponse<String> response = new ApiResponse<>("resource", 200, headers);
+        assertThat(response.getHeaders().get("Vary")).containsExactly("Accept", "Accept-Encoding");
+        assertThat(response.getHeader("vary")).isEqualTo("Accept-Encoding");
+    }
+
+    @Test
+    public void shouldCountDaysFromEpoch() {
+        assertThat(ResponseHeaders.epochDay(1970, 1, 1)).isEqualTo(0);
+        assertThat(ResponseHeaders.epochDay(2000, 3, 1)).isEqualTo(11017);
+        assertThat(ResponseHeaders.epochDay(1969, 12, 31)).isEqualTo(-1);
+    }
+
+    private static ApiResponse<String> response(Map<String, String> headers) {
+        ImmutableMap.Builder<String, List<String>> multimap = ImmutableMap.builder();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            multimap.put(header.getKey(), Collections.singletonList(header.getValue()));
+        }
+        return new ApiResponse<>("resource", 200, multimap.build());
+    }
+}
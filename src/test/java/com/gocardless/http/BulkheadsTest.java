@@ -0,0 +1,108 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkheadsTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldNameServicesAfterFirstPathSegment() {
+        assertThat(Bulkheads.serviceOf("payments")).isEqualTo("payments");
+        assertThat(Bulkheads.serviceOf("/redirect_flows/:identity/actions/complete"))
+                .isEqualTo("redirect_flows");
+    }
+
+    @Test
+    public void shouldOnlyLimitConfiguredServices() {
+        Bulkheads bulkheads = Bulkheads.newBuilder().withLimit("payments", 2).build();
+        assertThat(bulkheads.forService("payments").getLimit()).isEqualTo(2);
+        assertThat(bulkheads.forService("redirect_flows")).isNull();
+    }
+
+    @Test
+    public void shouldApplyDefaultLimitToOtherServices() {
+        Bulkheads bulkheads =
+                Bulkheads.newBuilder().withLimit("payments", 2).withDefaultLimit(5).build();
+        assertThat(bulkheads.forService("redirect_flows").getLimit()).isEqualTo(5);
+        assertThat(bulkheads.getBulkheads()).containsOnlyKeys("redirect_flows");
+    }
+
+    @Test
+    public void shouldRejectWhenServiceHasTooManyRequestsInFlight() {
+        Bulkhead bulkhead =
+                Bulkheads.newBuilder().withLimit("payments", 1)
+                        .withMaxWait(10, TimeUnit.MILLISECONDS).build().forService("payments");
+        bulkhead.acquire(null);
+        assertThat(bulkhead.getInFlight()).isEqualTo(1);
+        try {
+            bulkhead.acquire(null);
+        } catch (BulkheadFullException e) {
+            assertThat(e.getMessage()).contains("payments");
+        }
+        assertThat(bulkhead.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotAffectOtherServices() throws Exception {
+        Bulkheads bulkheads =
+                Bulkheads.newBuilder().withLimit("dummy", 1)
+                        .withMaxWait(10, TimeUnit.MILLISECONDS).build();
+        HttpClient client = http.client();
+        client.setBulkheads(bulkheads);
+        bulkheads.forService("dummy").acquire(null);
+        http.enqueueResponse(200, "fixtures/single.json");
+        DummyItem result = new DummyGetRequest(client, "/other").execute();
+        assertThat(result.stringField).isEqualTo("foo");
+        exception.expect(BulkheadFullException.class);
+        new DummyGetRequest(client, "/dummy").execute();
+    }
+
+    @Test
+    public void shouldReleasePermitWhenRequestCompletes() throws Exception {
+        Bulkheads bulkheads = Bulkheads.newBuilder().withLimit("dummy", 1).build();
+        HttpClient client = http.client();
+        client.setBulkheads(bulkheads);
+        http.enqueueResponse(200, "fixtures/single.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        new DummyGetRequest(client, "/dummy").execute();
+        new DummyGetRequest(client, "/dummy").execute();
+        Bulkhead bulkhead = client.getMetrics().getBulkheads().forService("dummy");
+        assertThat(bulkhead.getInFlight()).isEqualTo(0);
+        assertThat(bulkhead.getRejected()).isEqualTo(0);
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        private final String pathTemplate;
+
+        DummyGetRequest(HttpClient httpClient, String pathTemplate) {
+            super(httpClient);
+            this.pathTemplate = pathTemplate;
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return pathTemplate;
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+}
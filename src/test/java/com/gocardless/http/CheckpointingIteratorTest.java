@@ -0,0 +1,100 @@
+package com.gocardless.http;
+
+import com.gocardless.GoCardlessException;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+import com.gocardless.http.ListRequestTest.DummyListRequest;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class CheckpointingIteratorTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldResumeFromEncodedCheckpoint() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        DummyListRequest<Iterable<DummyItem>> request =
+                DummyListRequest.iterableRequest(http.client());
+        request.setLimit(2);
+        CheckpointingIterator<DummyItem> iterator = request.checkpointingIterator();
+        assertThat(iterator.next().stringField).isEqualTo("foo");
+        IterationCheckpoint checkpoint = iterator.checkpoint();
+        assertThat(checkpoint.getFilters()).isEqualTo(ImmutableMap.of("limit", "2", "id", "123"));
+        assertThat(checkpoint.getAfter()).isNull();
+        assertThat(checkpoint.getPosition()).isEqualTo(1);
+        String encoded = checkpoint.encode();
+        assertThat(IterationCheckpoint.decode(encoded)).isEqualTo(checkpoint);
+
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        CheckpointingIterator<DummyItem> resumed = DummyListRequest
+                .iterableRequest(http.client()).resumeFrom(IterationCheckpoint.decode(encoded));
+        assertThat(resumed.next().stringField).isEqualTo("bar");
+        assertThat(resumed.checkpoint().getAfter()).isEqualTo("ID123");
+        assertThat(resumed.checkpoint().getPosition()).isEqualTo(0);
+        assertThat(resumed.next().stringField).isEqualTo("baz");
+        assertThat(resumed.hasNext()).isFalse();
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123");
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123");
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123&after=ID123");
+    }
+
+    @Test
+    public void shouldKeepPlaceWhenPageCannotBeFetched() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        CheckpointingIterator<DummyItem> iterator =
+                DummyListRequest.iterableRequest(http.client()).checkpointingIterator();
+        iterator.next();
+        iterator.next();
+        try {
+            iterator.hasNext();
+            fail("Expected the page fetch to fail");
+        } catch (GoCardlessException e) {
+            assertThat(iterator.checkpoint().getAfter()).isEqualTo("ID123");
+            assertThat(iterator.checkpoint().getPosition()).isEqualTo(0);
+        }
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        assertThat(iterator.next().stringField).isEqualTo("baz");
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldLeaveRequestAsItWasWhenResuming() throws Exception {
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        DummyListRequest<ListResponse<DummyItem>> request =
+                DummyListRequest.pageRequest(http.client());
+        CheckpointingIterator<DummyItem> resumed = request.resumeFrom(new IterationCheckpoint(
+                "/dummy", ImmutableMap.of("limit", "2", "id", "123"), "ID123", 0));
+        assertThat(resumed.next().stringField).isEqualTo("baz");
+        assertThat(resumed.hasNext()).isFalse();
+        request.setLimit(5);
+        assertThat(request.execute().getItems()).hasSize(2);
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123&after=ID123");
+        http.assertRequestMade("GET", "/dummy?limit=5&id=123");
+    }
+
+    @Test
+    public void shouldRejectCheckpointForAnotherList() {
+        IterationCheckpoint checkpoint = new IterationCheckpoint("/other",
+                ImmutableMap.<String, String>of(), "ID123", 0);
+        exception.expect(IllegalArgumentException.class);
+        DummyListRequest.iterableRequest(http.client()).resumeFrom(checkpoint);
+    }
+
+    @Test
+    public void shouldRejectMalformedCheckpoint() {
+        exception.expect(IllegalArgumentException.class);
+        IterationCheckpoint.decode("not a checkpoint");
+    }
+}
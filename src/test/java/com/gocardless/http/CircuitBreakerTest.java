@@ -0,0 +1,165 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.http.CircuitBreaker.Phase;
+import com.gocardless.http.CircuitBreaker.State;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(20);
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldStayClosedUntilMinimumCallsAreSeen() {
+        CircuitBreaker breaker = breakers(0).forEndpoint("payments");
+        for (int i = 0; i < 3; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.DROPPED, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.getFailureRate()).isEqualTo(100.0);
+    }
+
+    @Test
+    public void shouldOpenAndFailFastWhenFailureRateIsExceeded() {
+        CircuitBreaker breaker = breakers(TimeUnit.MINUTES.toNanos(1)).forEndpoint("payments");
+        for (int i = 0; i < 4; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.DROPPED, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        exception.expect(CircuitBreakerOpenException.class);
+        exception.expectMessage("payments");
+        breaker.acquire();
+    }
+
+    @Test
+    public void shouldOpenWhenTooManyCallsAreSlow() {
+        CircuitBreaker breaker = breakers(TimeUnit.MINUTES.toNanos(1)).forEndpoint("payments");
+        for (int i = 0; i < 4; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.SUCCESS, SLOW);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void shouldOnlyConsiderTheMostRecentCalls() {
+        CircuitBreaker breaker = breakers(0).forEndpoint("payments");
+        for (int i = 0; i < 7; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.SUCCESS, FAST);
+        }
+        for (int i = 0; i < 3; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.DROPPED, FAST);
+        }
+        assertThat(breaker.getFailureRate()).isEqualTo(30.0);
+        for (int i = 0; i < 10; i++) {
+            breaker.record(breaker.acquire(), CallOutcome.SUCCESS, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.getFailureRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulProbes() {
+        CircuitBreaker breaker = tripped(breakers(0).forEndpoint("payments"));
+        Phase first = breaker.acquire();
+        Phase second = breaker.acquire();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.record(first, CallOutcome.SUCCESS, FAST);
+        breaker.record(second, CallOutcome.SUCCESS, FAST);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void shouldOnlyLetProbesThroughWhenHalfOpen() {
+        CircuitBreaker breaker = tripped(breakers(0).forEndpoint("payments"));
+        breaker.acquire();
+        breaker.acquire();
+        try {
+            breaker.acquire();
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        assertThat(breaker.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReopenWhenProbeFails() {
+        CircuitBreaker breaker = tripped(breakers(0).forEndpoint("payments"));
+        Phase probe = breaker.acquire();
+        breaker.record(probe, CallOutcome.DROPPED, FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void shouldKeepEndpointsSeparate() {
+        CircuitBreakers breakers = breakers(TimeUnit.MINUTES.toNanos(1));
+        tripped(breakers.forEndpoint("payments"));
+        assertThat(breakers.forEndpoint("mandates").getState()).isEqualTo(State.CLOSED);
+        assertThat(breakers.getBreakers()).containsOnlyKeys("payments", "mandates");
+    }
+
+    @Test
+    public void shouldNotRetryWhenBreakerOpens() throws Exception {
+        CircuitBreakers breakers =
+                CircuitBreakers.newBuilder().withWindowSize(1).withMinimumCalls(1)
+                        .withOpenDuration(1, TimeUnit.MINUTES).build();
+        HttpClient client = http.client();
+        client.setCircuitBreakers(breakers);
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        exception.expect(CircuitBreakerOpenException.class);
+        try {
+            new DummyGetRequest(client).execute();
+        } finally {
+            CircuitBreaker breaker =
+                    client.getMetrics().getCircuitBreakers().forEndpoint("/dummy");
+            assertThat(breaker.getState()).isEqualTo(State.OPEN);
+            assertThat(breaker.getRejected()).isEqualTo(1);
+        }
+    }
+
+    private static CircuitBreakers breakers(long openDurationNanos) {
+        return CircuitBreakers.newBuilder().withWindowSize(10).withMinimumCalls(4)
+                .withFailureRateThreshold(50).withSlowCallThreshold(10, TimeUnit.SECONDS)
+                .withOpenDuration(openDurationNanos, TimeUnit.NANOSECONDS).withHalfOpenProbes(2)
+                .build();
+    }
+
+    private static CircuitBreaker tripped(CircuitBreaker breaker) {
+        while (breaker.getState() == State.CLOSED) {
+            breaker.record(breaker.acquire(), CallOutcome.DROPPED, FAST);
+        }
+        return breaker;
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        DummyGetRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.gocardless.http;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.GoCardlessClient;
+import com.gocardless.TestUtil;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import com.google.common.base.Stopwatch;
+import com.google.gson.reflect.TypeToken;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Compares fetching a 500-item list page with and without gzip compression, over a
+ * local connection throttled to roughly the speed of a slow WAN link.
+ *
+ * This isn't run as part of the test suite - run it with `./gradlew compressionBenchmark`.
+ */
+public class CompressionBenchmark {
+    private static final int ITEMS = 500;
+    private static final int ROUNDS = 5;
+    private static final long BYTES_PER_SECOND = 256 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        String page = buildPage();
+        Buffer compressed = gzip(page);
+        System.out.printf("500-item page: %d bytes raw, %d bytes gzipped%n",
+                page.getBytes("UTF-8").length, compressed.size());
+        run("identity", page, false);
+        run("gzip", page, true);
+    }
+
+    private static void run(String name, String page, boolean compress) throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < ROUNDS; i++) {
+            MockResponse response = new MockResponse();
+            if (compress) {
+                response.setBody(gzip(page)).setHeader("Content-Encoding", "gzip");
+            } else {
+                response.setBody(page);
+            }
+            server.enqueue(response.throttleBody(BYTES_PER_SECOND / 10, 100,
+                    TimeUnit.MILLISECONDS));
+        }
+        server.start();
+        try {
+            GoCardlessClient goCardlessClient =
+                    GoCardlessClient.newBuilder("token")
+                            .withBaseUrl(String.format("http://localhost:%d", server.getPort()))
+                            .build();
+            HttpClient client = TestUtil.getHttpClient(goCardlessClient);
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            for (int i = 0; i < ROUNDS; i++) {
+                ListResponse<DummyItem> result = new BenchmarkListRequest(client).execute();
+                if (result.getItems().size() != ITEMS) {
+                    throw new IllegalStateException("Unexpected page size");
+                }
+            }
+            long elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+            CompressionMetrics metrics = client.getMetrics().getCompression();
+            System.out.printf(
+                    "%-8s received %8d bytes on the wire (%8d raw), %6d ms per page%n", name,
+                    metrics.getResponseBytesReceived() / ROUNDS,
+                    metrics.getResponseBytesRaw() / ROUNDS, elapsed / ROUNDS);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static String buildPage() {
+        StringBuilder builder = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < ITEMS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(String.format(
+                    "{\"string_field\":\"PM%012d\",\"int_field\":%d}", i, i * 100));
+        }
+        builder.append("],\"meta\":{\"cursors\":{\"before\":null,\"after\":\"PM000000000499\"},");
+        builder.append("\"limit\":500}}");
+        return builder.toString();
+    }
+
+    private static Buffer gzip(String body) throws Exception {
+        Buffer compressed = new Buffer();
+        BufferedSink gzip = Okio.buffer(new GzipSink(compressed));
+        gzip.writeUtf8(body);
+        gzip.close();
+        return compressed;
+    }
+
+    private static class BenchmarkListRequest
+            extends ListRequest<ListResponse<DummyItem>, DummyItem> {
+        BenchmarkListRequest(HttpClient httpClient) {
+            super(httpClient, ListRequest.<DummyItem>pagingExecutor());
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected TypeToken<List<DummyItem>> getTypeToken() {
+            return new TypeToken<List<DummyItem>>() {};
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.gocardless.http;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.errors.GoCardlessInternalException;
+import com.gocardless.http.ConcurrencyLimiter.Permit;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static com.gocardless.http.RequestPriority.BATCH;
+import static com.gocardless.http.RequestPriority.INTERACTIVE;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldRejectImmediatelyWhenFullAndNotQueueing() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(2).withMaxQueueSize(0).build();
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        exception.expect(ConcurrencyLimitExceededException.class);
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+    }
+
+    @Test
+    public void shouldCountRejections() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withMinLimit(1).withInitialLimit(1)
+                        .withMaxQueueSize(0).build();
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+        try {
+            limiter.acquire(null, INTERACTIVE, "/dummy");
+        } catch (ConcurrencyLimitExceededException e) {
+            // expected
+        }
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotCountInterruptedWaitsAsRejections() throws Exception {
+        final ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(1)
+                        .withMaxQueueWait(5, TimeUnit.SECONDS).build();
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire(null, INTERACTIVE, "/dummy");
+                } catch (RequestCancelledException e) {
+                    cancelled.countDown();
+                }
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueDepth() == 0) {
+            Thread.sleep(10);
+        }
+        waiter.interrupt();
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getQueueDepth()).isEqualTo(0);
+        assertThat(limiter.getRejected()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldMeasureLatencyUntilResponseArrives() throws Exception {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(10).withBackoffRatio(0.5)
+                        .build();
+        // Reading a slow body after the response arrived doesn't count as latency...
+        Permit permit = limiter.acquire(null, INTERACTIVE, "/dummy");
+        permit.responded();
+        Thread.sleep(50);
+        limiter.release(permit, CallOutcome.SUCCESS);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        // ...but waiting that long for the response does.
+        permit = limiter.acquire(null, INTERACTIVE, "/dummy");
+        Thread.sleep(50);
+        limiter.release(permit, CallOutcome.SUCCESS);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldCompareLatencyWithSameEndpoint() throws Exception {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(10).withBackoffRatio(0.5)
+                        .build();
+        for (int i = 0; i < 3; i++) {
+            Permit fast = limiter.acquire(null, INTERACTIVE, "/payments/:identity");
+            fast.responded();
+            limiter.release(fast, CallOutcome.SUCCESS);
+            Permit slow = limiter.acquire(null, INTERACTIVE, "/mandate_pdfs");
+            Thread.sleep(50);
+            limiter.release(slow, CallOutcome.SUCCESS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldGrowLimitWhileLatencyIsFlat() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(2).build();
+        for (int i = 0; i < 20; i++) {
+            Permit first = limiter.acquire(null, INTERACTIVE, "/dummy");
+            Permit second = limiter.acquire(null, INTERACTIVE, "/dummy");
+            limiter.release(first, CallOutcome.SUCCESS);
+            limiter.release(second, CallOutcome.SUCCESS);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+    }
+
+    @Test
+    public void shouldShrinkLimitWhenRequestsAreDropped() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(10).withBackoffRatio(0.5)
+                        .build();
+        Permit permit = limiter.acquire(null, INTERACTIVE, "/dummy");
+        limiter.release(permit, CallOutcome.DROPPED);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldOnlyShrinkOnceForRequestsSentUnderTheSameLimit() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(10).withBackoffRatio(0.5)
+                        .build();
+        Permit first = limiter.acquire(null, INTERACTIVE, "/dummy");
+        Permit second = limiter.acquire(null, INTERACTIVE, "/dummy");
+        limiter.release(first, CallOutcome.DROPPED);
+        limiter.release(second, CallOutcome.DROPPED);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldGrantQueuedRequestWhenPermitIsReleased() throws Exception {
+        final ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(1)
+                        .withMaxQueueWait(5, TimeUnit.SECONDS).build();
+        Permit permit = limiter.acquire(null, INTERACTIVE, "/dummy");
+        final CountDownLatch acquired = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                limiter.acquire(null, INTERACTIVE, "/dummy");
+                acquired.countDown();
+            }
+        }).start();
+        while (limiter.getQueueDepth() == 0) {
+            Thread.sleep(10);
+        }
+        assertThat(acquired.getCount()).isEqualTo(1);
+        limiter.release(permit, CallOutcome.SUCCESS);
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getQueueDepth()).isEqualTo(0);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldGrantInteractiveRequestsAheadOfBatchRequests() throws Exception {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(1)
+                        .withMaxQueueWait(5, TimeUnit.SECONDS).build();
+        Permit permit = limiter.acquire(null, INTERACTIVE, "/dummy");
+        final List<RequestPriority> granted = new CopyOnWriteArrayList<>();
+        Thread batch = waitForPermit(limiter, BATCH, granted);
+        while (limiter.getQueueDepth() < 1) {
+            Thread.sleep(10);
+        }
+        Thread interactive = waitForPermit(limiter, INTERACTIVE, granted);
+        while (limiter.getQueueDepth() < 2) {
+            Thread.sleep(10);
+        }
+        // Ignored outcomes leave the limit alone, so only one waiter is granted at a time.
+        limiter.release(permit, CallOutcome.IGNORED);
+        interactive.join(5000);
+        batch.join(5000);
+        assertThat(granted).containsExactly(INTERACTIVE, BATCH);
+    }
+
+    @Test
+    public void shouldRejectQueuedRequestAfterMaxQueueWait() {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(1)
+                        .withMaxQueueWait(50, TimeUnit.MILLISECONDS).build();
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+        exception.expect(ConcurrencyLimitExceededException.class);
+        limiter.acquire(null, INTERACTIVE, "/dummy");
+    }
+
+    @Test
+    public void shouldShrinkLimitOnInternalErrorFromApi() throws Exception {
+        ConcurrencyLimiter limiter =
+                ConcurrencyLimiter.newBuilder().withInitialLimit(10).withBackoffRatio(0.5)
+                        .build();
+        HttpClient client = http.client();
+        client.setConcurrencyLimiter(limiter);
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        boolean thrown = false;
+        try {
+            new DummyPostRequest(client).execute();
+        } catch (GoCardlessInternalException e) {
+            thrown = true;
+        }
+        assertThat(thrown).isTrue();
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(limiter.getInFlight()).isEqualTo(0);
+        assertThat(client.getMetrics().getConcurrencyLimiter()).isSameAs(limiter);
+    }
+
+    private static Thread waitForPermit(final ConcurrencyLimiter limiter,
+            final RequestPriority priority, final List<RequestPriority> granted) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Permit permit = limiter.acquire(null, priority, "/dummy");
+                granted.add(priority);
+                limiter.release(permit, CallOutcome.IGNORED);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static class DummyPostRequest extends PostRequest<DummyItem> {
+        DummyPostRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+
+        @Override
+        protected boolean hasBody() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.gocardless.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import com.gocardless.GoCardlessException;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+import com.gocardless.http.ListRequestTest.DummyListRequest;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ExporterTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String FIRST_PAGE =
+            "{\"string_field\":\"foo\",\"int_field\":111}\n"
+                    + "{\"string_field\":\"bar\",\"int_field\":222}\n";
+    private static final String LAST_PAGE = "{\"string_field\":\"baz\",\"int_field\":333}\n";
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldExportItemsAsNdjson() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long items = Exporter.newBuilder().build()
+                .export(DummyListRequest.iterableRequest(http.client()), out);
+        assertThat(items).isEqualTo(3);
+        assertThat(new String(out.toByteArray(), UTF_8)).isEqualTo(FIRST_PAGE + LAST_PAGE);
+        http.assertRequestMade("GET", "/dummy?id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+    }
+
+    @Test
+    public void shouldExportItemsAsCsv() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        File file = folder.newFile("dummy.csv");
+        Exporter.newBuilder().withFormat(Exporter.Format.CSV).build()
+                .export(DummyListRequest.iterableRequest(http.client()), file);
+        assertThat(read(file)).isEqualTo("string_field,int_field\r\nfoo,111\r\nbar,222\r\n"
+                + "baz,333\r\n");
+        assertThat(new File(file.getPath() + ".checkpoint")).doesNotExist();
+    }
+
+    @Test
+    public void shouldResumeInterruptedExportFromCheckpoint() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        File file = folder.newFile("dummy.ndjson.gz");
+        Exporter exporter = Exporter.newBuilder().withGzip(true).build();
+        try {
+            exporter.export(DummyListRequest.iterableRequest(http.client()), file);
+            fail("Expected the export to be interrupted");
+        } catch (GoCardlessException e) {
+            assertThat(new File(file.getPath() + ".checkpoint")).exists();
+        }
+        assertThat(gunzip(file)).isEqualTo(FIRST_PAGE);
+
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        long items = exporter.export(DummyListRequest.iterableRequest(http.client()), file);
+        assertThat(items).isEqualTo(3);
+        assertThat(gunzip(file)).isEqualTo(FIRST_PAGE + LAST_PAGE);
+        assertThat(new File(file.getPath() + ".checkpoint")).doesNotExist();
+        http.assertRequestMade("GET", "/dummy?id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+    }
+
+    @Test
+    public void shouldNotResumeFromCheckpointForAnotherExport() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        File file = folder.newFile("dummy.ndjson.gz");
+        Exporter exporter = Exporter.newBuilder().withGzip(true).build();
+        try {
+            exporter.export(DummyListRequest.iterableRequest(http.client()), file);
+            fail("Expected the export to be interrupted");
+        } catch (GoCardlessException e) {
+            assertThat(new File(file.getPath() + ".checkpoint")).exists();
+        }
+
+        DummyListRequest<Iterable<DummyItem>> filtered =
+                DummyListRequest.iterableRequest(http.client());
+        filtered.setLimit(2);
+        try {
+            exporter.export(filtered, file);
+            fail("Expected the checkpoint to be rejected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).contains(".checkpoint");
+        }
+        try {
+            Exporter.newBuilder().build()
+                    .export(DummyListRequest.iterableRequest(http.client()), file);
+            fail("Expected the checkpoint to be rejected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).contains(".checkpoint");
+        }
+        assertThat(gunzip(file)).isEqualTo(FIRST_PAGE);
+        http.assertRequestMade("GET", "/dummy?id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+    }
+
+    @Test
+    public void shouldExportRangesToSeparateFiles() throws Exception {
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        Exporter exporter =
+                Exporter.newBuilder().withExecutor(MoreExecutors.directExecutor()).build();
+        long items = exporter.exportSharded(new Exporter.RangeRequestFactory() {
+            @Override
+            public ListRequest<?, ?> newRequest(String createdAtGte, String createdAtLt) {
+                return DummyListRequest.iterableRequest(http.client());
+            }
+        }, Arrays.asList(null, "2015-01-01T00:00:00.000Z", null), folder.getRoot(), "dummy");
+        assertThat(items).isEqualTo(2);
+        assertThat(read(new File(folder.getRoot(), "dummy-0000.ndjson"))).isEqualTo(LAST_PAGE);
+        assertThat(read(new File(folder.getRoot(), "dummy-0001.ndjson"))).isEqualTo(LAST_PAGE);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+
+    private static String gunzip(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            return new String(ByteStreams.toByteArray(in), UTF_8);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.gocardless.http;
 
+import com.gocardless.errors.ErrorReason;
+import com.gocardless.errors.ErrorType;
 import com.gocardless.errors.InvalidApiUsageException;
 import com.gocardless.http.ApiResponse;
 import com.gocardless.http.HttpTestUtil.DummyItem;
@@ -10,6 +12,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class GetRequestTest {
@@ -41,6 +45,49 @@ public class GetRequestTest {
                 ImmutableMap.of("Authorization", "Bearer token", "Accept-Language", "fr-FR"));
     }
 
+    @Test
+    public void shouldPerformRawGetRequest() throws Exception {
+        http.enqueueResponse(200, "fixtures/single.json", ImmutableMap.of("foo", "bar"));
+        RawResponse result = new DummyGetRequest().executeRaw();
+        assertThat(result.getStatusCode()).isEqualTo(200);
+        assertThat(result.getHeader("foo")).isEqualTo("bar");
+        assertThat(result.getHeaders().get("foo")).containsExactly("bar");
+        assertThat(jsonMatchesFixture(result.getBody().utf8(), "fixtures/single.json")).isTrue();
+        http.assertRequestMade("GET", "/dummy/123");
+    }
+
+    @Test
+    public void shouldReturnResultWithRateLimitHeaders() throws Exception {
+        http.enqueueResponse(200, "fixtures/single.json",
+                ImmutableMap.of("RateLimit-Limit", "1000", "RateLimit-Remaining", "998"));
+        Result<DummyItem> result = new DummyGetRequest().executeForResult();
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getStatusCode()).isEqualTo(200);
+        assertThat(result.getResource().stringField).isEqualTo("foo");
+        assertThat(result.getRateLimitLimit()).isEqualTo(1000);
+        assertThat(result.getRateLimitRemaining()).isEqualTo(998);
+    }
+
+    @Test
+    public void shouldReturnApiErrorAsResultWithoutRetrying() throws Exception {
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        Result<DummyItem> result = new DummyGetRequest().executeForResult();
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getStatusCode()).isEqualTo(500);
+        assertThat(result.getErrorType()).isEqualTo(ErrorType.GOCARDLESS);
+        assertThat(result.getRateLimitRemaining()).isEqualTo(-1);
+        assertThat(http.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldExposeErrorReasonOnResult() throws Exception {
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        Result<DummyItem> result = new DummyGetRequest().executeForResult();
+        assertThat(result.getErrorReason()).isEqualTo(ErrorReason.INVALID_DOCUMENT_STRUCTURE);
+        assertThat(result.hasErrorReason(ErrorReason.INVALID_DOCUMENT_STRUCTURE)).isTrue();
+    }
+
     @Test
     public void shouldThrowOnApiError() throws Exception {
         http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
@@ -0,0 +1,169 @@
+package com.gocardless.http;
+
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+import okio.GzipSource;
+import okio.Okio;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GzipInterceptorTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    private HttpClient client;
+
+    @Before
+    public void setUp() {
+        client = http.client();
+    }
+
+    @Test
+    public void shouldRequestAndDecompressGzippedResponses() throws Exception {
+        http.enqueueGzippedResponse(200, "fixtures/single.json");
+        DummyItem result = new DummyGetRequest(client).execute();
+        assertThat(result.stringField).isEqualTo("foo");
+        assertThat(result.intField).isEqualTo(123);
+        RecordedRequest request = http.takeRequest();
+        assertThat(request.getHeader("Accept-Encoding")).isEqualTo("gzip");
+        CompressionMetrics metrics = client.getMetrics().getCompression();
+        assertThat(metrics.getCompressedResponses()).isEqualTo(1);
+        assertThat(metrics.getResponseBytesReceived()).isGreaterThan(0);
+        assertThat(metrics.getResponseBytesRaw()).isEqualTo(fixtureLength("fixtures/single.json"));
+    }
+
+    @Test
+    public void shouldCountUncompressedResponses() throws Exception {
+        http.enqueueResponse(200, "fixtures/single.json");
+        new DummyGetRequest(client).execute();
+        CompressionMetrics metrics = client.getMetrics().getCompression();
+        long length = fixtureLength("fixtures/single.json");
+        assertThat(metrics.getCompressedResponses()).isEqualTo(0);
+        assertThat(metrics.getResponseBytesReceived()).isEqualTo(length);
+        assertThat(metrics.getResponseBytesRaw()).isEqualTo(length);
+    }
+
+    @Test
+    public void shouldNotCompressRequestsByDefault() throws Exception {
+        http.enqueueResponse(200, "fixtures/single.json");
+        new DummyPostRequest(client).execute();
+        RecordedRequest request = http.takeRequest();
+        assertThat(request.getHeader("Content-Encoding")).isNull();
+        long size = request.getBodySize();
+        assertThat(jsonMatchesFixture(request.getBody().readUtf8(), "fixtures/single.json"))
+                .isTrue();
+        CompressionMetrics metrics = client.getMetrics().getCompression();
+        assertThat(size).isGreaterThan(0);
+        assertThat(metrics.getRequestBytesRaw()).isEqualTo(size);
+        assertThat(metrics.getRequestBytesSent()).isEqualTo(size);
+        assertThat(metrics.getCompressedRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCompressRequestsAboveThreshold() throws Exception {
+        client.enableRequestCompression(0);
+        http.enqueueResponse(200, "fixtures/single.json");
+        new DummyPostRequest(client).execute();
+        RecordedRequest request = http.takeRequest();
+        assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+        String body = Okio.buffer(new GzipSource(request.getBody())).readUtf8();
+        assertThat(jsonMatchesFixture(body, "fixtures/single.json")).isTrue();
+        CompressionMetrics metrics = client.getMetrics().getCompression();
+        assertThat(metrics.getCompressedRequests()).isEqualTo(1);
+        assertThat(metrics.getRequestBytesSent()).isEqualTo(request.getBodySize());
+    }
+
+    @Test
+    public void shouldNotCompressRequestsBelowThreshold() throws Exception {
+        client.enableRequestCompression(10000);
+        http.enqueueResponse(200, "fixtures/single.json");
+        new DummyPostRequest(client).execute();
+        RecordedRequest request = http.takeRequest();
+        assertThat(request.getHeader("Content-Encoding")).isNull();
+        assertThat(jsonMatchesFixture(request.getBody().readUtf8(), "fixtures/single.json"))
+                .isTrue();
+        assertThat(client.getMetrics().getCompression().getCompressedRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotDecompressEmptyResponses() throws Exception {
+        http.enqueueEmptyResponse(204, ImmutableMap.of("Content-Encoding", "gzip"));
+        CompressionMetrics metrics = new CompressionMetrics();
+        OkHttpClient okHttpClient = new OkHttpClient();
+        okHttpClient.interceptors().add(new GzipInterceptor(metrics));
+        Request request = new Request.Builder().url(http.getBaseUrl() + "/dummy").build();
+        Response response = okHttpClient.newCall(request).execute();
+        assertThat(response.code()).isEqualTo(204);
+        assertThat(response.body().string()).isEmpty();
+        assertThat(metrics.getCompressedResponses()).isEqualTo(0);
+    }
+
+    private static long fixtureLength(String fixturePath) throws Exception {
+        return Resources.toString(Resources.getResource(fixturePath), UTF_8).getBytes(UTF_8).length;
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        DummyGetRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+
+    private static class DummyPostRequest extends PostRequest<DummyItem> {
+        private int intField = 123;
+        private String stringField = "foo";
+
+        DummyPostRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+
+        @Override
+        protected boolean hasBody() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.gocardless.http;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.squareup.okhttp.mockwebserver.SocketPolicy.DISCONNECT_AFTER_REQUEST;
+import static com.squareup.okhttp.mockwebserver.SocketPolicy.NO_RESPONSE;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class HedgedCallTest {
+    private static final long HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private final List<TrackedBody> bodies = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private OkHttpClient client;
+    private HedgingPolicy policy;
+    private CallHandle callHandle;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient();
+        client.setRetryOnConnectionFailure(false);
+        client.getDispatcher().setMaxRequestsPerHost(client.getDispatcher().getMaxRequests());
+        client.networkInterceptors().add(new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Response response = chain.proceed(chain.request());
+                TrackedBody body = new TrackedBody(response.body());
+                bodies.add(body);
+                return response.newBuilder().body(body).build();
+            }
+        });
+        policy = HedgingPolicy.newBuilder().build();
+        callHandle = new CallHandle();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void shouldTakeHedgeWhenOriginalIsSlow() throws Exception {
+        respondWith(new DelayedResponse(0, new MockResponse().setSocketPolicy(NO_RESPONSE)),
+                new DelayedResponse(0, new MockResponse().setBody("hedge")));
+        HedgedCall hedgedCall = newHedgedCall(null, null);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(response.body().string()).isEqualTo("hedge");
+        hedgedCall.release();
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(policy.getHedgesSent()).isEqualTo(1);
+        assertThat(policy.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldTakeOriginalAndCancelHedgeWhenOriginalRespondsFirst() throws Exception {
+        respondWith(new DelayedResponse(150, new MockResponse().setBody("original")),
+                new DelayedResponse(2000, new MockResponse().setBody("hedge")));
+        HedgedCall hedgedCall = newHedgedCall(null, null);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(response.body().string()).isEqualTo("original");
+        hedgedCall.release();
+        assertThat(policy.getHedgesSent()).isEqualTo(1);
+        assertThat(policy.getHedgesWon()).isEqualTo(0);
+        // The hedge would still be waiting for its response if it hadn't been cancelled.
+        awaitNoRunningCalls();
+        for (TrackedBody body : bodies) {
+            assertThat(body.closed).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldCloseLosingResponseWhichArrivesAnyway() throws Exception {
+        respondWith(new DelayedResponse(100, new MockResponse().setBody("original")),
+                new DelayedResponse(50, new MockResponse().setBody("hedge")));
+        HedgedCall hedgedCall = newHedgedCall(null, null);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        String winner = response.body().string();
+        hedgedCall.release();
+        awaitNoRunningCalls();
+        // Whichever responded first, the other's response, if it arrived, is closed.
+        assertThat(winner).isIn("original", "hedge");
+        for (TrackedBody body : bodies) {
+            assertThat(body.closed).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldTakeHedgeWhenOriginalFails() throws Exception {
+        respondWith(new DelayedResponse(100,
+                new MockResponse().setSocketPolicy(DISCONNECT_AFTER_REQUEST)),
+                new DelayedResponse(200, new MockResponse().setBody("hedge")));
+        HedgedCall hedgedCall = newHedgedCall(null, null);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(response.body().string()).isEqualTo("hedge");
+        hedgedCall.release();
+        assertThat(policy.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldTakeOriginalWhenHedgeFails() throws Exception {
+        respondWith(new DelayedResponse(200, new MockResponse().setBody("original")),
+                new DelayedResponse(0,
+                        new MockResponse().setSocketPolicy(DISCONNECT_AFTER_REQUEST)));
+        HedgedCall hedgedCall = newHedgedCall(null, null);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(response.body().string()).isEqualTo("original");
+        hedgedCall.release();
+        assertThat(policy.getHedgesWon()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCancelBothCallsThroughCallHandle() throws Exception {
+        respondWith(new DelayedResponse(0, new MockResponse().setSocketPolicy(NO_RESPONSE)),
+                new DelayedResponse(0, new MockResponse().setSocketPolicy(NO_RESPONSE)));
+        final HedgedCall hedgedCall = newHedgedCall(null, null);
+        final Call original = newCall();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> future = executor.submit(new Callable<Response>() {
+                @Override
+                public Response call() throws Exception {
+                    return hedgedCall.execute(original, HEDGE_DELAY_NANOS);
+                }
+            });
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getRequestCount() < 2 && System.nanoTime() < giveUp) {
+                Thread.sleep(10);
+            }
+            assertThat(server.getRequestCount()).isEqualTo(2);
+            callHandle.cancel();
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected the hedged call to fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IOException.class);
+            }
+        } finally {
+            hedgedCall.release();
+            executor.shutdownNow();
+        }
+        assertThat(original.isCanceled()).isTrue();
+        awaitNoRunningCalls();
+    }
+
+    @Test
+    public void shouldOnlyHedgeWithSparePermits() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().withInitialLimit(1)
+                .withMaxLimit(1).build();
+        ConcurrencyLimiter.Permit permit = limiter.acquire(null, RequestPriority.INTERACTIVE,
+                "/dummy");
+        respondWith(new DelayedResponse(150, new MockResponse().setBody("original")));
+        HedgedCall hedgedCall = newHedgedCall(null, limiter);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(response.body().string()).isEqualTo("original");
+        hedgedCall.release();
+        limiter.release(permit, CallOutcome.SUCCESS);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(policy.getHedgesSent()).isEqualTo(0);
+        assertThat(limiter.getRejected()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldHoldHedgePermitsUntilReleased() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("dummy", 2, TimeUnit.SECONDS.toNanos(1));
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().withInitialLimit(2).build();
+        bulkhead.acquire(null);
+        ConcurrencyLimiter.Permit permit = limiter.acquire(null, RequestPriority.INTERACTIVE,
+                "/dummy");
+        respondWith(new DelayedResponse(0, new MockResponse().setSocketPolicy(NO_RESPONSE)),
+                new DelayedResponse(0, new MockResponse().setBody("hedge")));
+        HedgedCall hedgedCall = newHedgedCall(bulkhead, limiter);
+        Response response = hedgedCall.execute(newCall(), HEDGE_DELAY_NANOS);
+        assertThat(bulkhead.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(response.body().string()).isEqualTo("hedge");
+        hedgedCall.release();
+        assertThat(bulkhead.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        limiter.release(permit, CallOutcome.SUCCESS);
+        bulkhead.release();
+    }
+
+    private HedgedCall newHedgedCall(Bulkhead bulkhead, ConcurrencyLimiter limiter) {
+        return new HedgedCall(client, newRequest(), callHandle, null, policy, bulkhead, limiter);
+    }
+
+    private Call newCall() {
+        Call call = client.newCall(newRequest());
+        callHandle.attach(call);
+        return call;
+    }
+
+    private Request newRequest() {
+        String url = String.format("http://localhost:%d/dummy", server.getPort());
+        return new Request.Builder().url(url).build();
+    }
+
+    private void respondWith(final DelayedResponse... responses) {
+        final AtomicInteger count = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                DelayedResponse response = responses[count.getAndIncrement()];
+                Thread.sleep(response.delayMillis);
+                return response.response;
+            }
+        });
+    }
+
+    private void awaitNoRunningCalls() throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (client.getDispatcher().getRunningCallCount() > 0 && System.nanoTime() < giveUp) {
+            Thread.sleep(10);
+        }
+        assertThat(client.getDispatcher().getRunningCallCount()).isEqualTo(0);
+    }
+
+    private static final class DelayedResponse {
+        private final long delayMillis;
+        private final MockResponse response;
+
+        private DelayedResponse(long delayMillis, MockResponse response) {
+            this.delayMillis = delayMillis;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Records whether a response body has been closed, either directly or by reading it all.
+     */
+    private static final class TrackedBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private BufferedSource source;
+        private volatile boolean closed;
+
+        private TrackedBody(ResponseBody delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public synchronized BufferedSource source() throws IOException {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public void close() throws IOException {
+                        closed = true;
+                        super.close();
+                    }
+                });
+            }
+            return source;
+        }
+    }
+}
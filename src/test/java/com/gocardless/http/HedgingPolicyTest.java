@@ -0,0 +1,120 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HedgingPolicyTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+
+    @Test
+    public void shouldNotHedgeUntilEnoughLatenciesAreKnown() {
+        HedgingPolicy policy = HedgingPolicy.newBuilder().withMinimumSamples(10).build();
+        for (int i = 0; i < 9; i++) {
+            policy.recordLatency("payments", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(policy.hedgeDelayNanos("payments")).isEqualTo(-1);
+        policy.recordLatency("payments", TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(policy.hedgeDelayNanos("payments"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(policy.hedgeDelayNanos("mandates")).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldHedgeAfterMinimumDelayWhenNoLatenciesAreNeeded() {
+        HedgingPolicy policy =
+                HedgingPolicy.newBuilder().withMinimumSamples(0)
+                        .withMinDelay(50, TimeUnit.MILLISECONDS).build();
+        assertThat(policy.hedgeDelayNanos("payments"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void shouldHedgeAfterConfiguredPercentile() {
+        HedgingPolicy policy =
+                HedgingPolicy.newBuilder().withMinimumSamples(10).withPercentile(90).build();
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency("payments", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat(policy.hedgeDelayNanos("payments"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    public void shouldNotHedgeSoonerThanMinimumDelay() {
+        HedgingPolicy policy =
+                HedgingPolicy.newBuilder().withMinimumSamples(1)
+                        .withMinDelay(50, TimeUnit.MILLISECONDS).build();
+        policy.recordLatency("payments", TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(policy.hedgeDelayNanos("payments"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void shouldStopHedgingWhenBudgetRunsOut() {
+        HedgingPolicy policy = HedgingPolicy.newBuilder().withBudget(0.5).withMaxBurst(1).build();
+        assertThat(policy.tryHedge()).isTrue();
+        assertThat(policy.tryHedge()).isFalse();
+        policy.hedgeDelayNanos("payments");
+        policy.hedgeDelayNanos("payments");
+        assertThat(policy.tryHedge()).isTrue();
+        assertThat(policy.getHedgesSent()).isEqualTo(2);
+        assertThat(policy.getHedgesDenied()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldTakeHedgedResponseWhenOriginalIsSlow() throws Exception {
+        HedgingPolicy policy =
+                HedgingPolicy.newBuilder().withMinimumSamples(0)
+                        .withMinDelay(50, TimeUnit.MILLISECONDS).build();
+        HttpClient client = http.client();
+        client.setHedgingPolicy(policy);
+        http.enqueueNoResponse();
+        http.enqueueResponse(200, "fixtures/single.json");
+        DummyItem result = new DummyGetRequest(client).execute();
+        assertThat(result.stringField).isEqualTo("foo");
+        assertThat(policy.getHedgesSent()).isEqualTo(1);
+        assertThat(policy.getHedgesWon()).isEqualTo(1);
+        assertThat(client.getMetrics().getHedgingPolicy()).isSameAs(policy);
+    }
+
+    @Test
+    public void shouldNotHedgeWhenOriginalIsFast() throws Exception {
+        HedgingPolicy policy =
+                HedgingPolicy.newBuilder().withMinimumSamples(0)
+                        .withMinDelay(5, TimeUnit.SECONDS).build();
+        HttpClient client = http.client();
+        client.setHedgingPolicy(policy);
+        http.enqueueResponse(200, "fixtures/single.json");
+        DummyItem result = new DummyGetRequest(client).execute();
+        assertThat(result.stringField).isEqualTo("foo");
+        assertThat(policy.getHedgesSent()).isEqualTo(0);
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        DummyGetRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.gocardless.http;
 
 import java.util.Map;
 
+import com.gocardless.errors.ErrorType;
 import com.gocardless.errors.ValidationFailedException;
 
 import com.google.common.collect.ImmutableMap;
@@ -116,6 +117,78 @@ public class IdempotentPostRequestTest {
         request.execute();
     }
 
+    @Test
+    public void shouldHandleConflictByPerformingGetWithoutThrowing() throws Exception {
+        http.enqueueResponse(409, "fixtures/conflict.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        Result<HttpTestUtil.DummyItem> result = new DummyPostRequest().tryExecute();
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getResource().stringField).isEqualTo("foo");
+        http.assertRequestMade("POST", "/dummy", "fixtures/single.json",
+                ImmutableMap.of("Authorization", "Bearer token"));
+        http.assertRequestMade("GET", "/dummy/ID123",
+                ImmutableMap.of("Authorization", "Bearer token"));
+    }
+
+    @Test
+    public void shouldHandleConflictByPerformingGetWhenExecutingForResult() throws Exception {
+        http.enqueueResponse(409, "fixtures/conflict.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        Result<HttpTestUtil.DummyItem> result = new DummyPostRequest().executeForResult();
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getStatusCode()).isEqualTo(200);
+        assertThat(result.getResource().stringField).isEqualTo("foo");
+        http.assertRequestMade("POST", "/dummy", "fixtures/single.json",
+                ImmutableMap.of("Authorization", "Bearer token"));
+        http.assertRequestMade("GET", "/dummy/ID123",
+                ImmutableMap.of("Authorization", "Bearer token"));
+    }
+
+    @Test
+    public void shouldNotRetryWhenExecutingForResult() throws Exception {
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        Result<HttpTestUtil.DummyItem> result = new DummyPostRequest().executeForResult();
+        assertThat(result.getErrorType()).isEqualTo(ErrorType.GOCARDLESS);
+        assertThat(http.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReturnNonConflictErrorAsResult() throws Exception {
+        http.enqueueResponse(422, "fixtures/validation_failed.json");
+        Result<HttpTestUtil.DummyItem> result = new DummyPostRequest().tryExecute();
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getResource()).isNull();
+        assertThat(result.getStatusCode()).isEqualTo(422);
+        assertThat(result.getErrorType()).isEqualTo(ErrorType.VALIDATION_FAILED);
+        exception.expect(ValidationFailedException.class);
+        result.getOrThrow();
+    }
+
+    @Test
+    public void shouldReturnInternalErrorAsResultIfItPersists() throws Exception {
+        for (int i = 0; i < HttpClient.MAX_RETRIES; i++) {
+            http.enqueueResponse(500, "fixtures/internal_error.json");
+        }
+        Result<HttpTestUtil.DummyItem> result = new DummyPostRequest().tryExecute();
+        assertThat(result.getErrorType()).isEqualTo(ErrorType.GOCARDLESS);
+        assertThat(http.getRequestCount()).isEqualTo(HttpClient.MAX_RETRIES);
+    }
+
+    @Test
+    public void shouldThrowStacklessExceptionsWhenConfigured() throws Exception {
+        HttpClient client = http.client();
+        client.setStacklessErrors(true);
+        http.enqueueResponse(422, "fixtures/validation_failed.json");
+        try {
+            new DummyGetRequest(client, "ID123").execute();
+        } catch (ValidationFailedException e) {
+            assertThat(e.getStackTrace()).isEmpty();
+            return;
+        }
+        throw new AssertionError("Expected ValidationFailedException");
+    }
+
     @Test
     public void shouldPropagateExceptionIfTooManyFailures() {
         for (int i = 0; i < HttpClient.MAX_RETRIES; i++) {
@@ -0,0 +1,98 @@
+package com.gocardless.http;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.gocardless.http.HttpTestUtil.DummyItem;
+import com.gocardless.http.ListRequestTest.DummyListRequest;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests run against the Java 7 version of {@link JfrEvents}, which does nothing, so these check
+ * that it can stand in for the Java 11 version.
+ */
+public class JfrEventsTest {
+    private static final File JAVA_11_SOURCE =
+            new File("src/main/java11/com/gocardless/http/JfrEvents.java");
+    // Top-level static methods, which are indented by a single level.
+    private static final Pattern STATIC_METHOD =
+            Pattern.compile("(?m)^    static (\\w+) (\\w+)\\(([^)]*)\\)");
+
+    @Rule
+    public final MockHttp http = new MockHttp();
+
+    @Test
+    public void shouldHaveSameMethodsAsJava11Version() throws Exception {
+        Set<String> java11Methods = new TreeSet<>();
+        Matcher matcher = STATIC_METHOD.matcher(Files.toString(JAVA_11_SOURCE, UTF_8));
+        while (matcher.find()) {
+            List<String> parameterTypes = Lists.newArrayList();
+            for (String parameter : matcher.group(3).split(",")) {
+                String[] words = parameter.trim().split("\\s+");
+                if (words.length > 1) {
+                    parameterTypes.add(words[words.length - 2]);
+                }
+            }
+            java11Methods.add(signature(matcher.group(1), matcher.group(2), parameterTypes));
+        }
+        Set<String> java7Methods = new TreeSet<>();
+        for (Method method : JfrEvents.class.getDeclaredMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+                continue;
+            }
+            List<String> parameterTypes = Lists.newArrayList();
+            for (Class<?> type : method.getParameterTypes()) {
+                parameterTypes.add(type.getSimpleName());
+            }
+            java7Methods.add(signature(method.getReturnType().getSimpleName(), method.getName(),
+                    parameterTypes));
+        }
+        assertThat(java11Methods).isNotEmpty();
+        assertThat(java7Methods).isEqualTo(java11Methods);
+    }
+
+    @Test
+    public void shouldNotCreateEvents() {
+        assertThat(JfrEvents.beginRequest()).isNull();
+        assertThat(JfrEvents.beginPageFetch()).isNull();
+        assertThat(JfrEvents.beginWebhookVerify()).isNull();
+        assertThat(JfrEvents.beginWebhookParse()).isNull();
+        JfrEvents.commitRequest(null, "GET", "/dummy", 200, 0);
+        JfrEvents.retry("GET", "/dummy", 1, null);
+        JfrEvents.commitPageFetch(null, "/dummy", 0, true);
+        JfrEvents.commitWebhookVerify(null, false);
+        JfrEvents.commitWebhookParse(null, 0);
+    }
+
+    @Test
+    public void shouldRetryAndIterateWithoutEvents() throws Exception {
+        http.enqueueNetworkFailure();
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        List<DummyItem> items =
+                Lists.newArrayList(DummyListRequest.iterableRequest(http.client()).execute());
+        assertThat(items).hasSize(3);
+        assertThat(items.get(2).stringField).isEqualTo("baz");
+    }
+
+    private static String signature(String returnType, String name, List<String> parameters) {
+        return returnType + " " + name + "(" + Joiner.on(", ").join(parameters) + ")";
+    }
+}
@@ -6,11 +6,15 @@ import com.gocardless.http.HttpTestUtil.DummyItem;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.reflect.TypeToken;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.reactivestreams.Publisher;
+
+import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -103,6 +107,71 @@ public class ListRequestTest {
                 ImmutableMap.of("Authorization", "Bearer token", "Accept-Language", "fr-FR"));
     }
 
+    @Test
+    public void shouldReturnRawPageWithCursors() throws Exception {
+        http.enqueueResponse(200, "fixtures/page.json", ImmutableMap.of("foo", "bar"));
+        RawPage page = DummyListRequest.pageRequest(http.client()).executeRaw();
+        assertThat(page.getStatusCode()).isEqualTo(200);
+        assertThat(page.getHeader("foo")).isEqualTo("bar");
+        assertThat(page.getAfter()).isEqualTo("ID123");
+        assertThat(page.getBefore()).isEqualTo("ID456");
+        assertThat(page.getLimit()).isEqualTo(50);
+        assertThat(jsonMatchesFixture(page.getBody().utf8(), "fixtures/page.json")).isTrue();
+    }
+
+    @Test
+    public void shouldBeAbleToIterateThroughRawPages() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        List<RawPage> pages =
+                Lists.newArrayList(DummyListRequest.pageRequest(http.client()).rawPages());
+        assertThat(pages).hasSize(2);
+        assertThat(jsonMatchesFixture(pages.get(1).getBody().utf8(), "fixtures/last-page.json"))
+                .isTrue();
+        http.assertRequestMade("GET", "/dummy?id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+    }
+
+    @Test
+    public void shouldFetchPagesWithBatchPriorityWithoutChangingRequest() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        http.enqueueResponse(200, "fixtures/page.json");
+        final List<RequestPriority> priorities = Lists.newArrayList();
+        DummyListRequest<Iterable<DummyItem>> request = new DummyListRequest<Iterable<DummyItem>>(
+                http.client(), ListRequest.<DummyItem>iteratingExecutor()) {
+            @Override
+            protected ImmutableMap<String, Object> getQueryParams() {
+                priorities.add(getPriority());
+                return super.getQueryParams();
+            }
+        };
+        assertThat(Lists.newArrayList(request.execute())).hasSize(3);
+        assertThat(priorities).containsOnly(RequestPriority.BATCH);
+        assertThat(request.getPriority()).isEqualTo(RequestPriority.INTERACTIVE);
+        priorities.clear();
+        request.executeForResult();
+        assertThat(priorities).containsOnly(RequestPriority.INTERACTIVE);
+    }
+
+    @Test
+    public void shouldFetchPagesWithPrioritySetByCaller() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        final List<RequestPriority> priorities = Lists.newArrayList();
+        DummyListRequest<Iterable<DummyItem>> request = new DummyListRequest<Iterable<DummyItem>>(
+                http.client(), ListRequest.<DummyItem>iteratingExecutor()) {
+            @Override
+            protected ImmutableMap<String, Object> getQueryParams() {
+                priorities.add(getPriority());
+                return super.getQueryParams();
+            }
+        };
+        request.setPriority(RequestPriority.INTERACTIVE);
+        assertThat(Lists.newArrayList(request.execute())).hasSize(3);
+        assertThat(priorities).containsOnly(RequestPriority.INTERACTIVE);
+    }
+
     @Test
     public void shouldNotAllowExecuteWrappedWhenIterating() {
         DummyListRequest<Iterable<DummyItem>> request =
@@ -149,5 +218,10 @@ public class ListRequestTest {
         static DummyListRequest<Iterable<DummyItem>> iterableRequest(HttpClient httpClient) {
             return new DummyListRequest<>(httpClient, ListRequest.<DummyItem>iteratingExecutor());
         }
+
+        static DummyListRequest<Publisher<DummyItem>> publishingRequest(HttpClient httpClient) {
+            return new DummyListRequest<>(httpClient,
+                    ListRequest.<DummyItem>publishingExecutor(MoreExecutors.directExecutor()));
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.OkHttpClient;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoggingInterceptorTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldReplaceExistingLoggingInterceptor() {
+        OkHttpClient rawClient = new OkHttpClient();
+        HttpClient client = new HttpClient("token", http.getBaseUrl(), rawClient);
+        LoggingInterceptor first = LoggingInterceptor.newBuilder().build();
+        LoggingInterceptor second = LoggingInterceptor.newBuilder().withRedaction(true).build();
+        client.setLoggingInterceptor(first);
+        client.setLoggingInterceptor(second);
+        assertThat(rawClient.interceptors().get(0)).isSameAs(second);
+        assertThat(countLoggingInterceptors(rawClient)).isEqualTo(1);
+        client.setLoggingInterceptor(null);
+        assertThat(countLoggingInterceptors(rawClient)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldPassRequestsThroughWhenNotLogging() throws Exception {
+        HttpClient client = http.client();
+        client.setLoggingInterceptor(LoggingInterceptor.newBuilder().withSampleRate(0.0)
+                .withSlowThreshold(1, TimeUnit.MINUTES).withRedaction(true).build());
+        http.enqueueResponse(200, "fixtures/single.json");
+        DummyItem result = new DummyGetRequest(client).execute();
+        assertThat(result.stringField).isEqualTo("foo");
+    }
+
+    @Test
+    public void shouldRejectInvalidSampleRate() {
+        exception.expect(IllegalArgumentException.class);
+        LoggingInterceptor.newBuilder().withSampleRate(1.5).build();
+    }
+
+    private static int countLoggingInterceptors(OkHttpClient rawClient) {
+        int count = 0;
+        for (Interceptor interceptor : rawClient.interceptors()) {
+            if (interceptor instanceof LoggingInterceptor) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        DummyGetRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.gocardless.http;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.gocardless.GoCardlessClient;
 import com.gocardless.TestUtil;
@@ -13,6 +14,11 @@ import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
 
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
 import org.junit.rules.ExternalResource;
 
 import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
@@ -20,6 +26,7 @@ import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
 import static com.google.common.base.Charsets.UTF_8;
 
 import static com.squareup.okhttp.mockwebserver.SocketPolicy.DISCONNECT_AT_START;
+import static com.squareup.okhttp.mockwebserver.SocketPolicy.NO_RESPONSE;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -55,6 +62,34 @@ public class MockHttp extends ExternalResource {
         server.enqueue(response);
     }
 
+    public void enqueueEmptyResponse(int statusCode, Map<String, String> headers) {
+        MockResponse response = new MockResponse().setResponseCode(statusCode);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            response.setHeader(header.getKey(), header.getValue());
+        }
+        server.enqueue(response);
+    }
+
+    public void enqueueGzippedResponse(int statusCode, String fixturePath) throws Exception {
+        String body = Resources.toString(Resources.getResource(fixturePath), UTF_8);
+        Buffer compressed = new Buffer();
+        BufferedSink gzip = Okio.buffer(new GzipSink(compressed));
+        gzip.writeUtf8(body);
+        gzip.close();
+        server.enqueue(new MockResponse().setBody(compressed).setResponseCode(statusCode)
+                .setHeader("Content-Encoding", "gzip"));
+    }
+
+    public void enqueueSlowResponse(int statusCode, String fixturePath) throws Exception {
+        String body = Resources.toString(Resources.getResource(fixturePath), UTF_8);
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(statusCode)
+                .throttleBody(1, 1, TimeUnit.SECONDS));
+    }
+
+    public void enqueueNoResponse() {
+        server.enqueue(new MockResponse().setSocketPolicy(NO_RESPONSE));
+    }
+
     public void enqueueNetworkFailure() {
         server.enqueue(new MockResponse().setSocketPolicy(DISCONNECT_AT_START));
     }
@@ -93,6 +128,14 @@ public class MockHttp extends ExternalResource {
         assertThat(recordedRequest.getHeader(headerName)).isNotNull();
     }
 
+    public RecordedRequest takeRequest() throws Exception {
+        return server.takeRequest();
+    }
+
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+
     public String getBaseUrl() {
         return String.format("http://localhost:%d", server.getPort());
     }
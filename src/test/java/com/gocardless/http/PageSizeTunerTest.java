@@ -0,0 +1,65 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PageSizeTunerTest {
+    private static final String PATH = "payments";
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldGrowLimitWhileItemsArriveNoSlower() {
+        PageSizeTuner tuner = PageSizeTuner.newBuilder().build();
+        assertThat(tuner.getLimit(PATH)).isEqualTo(50);
+        tuner.record(PATH, 50, 50, 50000, millis(50));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(100);
+        tuner.record(PATH, 100, 100, 100000, millis(100));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(200);
+        tuner.record(PATH, 200, 200, 200000, millis(200));
+        tuner.record(PATH, 400, 400, 400000, millis(400));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(500);
+    }
+
+    @Test
+    public void shouldBackOffWhenLargerPagesAreSlowerPerItem() {
+        PageSizeTuner tuner = PageSizeTuner.newBuilder().withHoldPages(1).build();
+        tuner.record(PATH, 50, 50, 50000, millis(50));
+        tuner.record(PATH, 100, 100, 100000, millis(300));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(50);
+        tuner.record(PATH, 50, 50, 50000, millis(50));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(50);
+        tuner.record(PATH, 50, 50, 50000, millis(50));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldKeepPagesUnderSizeCap() {
+        PageSizeTuner tuner = PageSizeTuner.newBuilder().withMaxPageBytes(40000).build();
+        tuner.record(PATH, 50, 50, 100000, millis(50));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(20);
+    }
+
+    @Test
+    public void shouldIgnoreShortPages() {
+        PageSizeTuner tuner = PageSizeTuner.newBuilder().build();
+        tuner.record(PATH, 50, 7, 7000, millis(1));
+        assertThat(tuner.getLimit(PATH)).isEqualTo(50);
+        assertThat(tuner.getLimits()).containsEntry(PATH, 50);
+    }
+
+    @Test
+    public void shouldRejectInitialLimitOutsideBounds() {
+        exception.expect(IllegalArgumentException.class);
+        PageSizeTuner.newBuilder().withInitialLimit(1000).build();
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
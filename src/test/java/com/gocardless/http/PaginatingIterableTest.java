@@ -104,4 +104,27 @@ public class PaginatingIterableTest {
         http.assertRequestMade("GET", "/dummy?after=ID123&limit=2&id=123",
                 ImmutableMap.of("Authorization", "Bearer token"));
     }
+
+    @Test
+    public void shouldTunePageSizeUnlessLimitIsSet() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        PageSizeTuner tuner = PageSizeTuner.newBuilder().withInitialLimit(2).withMinLimit(1)
+                .build();
+        HttpClient client = http.client();
+        client.setPageSizeTuner(tuner);
+        DummyListRequest<Iterable<DummyItem>> request = DummyListRequest.iterableRequest(client);
+        List<DummyItem> items = Lists.newArrayList(new PaginatingIterable<>(request, client));
+        assertThat(items).hasSize(3);
+        assertThat(tuner.getLimit("/dummy")).isEqualTo(4);
+        assertThat(client.getMetrics().getPageSizeTuner().getLimits()).containsEntry("/dummy", 4);
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&limit=4&id=123");
+
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        request = DummyListRequest.iterableRequest(client);
+        request.setLimit(2);
+        Lists.newArrayList(new PaginatingIterable<>(request, client));
+        http.assertRequestMade("GET", "/dummy?limit=2&id=123");
+    }
 }
@@ -0,0 +1,104 @@
+package com.gocardless.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gocardless.GoCardlessException;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+import com.gocardless.http.ListRequestTest.DummyListRequest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PaginatingPublisherTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+
+    @Test
+    public void shouldPublishEveryPage() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        DummyListRequest.publishingRequest(http.client()).execute().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.items).hasSize(3);
+        assertThat(subscriber.items.get(0).stringField).isEqualTo("foo");
+        assertThat(subscriber.items.get(2).stringField).isEqualTo("baz");
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+        http.assertRequestMade("GET", "/dummy?id=123");
+        http.assertRequestMade("GET", "/dummy?after=ID123&id=123");
+    }
+
+    @Test
+    public void shouldOnlyFetchPagesAsItemsAreRequested() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(200, "fixtures/last-page.json");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        DummyListRequest.publishingRequest(http.client()).execute().subscribe(subscriber);
+        assertThat(http.getRequestCount()).isEqualTo(0);
+        subscriber.subscription.request(2);
+        assertThat(subscriber.items).hasSize(2);
+        assertThat(http.getRequestCount()).isEqualTo(1);
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items).hasSize(3);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(http.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSignalErrorsFetchingPages() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        DummyListRequest.publishingRequest(http.client()).execute().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.items).hasSize(2);
+        assertThat(subscriber.error).isInstanceOf(GoCardlessException.class);
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test
+    public void shouldStopPublishingWhenCancelled() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        DummyListRequest.publishingRequest(http.client()).execute().subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.items).hasSize(1);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(http.getRequestCount()).isEqualTo(1);
+    }
+
+    private static class RecordingSubscriber implements Subscriber<DummyItem> {
+        private final List<DummyItem> items = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(DummyItem item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.gocardless.http;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gocardless.errors.GoCardlessInternalException;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+import com.gocardless.http.ListRequestTest.DummyListRequest;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RequestTimeoutTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+
+    @Test
+    public void shouldTimeOutSlowRequest() throws Exception {
+        http.enqueueSlowResponse(200, "fixtures/single.json");
+        DummyGetRequest request = new DummyGetRequest(http.client());
+        request.setTimeout(200, TimeUnit.MILLISECONDS);
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            request.execute();
+            fail("Expected a RequestTimeoutException");
+        } catch (RequestTimeoutException e) {
+            assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isLessThan(2000);
+        }
+    }
+
+    @Test
+    public void shouldNotRetryBeyondDeadline() throws Exception {
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(500, "fixtures/internal_error.json");
+        http.enqueueResponse(200, "fixtures/single.json");
+        DummyGetRequest request = new DummyGetRequest(http.client());
+        request.setTimeout(300, TimeUnit.MILLISECONDS);
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            request.execute();
+            fail("Expected the internal error to be thrown");
+        } catch (GoCardlessInternalException e) {
+            assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isLessThan(500);
+        }
+    }
+
+    @Test
+    public void shouldApplyDeadlineAcrossPages() throws Exception {
+        http.enqueueResponse(200, "fixtures/first-page.json");
+        http.enqueueSlowResponse(200, "fixtures/last-page.json");
+        DummyListRequest<Iterable<DummyItem>> request =
+                DummyListRequest.iterableRequest(http.client());
+        request.setTimeout(500, TimeUnit.MILLISECONDS);
+        try {
+            Lists.newArrayList(request.execute());
+            fail("Expected a RequestTimeoutException");
+        } catch (RequestTimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldCancelInFlightRequest() throws Exception {
+        http.enqueueSlowResponse(200, "fixtures/single.json");
+        final DummyGetRequest request = new DummyGetRequest(http.client());
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                request.cancel();
+            }
+        }).start();
+        try {
+            request.execute();
+            fail("Expected a RequestCancelledException");
+        } catch (RequestCancelledException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldNotExecuteCancelledRequest() throws Exception {
+        DummyGetRequest request = new DummyGetRequest(http.client());
+        request.cancel();
+        try {
+            request.execute();
+            fail("Expected a RequestCancelledException");
+        } catch (RequestCancelledException e) {
+            // expected
+        }
+    }
+
+    private static class DummyGetRequest extends GetRequest<DummyItem> {
+        DummyGetRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.gocardless.http;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.gocardless.GoCardlessException;
+import com.gocardless.http.HttpTestUtil.DummyItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestTimingsTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+
+    @Test
+    public void shouldExposeTimingsOnWrappedResponses() throws Exception {
+        http.enqueueResponse(200, "fixtures/single.json");
+        ApiResponse<DummyItem> response = new DummyPostRequest(http.client()).executeWrapped();
+        RequestTimings timings = response.getTimings();
+        assertThat(timings.getMethod()).isEqualTo("POST");
+        assertThat(timings.getPathTemplate()).isEqualTo("/dummy");
+        assertThat(timings.getStatusCode()).isEqualTo(200);
+        assertThat(timings.getSerializeNanos()).isGreaterThan(0);
+        assertThat(timings.getParseNanos()).isGreaterThan(0);
+        assertThat(timings.getTotalNanos()).isGreaterThanOrEqualTo(timings.getQueueNanos()
+                + timings.getConnectNanos() + timings.getTimeToFirstByteNanos()
+                + timings.getDownloadNanos() + timings.getParseNanos());
+    }
+
+    @Test
+    public void shouldReportEachAttemptToListener() throws Exception {
+        final List<RequestTimings> reported = new CopyOnWriteArrayList<>();
+        HttpClient client = http.client();
+        client.setTimingListener(new RequestTimingListener() {
+            @Override
+            public void onRequestFinished(RequestTimings timings) {
+                reported.add(timings);
+            }
+        });
+        http.enqueueResponse(200, "fixtures/single.json");
+        http.enqueueResponse(400, "fixtures/invalid_api_usage.json");
+        new DummyPostRequest(client).execute();
+        try {
+            new DummyPostRequest(client).execute();
+        } catch (GoCardlessException e) {
+            // Failed attempts are reported too.
+        }
+        assertThat(reported).hasSize(2);
+        assertThat(reported.get(0).getStatusCode()).isEqualTo(200);
+        assertThat(reported.get(1).getStatusCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void shouldNotHaveTimingsWhenConstructedDirectly() {
+        ApiResponse<String> response = new ApiResponse<>("foo", 200,
+                Collections.<String, List<String>>emptyMap());
+        assertThat(response.getTimings()).isNull();
+    }
+
+    private static class DummyPostRequest extends PostRequest<DummyItem> {
+        private int intField = 123;
+        private String stringField = "foo";
+
+        DummyPostRequest(HttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected String getPathTemplate() {
+            return "/dummy";
+        }
+
+        @Override
+        protected String getEnvelope() {
+            return "items";
+        }
+
+        @Override
+        protected Class<DummyItem> getResponseClass() {
+            return DummyItem.class;
+        }
+
+        @Override
+        protected boolean hasBody() {
+            return true;
+        }
+    }
+}
@@ -2,12 +2,22 @@ package com.gocardless.http;
 
 import java.io.IOException;
 
+import com.google.common.base.Strings;
+
+import com.squareup.okhttp.RequestBody;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import static com.gocardless.http.HttpTestUtil.jsonMatchesFixture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class RequestWriterTest {
     private RequestWriter writer;
@@ -29,6 +39,40 @@ public class RequestWriterTest {
         assertThat(jsonMatchesFixture(result, "fixtures/single.json")).isTrue();
     }
 
+    @Test
+    public void shouldStreamRequestBodyAsJson() throws IOException {
+        Buffer buffer = new Buffer();
+        writer.writeBody(new DummyRequestWithPathParam(), "items").writeTo(buffer);
+        assertThat(jsonMatchesFixture(buffer.readUtf8(), "fixtures/single.json")).isTrue();
+    }
+
+    @Test
+    public void shouldBeAbleToWriteRequestBodyMoreThanOnce() throws IOException {
+        RequestBody body = writer.writeBody(new DummyRequest(), "items");
+        Buffer first = new Buffer();
+        Buffer second = new Buffer();
+        body.writeTo(first);
+        body.writeTo(second);
+        assertThat(first.readUtf8()).isEqualTo(second.readUtf8());
+    }
+
+    @Test
+    public void shouldPropagateFailureToWriteRequestBody() throws IOException {
+        RequestBody body = writer.writeBody(new LargeDummyRequest(), "items");
+        BufferedSink sink = Okio.buffer(new ForwardingSink(new Buffer()) {
+            @Override
+            public void write(Buffer source, long byteCount) throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        try {
+            body.writeTo(sink);
+            fail("Expected writing the body to fail");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Connection reset");
+        }
+    }
+
     private class DummyRequest {
         private int intField = 123;
         private String stringField = "foo";
@@ -38,4 +82,9 @@ public class RequestWriterTest {
         @PathParam
         private int id = 456;
     }
+
+    private class LargeDummyRequest {
+        // Larger than the writer's buffers, so it reaches the sink before it is flushed.
+        private String stringField = Strings.repeat("foo", 100000);
+    }
 }
@@ -74,7 +74,8 @@ public class ResponseParserTest {
     public void shouldParseInvalidApiUsageError() throws IOException {
         URL resource = Resources.getResource("fixtures/invalid_api_usage.json");
         String responseBody = Resources.toString(resource, UTF_8);
-        GoCardlessApiException exception = parser.parseError(responseBody);
+        GoCardlessApiException exception =
+                GoCardlessErrorMapper.toException(parser.parseErrorResponse(responseBody));
         assertThat(exception).isInstanceOf(InvalidApiUsageException.class);
         assertThat(exception.getType()).isEqualTo(INVALID_API_USAGE);
         assertThat(exception.getMessage()).isEqualTo("Invalid document structure");
@@ -93,7 +94,8 @@ public class ResponseParserTest {
     public void shouldParseInvalidStateError() throws IOException {
         URL resource = Resources.getResource("fixtures/invalid_state.json");
         String responseBody = Resources.toString(resource, UTF_8);
-        GoCardlessApiException exception = parser.parseError(responseBody);
+        GoCardlessApiException exception =
+                GoCardlessErrorMapper.toException(parser.parseErrorResponse(responseBody));
         assertThat(exception).isInstanceOf(InvalidStateException.class);
         assertThat(exception.getType()).isEqualTo(INVALID_STATE);
         assertThat(exception.getMessage()).isEqualTo("Bank account already exists");
@@ -113,7 +115,8 @@ public class ResponseParserTest {
     public void shouldParseValidationFailedError() throws IOException {
         URL resource = Resources.getResource("fixtures/validation_failed.json");
         String responseBody = Resources.toString(resource, UTF_8);
-        GoCardlessApiException exception = parser.parseError(responseBody);
+        GoCardlessApiException exception =
+                GoCardlessErrorMapper.toException(parser.parseErrorResponse(responseBody));
         assertThat(exception).isInstanceOf(ValidationFailedException.class);
         assertThat(exception.getType()).isEqualTo(VALIDATION_FAILED);
         assertThat(exception.getMessage())
@@ -139,7 +142,8 @@ public class ResponseParserTest {
     public void shouldParseInternalError() throws IOException {
         URL resource = Resources.getResource("fixtures/internal_error.json");
         String responseBody = Resources.toString(resource, UTF_8);
-        GoCardlessApiException exception = parser.parseError(responseBody);
+        GoCardlessApiException exception =
+                GoCardlessErrorMapper.toException(parser.parseErrorResponse(responseBody));
         assertThat(exception).isInstanceOf(GoCardlessInternalException.class);
         assertThat(exception.getType()).isEqualTo(GOCARDLESS);
         assertThat(exception.getMessage()).isEqualTo("THE BEES THEY'RE IN MY EYES");
@@ -156,6 +160,6 @@ public class ResponseParserTest {
         exception.expect(MalformedResponseException.class);
         URL resource = Resources.getResource("fixtures/non_json_response.html");
         String responseBody = Resources.toString(resource, UTF_8);
-        parser.parseError(responseBody);
+        parser.parseErrorResponse(responseBody);
     }
 }
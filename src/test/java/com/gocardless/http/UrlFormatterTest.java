@@ -92,4 +92,36 @@ public class UrlFormatterTest {
         HttpUrl result = urlFormatter.formatUrl(template, pathParams, queryParams);
         assertThat(result.toString()).isEqualTo("http://example.com/direct/debit/ID123");
     }
+
+    @Test
+    public void shouldEncodePathParams() {
+        String template = "payments/:identity/actions/cancel";
+        Map<String, String> pathParams = ImmutableMap.of("identity", "PM 1/2?x");
+        Map<String, Object> queryParams = ImmutableMap.<String, Object>of();
+        HttpUrl result = urlFormatter.formatUrl(template, pathParams, queryParams);
+        assertThat(result.toString())
+                .isEqualTo("http://example.com/payments/PM%201%2F2%3Fx/actions/cancel");
+    }
+
+    @Test
+    public void shouldReuseTemplateWithDifferentParameters() {
+        String template = "payments/:identity";
+        Map<String, Object> queryParams = ImmutableMap.<String, Object>of();
+        HttpUrl first =
+                urlFormatter.formatUrl(template, ImmutableMap.of("identity", "PM123"), queryParams);
+        HttpUrl second =
+                urlFormatter.formatUrl(template, ImmutableMap.of("identity", "PM456"), queryParams);
+        assertThat(first.toString()).isEqualTo("http://example.com/payments/PM123");
+        assertThat(second.toString()).isEqualTo("http://example.com/payments/PM456");
+    }
+
+    @Test
+    public void shouldResolveAbsoluteTemplateAgainstRootOfBaseUrl() {
+        urlFormatter = new UrlFormatter("http://example.com/direct/");
+        String template = "/debit/:id";
+        Map<String, String> pathParams = ImmutableMap.of("id", "ID123");
+        Map<String, Object> queryParams = ImmutableMap.<String, Object>of();
+        HttpUrl result = urlFormatter.formatUrl(template, pathParams, queryParams);
+        assertThat(result.toString()).isEqualTo("http://example.com/debit/ID123");
+    }
 }
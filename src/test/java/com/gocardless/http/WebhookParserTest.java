@@ -20,4 +20,36 @@ public class WebhookParserTest {
         assertThat(events.get(0).getId()).isEqualTo("EV00BD05S5VM2T");
         assertThat(events.get(1).getId()).isEqualTo("EV00BD05TB8K63");
     }
+
+    @Test
+    public void shouldAcceptValidSignature() {
+        String requestBody =
+                "{\"events\":[{\"id\":\"EV00BD05S5VM2T\",\"created_at\":\"2018-07-05T09:13:51.404Z\",\"resource_type\":\"subscriptions\",\"action\":\"created\",\"links\":{\"subscription\":\"SB0003JJQ2MR06\"},\"details\":{\"origin\":\"api\",\"cause\":\"subscription_created\",\"description\":\"Subscription created via the API.\"},\"metadata\":{}},{\"id\":\"EV00BD05TB8K63\",\"created_at\":\"2018-07-05T09:13:56.893Z\",\"resource_type\":\"mandates\",\"action\":\"created\",\"links\":{\"mandate\":\"MD000AMA19XGEC\"},\"details\":{\"origin\":\"api\",\"cause\":\"mandate_created\",\"description\":\"Mandate created via the API.\"},\"metadata\":{}}]}";
+        String webhookEndpointSecret = "ED7D658C-D8EB-4941-948B-3973214F2D49";
+        String signatureHeader = "2693754819d3e32d7e8fcb13c729631f316c6de8dc1cf634d6527f1c07276e7e";
+        assertThat(WebhookParser.isValidSignature(requestBody, signatureHeader,
+                webhookEndpointSecret)).isTrue();
+    }
+
+    @Test
+    public void shouldRejectInvalidSignature() {
+        String requestBody =
+                "{\"events\":[{\"id\":\"EV00BD05S5VM2T\",\"created_at\":\"2018-07-05T09:13:51.404Z\",\"resource_type\":\"subscriptions\",\"action\":\"created\",\"links\":{\"subscription\":\"SB0003JJQ2MR06\"},\"details\":{\"origin\":\"api\",\"cause\":\"subscription_created\",\"description\":\"Subscription created via the API.\"},\"metadata\":{}},{\"id\":\"EV00BD05TB8K63\",\"created_at\":\"2018-07-05T09:13:56.893Z\",\"resource_type\":\"mandates\",\"action\":\"created\",\"links\":{\"mandate\":\"MD000AMA19XGEC\"},\"details\":{\"origin\":\"api\",\"cause\":\"mandate_created\",\"description\":\"Mandate created via the API.\"},\"metadata\":{}}]}";
+        String webhookEndpointSecret = "ED7D658C-D8EB-4941-948B-3973214F2D49";
+        String signatureHeader = "1693754819d3e32d7e8fcb13c729631f316c6de8dc1cf634d6527f1c07276e7e";
+        assertThat(WebhookParser.isValidSignature(requestBody, signatureHeader,
+                webhookEndpointSecret)).isFalse();
+        assertThat(WebhookParser.isValidSignature(requestBody, "dummy", webhookEndpointSecret))
+                .isFalse();
+    }
+
+    @Test
+    public void shouldRejectSignatureForAnotherSecret() {
+        String requestBody =
+                "{\"events\":[{\"id\":\"EV00BD05S5VM2T\",\"created_at\":\"2018-07-05T09:13:51.404Z\",\"resource_type\":\"subscriptions\",\"action\":\"created\",\"links\":{\"subscription\":\"SB0003JJQ2MR06\"},\"details\":{\"origin\":\"api\",\"cause\":\"subscription_created\",\"description\":\"Subscription created via the API.\"},\"metadata\":{}},{\"id\":\"EV00BD05TB8K63\",\"created_at\":\"2018-07-05T09:13:56.893Z\",\"resource_type\":\"mandates\",\"action\":\"created\",\"links\":{\"mandate\":\"MD000AMA19XGEC\"},\"details\":{\"origin\":\"api\",\"cause\":\"mandate_created\",\"description\":\"Mandate created via the API.\"},\"metadata\":{}}]}";
+        String webhookEndpointSecret = "ED7D658C-D8EB-4941-948B-3973214F2D49";
+        String signatureHeader = "2693754819d3e32d7e8fcb13c729631f316c6de8dc1cf634d6527f1c07276e7e";
+        assertThat(WebhookParser.isValidSignature(requestBody, signatureHeader,
+                webhookEndpointSecret.toLowerCase())).isFalse();
+    }
 }
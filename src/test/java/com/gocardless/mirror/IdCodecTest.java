@@ -0,0 +1,45 @@
+package com.gocardless.mirror;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdCodecTest {
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+    private final IdCodec codec = new IdCodec();
+
+    @Test
+    public void shouldPackIdsIssuedByGoCardless() {
+        long code = codec.encode("PM00008KWW97PE");
+        assertThat(IdCodec.isPacked(code)).isTrue();
+        assertThat(code).isEqualTo(IdCodec.pack("PM00008KWW97PE"));
+        assertThat(codec.decode(code)).isEqualTo("PM00008KWW97PE");
+        assertThat(new IdCodec().decode(code)).isEqualTo("PM00008KWW97PE");
+        assertThat(IdCodec.unpack(IdCodec.pack("IMZZZZZZZZZZZZ"))).isEqualTo("IMZZZZZZZZZZZZ");
+        assertThat(IdCodec.pack("CR000035EME9H5")).isNotEqualTo(IdCodec.pack("CR000035EME9H6"));
+    }
+
+    @Test
+    public void shouldAssignCodesToOtherIds() {
+        long code = codec.encode("PM00001");
+        assertThat(IdCodec.isPacked(code)).isFalse();
+        assertThat(code).isNotEqualTo(IdCodec.NONE);
+        assertThat(codec.encode("PM00001")).isEqualTo(code);
+        assertThat(codec.lookup("PM00001")).isEqualTo(code);
+        assertThat(codec.decode(code)).isEqualTo("PM00001");
+        assertThat(IdCodec.pack("pm00008kww97pe")).isEqualTo(IdCodec.NONE);
+        assertThat(IdCodec.pack("XX00008KWW97PE")).isEqualTo(IdCodec.NONE);
+        assertThat(IdCodec.pack("PM0000UKWW97PE")).isEqualTo(IdCodec.NONE);
+    }
+
+    @Test
+    public void shouldNotAssignCodesOnLookup() {
+        assertThat(codec.lookup("PM00001")).isEqualTo(IdCodec.NONE);
+        assertThat(codec.lookup(null)).isEqualTo(IdCodec.NONE);
+        exception.expect(IllegalArgumentException.class);
+        codec.decode(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.gocardless.mirror;
+
+import com.gocardless.GoCardlessClient;
+import com.gocardless.http.MockHttp;
+import com.gocardless.resources.Mandate;
+import com.gocardless.resources.Payment;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalMirrorTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+    private GoCardlessClient client;
+
+    @Before
+    public void setUp() {
+        client = GoCardlessClient.newBuilder("token").withBaseUrl(http.getBaseUrl()).build();
+    }
+
+    @Test
+    public void shouldServeBackfilledResourcesFromMemory() throws Exception {
+        LocalMirror mirror = backfilledMirror();
+        assertThat(mirror.getPayment("PM00001").getStatus())
+                .isEqualTo(Payment.Status.PENDING_SUBMISSION);
+        assertThat(mirror.getPayment("PM00002").getStatus()).isEqualTo(Payment.Status.SUBMITTED);
+        assertThat(mirror.getMandate("MD00001").getStatus()).isEqualTo(Mandate.Status.ACTIVE);
+        assertThat(mirror.getPayment("PM99999")).isNull();
+        assertThat(mirror.isFresh()).isTrue();
+        assertThat(http.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldRefetchResourcesLinkedFromPolledEvents() throws Exception {
+        LocalMirror mirror = backfilledMirror();
+        http.enqueueResponse(200, "fixtures/mirror/list_events.json");
+        assertThat(mirror.poll()).isEqualTo(2);
+        assertThat(mirror.isPaymentDirty("PM00001")).isTrue();
+        assertThat(mirror.isMandateDirty("MD00001")).isTrue();
+        assertThat(mirror.isPaymentDirty("PM00002")).isFalse();
+        http.enqueueResponse(200, "fixtures/mirror/get_payment.json");
+        http.enqueueResponse(404, "fixtures/mirror/mandate_not_found.json");
+        assertThat(mirror.refresh()).isEqualTo(2);
+        assertThat(mirror.getPayment("PM00001").getStatus()).isEqualTo(Payment.Status.CONFIRMED);
+        assertThat(mirror.getMandate("MD00001")).isNull();
+        assertThat(mirror.getDirtyCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldKeepIndexesUpToDateWithRefetchedResources() throws Exception {
+        LocalMirror mirror = backfilledMirror();
+        assertThat(mirror.getPaymentsForMandate("MD00001")).extracting("id")
+                .containsOnly("PM00001", "PM00002");
+        assertThat(mirror.getPaymentsForMandate("MD00001", Payment.Status.SUBMITTED))
+                .extracting("id").containsOnly("PM00002");
+        assertThat(mirror.getPaymentsWithStatus(Payment.Status.PENDING_SUBMISSION))
+                .extracting("id").containsOnly("PM00001");
+        assertThat(mirror.getMandatesForCustomer("CU00001")).extracting("id")
+                .containsOnly("MD00001");
+        assertThat(mirror.getPaymentsForMandate("MD99999")).isEmpty();
+        http.enqueueResponse(200, "fixtures/mirror/list_events.json");
+        mirror.poll();
+        http.enqueueResponse(200, "fixtures/mirror/get_payment.json");
+        http.enqueueResponse(404, "fixtures/mirror/mandate_not_found.json");
+        mirror.refresh();
+        assertThat(mirror.getPaymentsWithStatus(Payment.Status.PENDING_SUBMISSION)).isEmpty();
+        assertThat(mirror.getPaymentsForMandate("MD00001", Payment.Status.CONFIRMED))
+                .extracting("id").containsOnly("PM00001");
+        assertThat(mirror.getMandatesForCustomer("CU00001")).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepResourceDirtyIfRefetchFails() throws Exception {
+        LocalMirror mirror = backfilledMirror();
+        http.enqueueResponse(200, "fixtures/mirror/list_events.json");
+        mirror.poll();
+        for (int i = 0; i < 3; i++) {
+            http.enqueueResponse(500, "fixtures/internal_error.json");
+        }
+        http.enqueueResponse(404, "fixtures/mirror/mandate_not_found.json");
+        assertThat(mirror.refresh()).isEqualTo(2);
+        assertThat(mirror.isPaymentDirty("PM00001")).isTrue();
+        assertThat(mirror.getPayment("PM00001").getStatus())
+                .isEqualTo(Payment.Status.PENDING_SUBMISSION);
+    }
+
+    @Test
+    public void shouldRestoreFromCheckpoint() throws Exception {
+        LocalMirror mirror = backfilledMirror();
+        http.enqueueResponse(200, "fixtures/mirror/list_events.json");
+        mirror.poll();
+        Checkpoint checkpoint = mirror.checkpoint();
+        assertThat(checkpoint.getPayments()).containsOnlyKeys("PM00001", "PM00002");
+        assertThat(checkpoint.getDirtyPayments()).containsOnly("PM00001");
+        assertThat(checkpoint.getEventsCreatedAt()).isNotNull();
+        LocalMirror restored = LocalMirror.newBuilder(client).withCheckpoint(checkpoint).build();
+        assertThat(restored.getPayment("PM00002").getStatus())
+                .isEqualTo(Payment.Status.SUBMITTED);
+        assertThat(restored.isPaymentDirty("PM00001")).isTrue();
+        exception.expect(IllegalStateException.class);
+        LocalMirror.newBuilder(client).build().poll();
+    }
+
+    private LocalMirror backfilledMirror() throws Exception {
+        http.enqueueResponse(200, "fixtures/mirror/list_payments.json");
+        http.enqueueResponse(200, "fixtures/mirror/list_mandates.json");
+        http.enqueueResponse(200, "fixtures/mirror/list_subscriptions.json");
+        LocalMirror mirror = LocalMirror.newBuilder(client).build();
+        mirror.backfill();
+        return mirror;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gocardless.mirror;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongObjectMapTest {
+    @Test
+    public void shouldPutGetAndRemoveValues() {
+        LongObjectMap<String> map = new LongObjectMap<>(0);
+        for (long key = -100; key < 100; key++) {
+            assertThat(map.put(key << 40, "value" + key)).isNull();
+        }
+        assertThat(map.size()).isEqualTo(200);
+        assertThat(map.put(0, "zero")).isEqualTo("value0");
+        assertThat(map.get(0)).isEqualTo("zero");
+        for (long key = -100; key < 100; key += 2) {
+            assertThat(map.remove(key << 40)).isNotNull();
+        }
+        assertThat(map.size()).isEqualTo(100);
+        assertThat(map.keys()).hasSize(100);
+        for (long key = -99; key < 100; key += 2) {
+            assertThat(map.get(key << 40)).isEqualTo("value" + key);
+            assertThat(map.containsKey((key - 1) << 40)).isFalse();
+        }
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get(0)).isNull();
+    }
+
+    @Test
+    public void shouldAddAndRemoveSetValues() {
+        LongHashSet set = new LongHashSet();
+        assertThat(set.add(IdCodec.pack("PM00008KWW97PE"))).isTrue();
+        assertThat(set.add(IdCodec.pack("PM00008KWW97PE"))).isFalse();
+        assertThat(set.add(0)).isTrue();
+        for (long value = 1; value <= 1000; value++) {
+            set.add(value * 31);
+        }
+        assertThat(set.size()).isEqualTo(1002);
+        assertThat(set.contains(IdCodec.pack("PM00008KWW97PE"))).isTrue();
+        assertThat(set.remove(0)).isTrue();
+        assertThat(set.remove(0)).isFalse();
+        for (long value = 1; value <= 1000; value++) {
+            assertThat(set.remove(value * 31)).isTrue();
+        }
+        assertThat(set.toArray()).containsOnly(IdCodec.pack("PM00008KWW97PE"));
+    }
+}
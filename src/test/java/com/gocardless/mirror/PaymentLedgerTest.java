@@ -0,0 +1,68 @@
+package com.gocardless.mirror;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.gocardless.resources.Payment;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PaymentLedgerTest {
+    private static final Gson GSON = new Gson();
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final PaymentLedger ledger = new PaymentLedger(0, pool);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldSumAmountsByCurrencyAndDay() {
+        ledger.addAll(Arrays.asList(
+                payment("PM00001", 1000, "GBP", "2017-10-02", "confirmed"),
+                payment("PM00002", 2500, "GBP", "2017-10-02", "paid_out"),
+                payment("PM00003", 700, "EUR", "2017-10-03", "paid_out"),
+                payment("PM00004", 9999, "GBP", "2017-10-02", "failed"),
+                payment("PM00005", 300, "GBP", "2017-11-01", "confirmed")));
+        PaymentLedger.Totals totals = ledger.sumByCurrencyAndDay("2017-10-01", "2017-10-31",
+                Payment.Status.CONFIRMED, Payment.Status.PAID_OUT);
+        assertThat(totals.getAmount(Payment.Currency.GBP, "2017-10-02")).isEqualTo(3500);
+        assertThat(totals.getCount(Payment.Currency.GBP, "2017-10-02")).isEqualTo(2);
+        assertThat(totals.getAmount(Payment.Currency.GBP, "2017-10-03")).isEqualTo(0);
+        assertThat(totals.getAmount(Payment.Currency.EUR)).isEqualTo(700);
+        assertThat(ledger.sumByCurrency().getAmount(Payment.Currency.GBP)).isEqualTo(13799);
+    }
+
+    @Test
+    public void shouldReplaceRowsOfPaymentsAddedAgain() {
+        ledger.add(payment("PM00001", 1000, "GBP", "2017-10-02", "submitted"));
+        ledger.add(payment("PM00001", 1000, "GBP", "2017-10-02", "confirmed"));
+        assertThat(ledger.size()).isEqualTo(1);
+        assertThat(ledger.sumByCurrency(Payment.Status.SUBMITTED).getCount(Payment.Currency.GBP))
+                .isEqualTo(0);
+        assertThat(ledger.sumByCurrency(Payment.Status.CONFIRMED).getAmount(Payment.Currency.GBP))
+                .isEqualTo(1000);
+    }
+
+    @Test
+    public void shouldSplitLargeLedgersBetweenTasks() {
+        for (int i = 0; i < 200000; i++) {
+            ledger.add(payment("PM" + i, 1, "SEK", "2017-10-0" + (1 + i % 9), "paid_out"));
+        }
+        PaymentLedger.Totals totals = ledger.sumByCurrencyAndDay("2017-10-01", "2017-10-09");
+        assertThat(totals.getCount(Payment.Currency.SEK)).isEqualTo(200000);
+        assertThat(totals.getAmount(Payment.Currency.SEK, "2017-10-01")).isEqualTo(22223);
+    }
+
+    private static Payment payment(String id, int amount, String currency, String chargeDate,
+            String status) {
+        return GSON.fromJson("{\"id\":\"" + id + "\",\"amount\":" + amount + ",\"currency\":\""
+                + currency + "\",\"chargeDate\":\"" + chargeDate + "\",\"status\":\"" + status
+                + "\"}", Payment.class);
+    }
+}
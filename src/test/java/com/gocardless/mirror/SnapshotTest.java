@@ -0,0 +1,143 @@
+package com.gocardless.mirror;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.gocardless.resources.Mandate;
+import com.gocardless.resources.Payment;
+import com.google.gson.Gson;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotTest {
+    private static final Gson GSON = new Gson();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldRoundTripPayments() throws Exception {
+        File file = folder.newFile("payments.snapshot");
+        SnapshotWriter<Payment> writer = PaymentSnapshot.newWriter(file);
+        writer.append(payment("{\"id\":\"PM00001\",\"status\":\"paid_out\",\"currency\":\"GBP\","
+                + "\"amount\":1000,\"chargeDate\":\"2014-05-21\","
+                + "\"createdAt\":\"2014-05-08T17:01:06.000Z\",\"reference\":\"WINEBOX001\","
+                + "\"metadata\":{\"order_dispatch_date\":\"2014-05-22\"},"
+                + "\"links\":{\"mandate\":\"MD00001\",\"creditor\":\"CR00001\"}}"));
+        writer.append(payment("{\"id\":\"PM00002\",\"status\":\"submitted\","
+                + "\"createdAt\":\"2014-05-09T10:00:00.123Z\",\"description\":\"Caf\u00e9\"}"));
+        writer.setCursor("2014-05-10T00:00:00.000Z", "EV00042");
+        writer.close();
+
+        PaymentSnapshot snapshot = PaymentSnapshot.open(file);
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.getCreatedAtHighWater()).isEqualTo("2014-05-10T00:00:00.000Z");
+        assertThat(snapshot.getLastEventId()).isEqualTo("EV00042");
+        assertThat(snapshot.indexOf("PM00002")).isEqualTo(1);
+        assertThat(snapshot.indexOf("PM99999")).isEqualTo(-1);
+
+        Payment first = snapshot.get("PM00001");
+        assertThat(first.getStatus()).isEqualTo(Payment.Status.PAID_OUT);
+        assertThat(first.getCurrency()).isEqualTo(Payment.Currency.GBP);
+        assertThat(first.getAmount()).isEqualTo(1000);
+        assertThat(first.getAmountRefunded()).isNull();
+        assertThat(first.getChargeDate()).isEqualTo("2014-05-21");
+        assertThat(first.getCreatedAt()).isEqualTo("2014-05-08T17:01:06.000Z");
+        assertThat(first.getReference()).isEqualTo("WINEBOX001");
+        assertThat(first.getMetadata()).containsEntry("order_dispatch_date", "2014-05-22");
+        assertThat(first.getLinks().getMandate()).isEqualTo("MD00001");
+        assertThat(first.getLinks().getPayout()).isNull();
+
+        assertThat(snapshot.getStatus(1)).isEqualTo(Payment.Status.SUBMITTED);
+        assertThat(snapshot.getCurrency(1)).isNull();
+        assertThat(snapshot.getChargeDate(1)).isNull();
+        assertThat(snapshot.getDescription(1)).isEqualTo("Caf\u00e9");
+        assertThat(snapshot.getMetadata(1)).isNull();
+    }
+
+    @Test
+    public void shouldDefaultHighWaterMarkToLatestCreatedAt() throws Exception {
+        File file = folder.newFile("mandates.snapshot");
+        SnapshotWriter<Mandate> writer = MandateSnapshot.newWriter(file);
+        writer.append(mandate("{\"id\":\"MD00002\",\"status\":\"active\","
+                + "\"createdAt\":\"2015-01-02T00:00:00.000Z\",\"paymentsRequireApproval\":true,"
+                + "\"nextPossibleChargeDate\":\"2015-01-07\",\"scheme\":\"bacs\","
+                + "\"links\":{\"customerBankAccount\":\"BA00001\"}}"));
+        writer.append(mandate("{\"id\":\"MD00001\",\"status\":\"cancelled\","
+                + "\"createdAt\":\"2015-01-01T00:00:00.000Z\"}"));
+        writer.close();
+
+        MandateSnapshot snapshot = MandateSnapshot.open(file);
+        assertThat(snapshot.getCreatedAtHighWater()).isEqualTo("2015-01-02T00:00:00.000Z");
+        assertThat(snapshot.getLastEventId()).isNull();
+        Mandate mandate = snapshot.get("MD00002");
+        assertThat(mandate.getStatus()).isEqualTo(Mandate.Status.ACTIVE);
+        assertThat(mandate.getPaymentsRequireApproval()).isTrue();
+        assertThat(mandate.getNextPossibleChargeDate()).isEqualTo("2015-01-07");
+        assertThat(mandate.getScheme()).isEqualTo("bacs");
+        assertThat(mandate.getLinks().getCustomerBankAccount()).isEqualTo("BA00001");
+        assertThat(snapshot.getPaymentsRequireApproval(1)).isNull();
+        assertThat(snapshot.getStatus(1)).isEqualTo(Mandate.Status.CANCELLED);
+    }
+
+    @Test
+    public void shouldRoundTripEmptySnapshots() throws Exception {
+        File file = folder.newFile("payments.snapshot");
+        SnapshotWriter<Payment> writer = PaymentSnapshot.newWriter(file);
+        writer.setCursor("2014-05-10T00:00:00.000Z", "EV00042");
+        writer.close();
+
+        PaymentSnapshot snapshot = PaymentSnapshot.open(file);
+        assertThat(snapshot.size()).isEqualTo(0);
+        assertThat(snapshot.getCreatedAtHighWater()).isEqualTo("2014-05-10T00:00:00.000Z");
+        assertThat(snapshot.getLastEventId()).isEqualTo("EV00042");
+        assertThat(snapshot.indexOf("PM00001")).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldRejectIncompleteSnapshots() throws Exception {
+        File file = folder.newFile("payments.snapshot");
+        SnapshotWriter<Payment> writer = PaymentSnapshot.newWriter(file);
+        writer.append(payment("{\"id\":\"PM00001\",\"createdAt\":\"2014-05-08T17:01:06.000Z\"}"));
+        exception.expect(IOException.class);
+        PaymentSnapshot.open(file);
+    }
+
+    @Test
+    public void shouldKeepPreviousSnapshotUntilWriterIsClosed() throws Exception {
+        File file = folder.newFile("payments.snapshot");
+        SnapshotWriter<Payment> writer = PaymentSnapshot.newWriter(file);
+        writer.append(payment("{\"id\":\"PM00001\",\"createdAt\":\"2014-05-08T17:01:06.000Z\"}"));
+        writer.close();
+
+        writer = PaymentSnapshot.newWriter(file);
+        writer.append(payment("{\"id\":\"PM00001\",\"createdAt\":\"2014-05-08T17:01:06.000Z\"}"));
+        writer.append(payment("{\"id\":\"PM00002\",\"createdAt\":\"2014-05-09T10:00:00.000Z\"}"));
+        assertThat(PaymentSnapshot.open(file).size()).isEqualTo(1);
+        writer.close();
+        assertThat(PaymentSnapshot.open(file).size()).isEqualTo(2);
+        assertThat(folder.getRoot().list()).containsExactly("payments.snapshot");
+    }
+
+    @Test
+    public void shouldRejectSnapshotsOfOtherResources() throws Exception {
+        File file = folder.newFile("mandates.snapshot");
+        MandateSnapshot.newWriter(file).close();
+        exception.expect(IOException.class);
+        PaymentSnapshot.open(file);
+    }
+
+    private static Payment payment(String json) {
+        return GSON.fromJson(json, Payment.class);
+    }
+
+    private static Mandate mandate(String json) {
+        return GSON.fromJson(json, Mandate.class);
+    }
+}
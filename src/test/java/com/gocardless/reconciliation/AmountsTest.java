@@ -0,0 +1,41 @@
+package com.gocardless.reconciliation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AmountsTest {
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldParseAmountsExactly() {
+        assertThat(Amounts.parse("1000.0")).isEqualTo(10000000);
+        assertThat(Amounts.parse("-2.5")).isEqualTo(-25000);
+        assertThat(Amounts.parse("12")).isEqualTo(120000);
+        assertThat(Amounts.parse("0.0001")).isEqualTo(1);
+        assertThat(Amounts.parse("+3.25")).isEqualTo(32500);
+    }
+
+    @Test
+    public void shouldRoundHalvesAwayFromZero() {
+        assertThat(Amounts.round(Amounts.parse("2.5"))).isEqualTo(3);
+        assertThat(Amounts.round(Amounts.parse("-2.5"))).isEqualTo(-3);
+        assertThat(Amounts.round(Amounts.parse("2.4999"))).isEqualTo(2);
+        assertThat(Amounts.round(Amounts.parse("-0.4"))).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRejectAmountsWhichCannotBeHeldExactly() {
+        exception.expect(IllegalArgumentException.class);
+        Amounts.parse("0.00001");
+    }
+
+    @Test
+    public void shouldRejectMalformedAmounts() {
+        exception.expect(IllegalArgumentException.class);
+        Amounts.parse("1.2.3");
+    }
+}
@@ -0,0 +1,51 @@
+package com.gocardless.reconciliation;
+
+import com.gocardless.GoCardlessClient;
+import com.gocardless.http.MockHttp;
+import com.gocardless.resources.PayoutItem;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PayoutReconcilerTest {
+    @Rule
+    public final MockHttp http = new MockHttp();
+    private PayoutReconciler reconciler;
+
+    @Before
+    public void setUp() {
+        GoCardlessClient client =
+                GoCardlessClient.newBuilder("token").withBaseUrl(http.getBaseUrl()).build();
+        reconciler = PayoutReconciler.newBuilder(client)
+                .withExecutor(MoreExecutors.directExecutor()).build();
+    }
+
+    @Test
+    public void shouldReconcilePayoutAgainstItems() throws Exception {
+        http.enqueueResponse(200, "fixtures/reconciliation/payout.json");
+        http.enqueueResponse(200, "fixtures/reconciliation/payout_items.json");
+        http.enqueueResponse(200, "fixtures/reconciliation/payment.json");
+        http.enqueueResponse(404, "fixtures/reconciliation/payment_not_found.json");
+        PayoutReconciliation reconciliation = reconciler.reconcile("PO00001");
+        assertThat(reconciliation.getItemCount(PayoutItem.Type.PAYMENT_PAID_OUT)).isEqualTo(2);
+        assertThat(reconciliation.getItemTotal(PayoutItem.Type.GOCARDLESS_FEE))
+                .isEqualTo(-69000);
+        assertThat(reconciliation.getItemsTotal()).isEqualTo(24931000);
+        assertThat(reconciliation.getExpectedAmount()).isEqualTo(2493);
+        assertThat(reconciliation.getExpectedDeductedFees()).isEqualTo(7);
+        assertThat(reconciliation.isAmountReconciled()).isTrue();
+        assertThat(reconciliation.isDeductedFeesReconciled()).isTrue();
+        assertThat(reconciliation.getPayments()).containsOnlyKeys("PM00001");
+        assertThat(reconciliation.getUnresolvedPayments()).containsOnly("PM00002");
+        assertThat(reconciliation.isReconciled()).isFalse();
+        http.assertRequestMade("GET", "/payouts/PO00001");
+        http.assertRequestMade("GET", "/payout_items?payout=PO00001");
+        http.assertRequestMade("GET", "/payments/PM00001");
+        http.assertRequestMade("GET", "/payments/PM00002");
+    }
+}